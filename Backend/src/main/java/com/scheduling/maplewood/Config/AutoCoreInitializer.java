@@ -9,6 +9,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +33,7 @@ public class AutoCoreInitializer {
      * It must run after courses are loaded.
      */
     @EventListener(ApplicationReadyEvent.class)  // runs only after full startup
+    @Order(Ordered.HIGHEST_PRECEDENCE)           // before the progress aggregates are rebuilt
     @Transactional
     public void initializeCoreCourses() {
 
@@ -0,0 +1,79 @@
+package com.scheduling.maplewood.Config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Profile("!test")
+@Slf4j
+public class SchemaIndexInitializer {
+
+    /**
+     * At most this many duplicate groups are named when a unique index cannot be created.
+     */
+    private static final int MAX_REPORTED_DUPLICATES = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A unique index over some columns of a table.
+     */
+    private record UniqueIndex(String name, String table, String columns) {
+
+        String create() {
+            return "CREATE UNIQUE INDEX IF NOT EXISTS " + name + " ON " + table + "(" + columns + ")";
+        }
+
+        String duplicates() {
+            return "SELECT " + columns + ", COUNT(*) FROM " + table + " GROUP BY " + columns
+                    + " HAVING COUNT(*) > 1 LIMIT " + MAX_REPORTED_DUPLICATES;
+        }
+    }
+
+    /**
+     * Indexes and constraints that ddl-auto=update does not add to tables that already exist.
+     */
+    private static final List<UniqueIndex> UNIQUE_INDEXES = List.of(
+            new UniqueIndex("ux_student_enrollments_student_course_semester",
+                    "student_enrollments", "student_id, course_id, semester_id")
+    );
+
+    /**
+     * Creates the missing indexes once the application has started.
+     *
+     * The database is what guarantees these constraints, so the application does not run without them:
+     * if existing rows violate a unique index, the duplicates are logged at ERROR and startup fails, as it
+     * does if the statement fails for any other reason. The duplicates have to be cleaned up first.
+     *
+     * @throws IllegalStateException if existing rows violate a unique index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        for (UniqueIndex index : UNIQUE_INDEXES) {
+            List<String> duplicates = jdbcTemplate.query(index.duplicates(), (rs, rowNum) -> {
+                int columns = rs.getMetaData().getColumnCount();
+                StringBuilder row = new StringBuilder("(");
+                for (int i = 1; i < columns; i++) {
+                    if (i > 1) row.append(", ");
+                    row.append(rs.getMetaData().getColumnName(i)).append('=').append(rs.getObject(i));
+                }
+                return row.append(") x").append(rs.getLong(columns)).toString();
+            });
+            if (!duplicates.isEmpty()) {
+                log.error("Cannot create unique index {} on {}({}), duplicate rows (first {} shown): {}",
+                        index.name(), index.table(), index.columns(), MAX_REPORTED_DUPLICATES, duplicates);
+                throw new IllegalStateException("Rows of " + index.table() + " violate unique index "
+                        + index.name() + ": " + duplicates);
+            }
+            jdbcTemplate.execute(index.create());
+        }
+    }
+}
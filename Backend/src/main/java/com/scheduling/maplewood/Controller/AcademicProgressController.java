@@ -1,12 +1,22 @@
 package com.scheduling.maplewood.Controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scheduling.maplewood.Dto.ApiResponse;
+import com.scheduling.maplewood.Dto.GradeEntryRequest;
 import com.scheduling.maplewood.Service.Progress.AcademicProgressService;
 import com.scheduling.maplewood.Service.Progress.AcademicTranscriptService;
+import com.scheduling.maplewood.Service.Progress.CohortProgressExportService;
+import com.scheduling.maplewood.Service.Progress.GradeEntryService;
+import com.scheduling.maplewood.Service.Progress.GraduationPlannerService;
+import com.scheduling.maplewood.Service.Progress.StudentProgressAggregator;
+import com.scheduling.maplewood.Service.Progress.TranscriptExportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,6 +26,11 @@ public class AcademicProgressController {
 
     private final AcademicProgressService progressService;
     private final AcademicTranscriptService transcriptService;
+    private final StudentProgressAggregator progressAggregator;
+    private final CohortProgressExportService exportService;
+    private final GradeEntryService gradeEntryService;
+    private final TranscriptExportService transcriptExportService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Returns the academic progress of the student with the given ID.
@@ -34,6 +49,123 @@ public class AcademicProgressController {
         }
     }
 
+    /**
+     * Returns the shortest semester-by-semester path to graduation of the student with the given ID.
+     * 
+     * @param studentId The ID of the student
+     * @return A response containing the student's graduation plan
+     */
+    @GetMapping("/{studentId}/graduation-plan")
+    public ResponseEntity<Map<String,Object>> graduationPlan(@PathVariable Integer studentId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(progressService.getGraduationPlan(studentId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Rebuilds the progress aggregates of every student from their course history.
+     * 
+     * @return A response containing the number of students rebuilt
+     */
+    @PostMapping("/progress/rebuild")
+    public ResponseEntity<Map<String,Object>> rebuildProgress() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(Map.of("rebuilt", progressAggregator.rebuildAll())));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Records the final grades of one semester in a single request, updating the course history and the GPA.
+     * 
+     * @param req The semester and its grades
+     * @return A response containing the number of grades recorded
+     */
+    @PostMapping("/grades")
+    public ResponseEntity<Map<String,Object>> recordGrades(@RequestBody GradeEntryRequest req) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(gradeEntryService.recordGrades(req)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams the academic progress of every student, or of one grade level, as JSON or CSV.
+     * 
+     * The parameters are checked and the cohort's graduation planner is prepared before the response starts,
+     * so those failures get the usual error response. Only the students themselves are read while streaming.
+     * 
+     * @param gradeLevel The grade level to export (optional)
+     * @param format "json" (default) or "csv"
+     * @return The streamed progress of the cohort
+     */
+    @GetMapping("/progress/export")
+    public ResponseEntity<StreamingResponseBody> exportProgress(@RequestParam(required = false) Integer gradeLevel,
+                                                                @RequestParam(defaultValue = "json") String format) {
+        try {
+            boolean csv = "csv".equalsIgnoreCase(format);
+            if (!csv && !"json".equalsIgnoreCase(format)) throw new IllegalArgumentException("format must be json or csv.");
+            GraduationPlannerService.Cohort cohort = exportService.prepare(gradeLevel);
+            if (csv) {
+                StreamingResponseBody body = out -> exportService.writeCsv(gradeLevel, cohort, out);
+                return ResponseEntity.ok().contentType(new MediaType("text", "csv")).body(body);
+            }
+            StreamingResponseBody body = out -> exportService.writeJson(gradeLevel, cohort, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (Exception e) {
+            Map<String, Object> error = ApiResponse.error("An unexpected error occurred.", e.getMessage());
+            return ResponseEntity
+                    .status(500)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+    }
+
+    /**
+     * Streams the transcripts of every student, of one grade level, or of a list of students,
+     * as NDJSON (one student per line) or CSV (one course per line).
+     * 
+     * The parameters, including that every listed student exists, are checked before the response starts,
+     * so an invalid request gets the usual error response instead of an empty or truncated export.
+     * 
+     * @param gradeLevel The grade level to export (optional)
+     * @param studentIds The students to export (optional)
+     * @param format "ndjson" (default) or "csv"
+     * @return The streamed transcripts
+     */
+    @GetMapping("/transcripts/export")
+    public ResponseEntity<StreamingResponseBody> exportTranscripts(@RequestParam(required = false) Integer gradeLevel,
+                                                                   @RequestParam(required = false) List<Integer> studentIds,
+                                                                   @RequestParam(defaultValue = "ndjson") String format) {
+        try {
+            boolean csv = "csv".equalsIgnoreCase(format);
+            if (!csv && !"ndjson".equalsIgnoreCase(format)) throw new IllegalArgumentException("format must be ndjson or csv.");
+            TranscriptExportService.Filter filter = transcriptExportService.filter(gradeLevel, studentIds);
+            if (csv) {
+                StreamingResponseBody body = out -> transcriptExportService.writeCsv(filter, out);
+                return ResponseEntity.ok().contentType(new MediaType("text", "csv")).body(body);
+            }
+            StreamingResponseBody body = out -> transcriptExportService.writeNdjson(filter, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+        } catch (Exception e) {
+            Map<String, Object> error = ApiResponse.error("An unexpected error occurred.", e.getMessage());
+            return ResponseEntity
+                    .status(500)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+    }
+
     /**
      * Returns the academic transcript of the student with the given ID.
      * 
@@ -0,0 +1,100 @@
+package com.scheduling.maplewood.Controller;
+
+import com.scheduling.maplewood.Dto.ApiResponse;
+import com.scheduling.maplewood.Service.Analytics.CourseOutcomeAnalyticsService;
+import com.scheduling.maplewood.Service.Analytics.HistoryAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final HistoryAnalyticsService analyticsService;
+    private final CourseOutcomeAnalyticsService outcomeService;
+
+    /**
+     * Returns the pass rates, repeat attempts, credits and average grade points of every course.
+     * 
+     * @param semesterId The semester to restrict to (optional)
+     * @return A response containing one entry per course
+     */
+    @GetMapping("/courses")
+    public ResponseEntity<?> courses(@RequestParam(required = false) Integer semesterId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(analyticsService.courseRollup(semesterId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Returns the pass rates, credits and average grade points of every semester.
+     * 
+     * @return A response containing one entry per semester
+     */
+    @GetMapping("/semesters")
+    public ResponseEntity<?> semesters() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(analyticsService.semesterRollup()));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Returns the pass rates and earned credit distribution of every grade level.
+     * 
+     * @return A response containing one entry per grade level
+     */
+    @GetMapping("/cohorts")
+    public ResponseEntity<?> cohorts() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(analyticsService.cohortRollup()));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Returns, per course, the students who took or are enrolled in it in each semester.
+     * 
+     * @param courseId The course to restrict to (optional)
+     * @return A response containing one entry per course with its semesters, oldest first
+     */
+    @GetMapping("/enrollment-trends")
+    public ResponseEntity<?> enrollmentTrends(@RequestParam(required = false) Integer courseId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(outcomeService.enrollmentTrends(courseId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Returns the courses whose failures block the most students from later courses.
+     * 
+     * @param limit The number of courses to return (default 10)
+     * @return A response containing the ranked courses
+     */
+    @GetMapping("/bottlenecks")
+    public ResponseEntity<?> bottlenecks(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(outcomeService.bottlenecks(limit)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+}
@@ -1,13 +1,30 @@
 package com.scheduling.maplewood.Controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scheduling.maplewood.Dto.ApiResponse;
+import com.scheduling.maplewood.Dto.BulkEnrollmentRequest;
+import com.scheduling.maplewood.Dto.CartRequest;
+import com.scheduling.maplewood.Dto.EligibleSectionsResponse;
 import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Dto.PlanRequest;
+import com.scheduling.maplewood.Dto.SwapRequest;
+import com.scheduling.maplewood.Service.Enroll.AutoEnrollmentService;
+import com.scheduling.maplewood.Service.Enroll.BulkEnrollmentService;
+import com.scheduling.maplewood.Service.Enroll.CartService;
+import com.scheduling.maplewood.Service.Enroll.EligibilityMatrixService;
+import com.scheduling.maplewood.Service.Enroll.EnrollmentChangeService;
 import com.scheduling.maplewood.Service.Enroll.EligibilityService;
+import com.scheduling.maplewood.Service.Enroll.EnrollmentPipeline;
 import com.scheduling.maplewood.Service.Enroll.EnrollmentService;
+import com.scheduling.maplewood.Service.Enroll.IdempotencyStore;
+import com.scheduling.maplewood.Service.Enroll.SchedulePlannerService;
 import com.scheduling.maplewood.Service.Enroll.ScheduleService;
+import com.scheduling.maplewood.Service.Enroll.WaitlistService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
 
@@ -19,9 +36,22 @@ public class EnrollmentController {
     private final EnrollmentService enrollmentService;
     private final EligibilityService eligibilityService;
     private final ScheduleService scheduleService;
+    private final EligibilityMatrixService eligibilityMatrixService;
+    private final BulkEnrollmentService bulkEnrollmentService;
+    private final EnrollmentPipeline enrollmentPipeline;
+    private final WaitlistService waitlistService;
+    private final CartService cartService;
+    private final SchedulePlannerService schedulePlannerService;
+    private final IdempotencyStore idempotencyStore;
+    private final EnrollmentChangeService enrollmentChangeService;
+    private final AutoEnrollmentService autoEnrollmentService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Enroll a student in a course.
+     * When the enrollment pipeline is enabled the request is queued and committed together with others.
+     * A request with an idempotencyKey that was already seen returns the first outcome without running again.
+     * While the semester's lottery window is open, enrollment goes through the lottery instead.
      *
      * @param req the enrollment request with studentId, courseId, and semesterId
      * @return an EnrollmentResponse object with success and message
@@ -30,7 +60,9 @@ public class EnrollmentController {
     @PostMapping
     public ResponseEntity<?> enroll(@RequestBody EnrollmentRequest req) {
         try {
-            var resp = enrollmentService.enroll(req);
+            var resp = idempotencyStore.execute(req, () -> enrollmentPipeline.isEnabled()
+                    ? enrollmentPipeline.enroll(req)
+                    : enrollmentService.enroll(req));
             return ResponseEntity.ok(ApiResponse.success(resp));
         } catch (Exception e) {
             return ResponseEntity
@@ -39,6 +71,209 @@ public class EnrollmentController {
         }
     }
 
+    /**
+     * Enroll many students in many courses of one semester in a single request.
+     *
+     * @param req the semester, the (studentId, courseId) items and the allOrNothing flag
+     * @return a BulkEnrollmentResponse with the result of every item
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> enrollBulk(@RequestBody BulkEnrollmentRequest req) {
+        try {
+            var resp = bulkEnrollmentService.enrollAll(req);
+            return ResponseEntity.ok(ApiResponse.success(resp));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Enroll every active student in their required and next core courses of a semester, assigned by one optimizer run.
+     *
+     * @param semesterId the semester's id
+     * @param dryRun if true, only report the assignment
+     * @return a map with the totals and the per-course counts
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/auto")
+    public ResponseEntity<?> autoEnroll(@RequestParam Integer semesterId,
+                                        @RequestParam(defaultValue = "false") boolean dryRun) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(autoEnrollmentService.autoEnroll(semesterId, dryRun)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Drop a student's enrollment in a section.
+     *
+     * @param studentId the student's id
+     * @param sectionId the section's id
+     * @return a map with a message and the dropped section
+     * @throws Exception if an unexpected error occurred
+     */
+    @DeleteMapping("/student/{studentId}/section/{sectionId}")
+    public ResponseEntity<Map<String,Object>> drop(@PathVariable Integer studentId, @PathVariable Integer sectionId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(enrollmentChangeService.drop(studentId, sectionId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Move a student from one section to another in a single step.
+     *
+     * @param req the student, the section to leave and the section to join
+     * @return a map with a message and both sections
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/swap")
+    public ResponseEntity<Map<String,Object>> swap(@RequestBody SwapRequest req) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(enrollmentChangeService.swap(req)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Put a student on the waitlist of a course whose sections are all full.
+     *
+     * @param req the request with studentId, courseId, and semesterId
+     * @return a map with the waitlisted section and the student's position
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/waitlist")
+    public ResponseEntity<Map<String,Object>> joinWaitlist(@RequestBody EnrollmentRequest req) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(waitlistService.join(req)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the student's waitlist entries and positions.
+     *
+     * @param studentId the student's id
+     * @return a map with the student's id and their waitlist entries
+     * @throws Exception if an unexpected error occurred
+     */
+    @GetMapping("/student/{studentId}/waitlist")
+    public ResponseEntity<Map<String,Object>> waitlistPositions(@PathVariable Integer studentId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(waitlistService.positions(studentId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Add a section to the student's cart, holding one of its seats for a limited time.
+     *
+     * @param req the request with studentId and sectionId
+     * @return the student's cart
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/cart")
+    public ResponseEntity<Map<String,Object>> addToCart(@RequestBody CartRequest req) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(cartService.add(req.getStudentId(), req.getSectionId())));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Remove a section from the student's cart and release its seat.
+     *
+     * @param studentId the student's id
+     * @param sectionId the section's id
+     * @return the student's cart
+     * @throws Exception if an unexpected error occurred
+     */
+    @DeleteMapping("/student/{studentId}/cart/{sectionId}")
+    public ResponseEntity<Map<String,Object>> removeFromCart(@PathVariable Integer studentId, @PathVariable Integer sectionId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(cartService.remove(studentId, sectionId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the student's cart and when its holds expire.
+     *
+     * @param studentId the student's id
+     * @return the student's cart
+     * @throws Exception if an unexpected error occurred
+     */
+    @GetMapping("/student/{studentId}/cart")
+    public ResponseEntity<Map<String,Object>> cart(@PathVariable Integer studentId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(cartService.cart(studentId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Enroll the student in every section of their cart, all or nothing.
+     *
+     * @param studentId the student's id
+     * @return a map with the enrolled sections
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/student/{studentId}/cart/checkout")
+    public ResponseEntity<Map<String,Object>> checkout(@PathVariable Integer studentId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(cartService.checkout(studentId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the best conflict-free section combinations of a list of courses, without enrolling.
+     *
+     * @param req the student, the semester, the course ids and the number of combinations wanted
+     * @return a map with the ranked combinations
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/plan")
+    public ResponseEntity<Map<String,Object>> plan(@RequestBody PlanRequest req) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(schedulePlannerService.plan(req)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
     /**
      * Get the student's schedule for a given semester.
      * 
@@ -74,7 +309,7 @@ public class EnrollmentController {
                                                     @RequestParam Integer semesterId) {
 
         try {
-            Map<String,Object> response = eligibilityService.getEligibleSections(studentId, semesterId);
+            EligibleSectionsResponse response = eligibilityService.getEligibleSections(studentId, semesterId);
             return ResponseEntity.ok(ApiResponse.success(response));
         } catch (Exception e) {
             return ResponseEntity
@@ -82,5 +317,36 @@ public class EnrollmentController {
                     .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
         }
     }
-}
 
+    /**
+     * Get the eligibility of every student for every section of a semester.
+     *
+     * The matrix is computed up front and then streamed, either as JSON (one entry per student)
+     * or as CSV (one student_id,section_id line per eligible pair).
+     *
+     * @param semesterId the semester's id
+     * @param format "json" (default) or "csv"
+     * @return the streamed eligibility matrix
+     * @throws Exception if an unexpected error occurred
+     */
+    @GetMapping("/eligibility-matrix")
+    public ResponseEntity<StreamingResponseBody> eligibilityMatrix(@RequestParam Integer semesterId,
+                                                                   @RequestParam(defaultValue = "json") String format) {
+        try {
+            EligibilityMatrixService.EligibilityMatrix matrix = eligibilityMatrixService.computeMatrix(semesterId);
+
+            if ("csv".equalsIgnoreCase(format)) {
+                StreamingResponseBody body = out -> eligibilityMatrixService.writeCsv(matrix, out);
+                return ResponseEntity.ok().contentType(new MediaType("text", "csv")).body(body);
+            }
+            StreamingResponseBody body = out -> eligibilityMatrixService.writeJson(matrix, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (Exception e) {
+            Map<String, Object> error = ApiResponse.error("An unexpected error occurred.", e.getMessage());
+            return ResponseEntity
+                    .status(500)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+    }
+}
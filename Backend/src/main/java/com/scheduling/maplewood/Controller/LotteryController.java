@@ -0,0 +1,91 @@
+package com.scheduling.maplewood.Controller;
+
+import com.scheduling.maplewood.Dto.ApiResponse;
+import com.scheduling.maplewood.Dto.LotteryRequest;
+import com.scheduling.maplewood.Service.Enroll.LotteryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/lottery")
+@RequiredArgsConstructor
+public class LotteryController {
+
+    private final LotteryService lotteryService;
+
+    /**
+     * Opens the lottery window of a semester. Direct enrollment in the semester is closed until the lottery runs.
+     *
+     * @param semesterId the semester's id
+     * @param seed the lottery seed, random if omitted
+     * @return a map with the window's state and seed
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/semester/{semesterId}/open")
+    public ResponseEntity<?> open(@PathVariable Integer semesterId, @RequestParam(required = false) Long seed) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(lotteryService.open(semesterId, seed)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Records a student's wanted courses, in order of preference, in the semester's open window.
+     *
+     * @param semesterId the semester's id
+     * @param req the student and their wanted courses
+     * @return a map with the recorded preferences
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/semester/{semesterId}/requests")
+    public ResponseEntity<?> submit(@PathVariable Integer semesterId, @RequestBody LotteryRequest req) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(lotteryService.submit(semesterId, req)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Closes the semester's window and processes every request in one batch.
+     *
+     * @param semesterId the semester's id
+     * @return a map with the window's state and totals
+     * @throws Exception if an unexpected error occurred
+     */
+    @PostMapping("/semester/{semesterId}/run")
+    public ResponseEntity<?> run(@PathVariable Integer semesterId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(lotteryService.run(semesterId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Gets the published results of the semester's lottery, for one student or for everyone.
+     *
+     * @param semesterId the semester's id
+     * @param studentId the student's id, all students if omitted
+     * @return a map with the results
+     * @throws Exception if an unexpected error occurred
+     */
+    @GetMapping("/semester/{semesterId}/results")
+    public ResponseEntity<?> results(@PathVariable Integer semesterId, @RequestParam(required = false) Integer studentId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(lotteryService.results(semesterId, studentId)));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(500)
+                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.scheduling.maplewood.Controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scheduling.maplewood.Dto.ApiResponse;
 import com.scheduling.maplewood.Entity.CourseSection;
 import com.scheduling.maplewood.Service.ScheduleGenerator.ScheduleGeneratorService;
+import com.scheduling.maplewood.Service.ScheduleGenerator.ScheduleStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
 
@@ -15,6 +19,8 @@ import java.util.*;
 public class ScheduleController {
 
     private final ScheduleGeneratorService scheduleGeneratorService;
+    private final ScheduleStreamService scheduleStreamService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Generate a master schedule for a given semester.
@@ -42,36 +48,39 @@ public class ScheduleController {
     /**
      * Gets the master schedule for a given semester.
      * 
+     * The sections are streamed as they are read, in the usual success envelope.
+     * 
      * @param semesterId the semester's id
-     * @return a map containing the master schedule
+     * @return the streamed master schedule
      * @throws Exception if an unexpected error occurred
      */
     @GetMapping("/{semesterId}")
-    public ResponseEntity<Map<String, Object>> getMasterSchedule(@PathVariable Integer semesterId) {
+    public ResponseEntity<StreamingResponseBody> getMasterSchedule(@PathVariable Integer semesterId) {
         try {
-            return ResponseEntity.ok(ApiResponse.success(scheduleGeneratorService.getMasterScheduleResponse(semesterId)));
+            String semester = scheduleStreamService.semesterLabel(semesterId);
+            StreamingResponseBody body = out -> scheduleStreamService.writeMasterSchedule(semesterId, semester, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
         } catch (Exception e) {
-            return ResponseEntity
-                    .status(500)
-                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+            return error(e);
         }
     }
 
     /**
      * Returns the course schedules for a given semester.
      * 
+     * The sections are streamed grouped by course code, in the usual success envelope.
+     * 
      * @param semesterId The semester's id
-     * @return A map containing the course schedules
+     * @return The streamed course schedules
      * @throws Exception if an unexpected error occurred
      */
     @GetMapping("/courses/{semesterId}")
-    public ResponseEntity<Map<String, Object>> getCourseSchedules(@PathVariable Integer semesterId) {
+    public ResponseEntity<StreamingResponseBody> getCourseSchedules(@PathVariable Integer semesterId) {
         try {
-            return ResponseEntity.ok(ApiResponse.success(scheduleGeneratorService.getCourseScheduleResponse(semesterId)));
+            StreamingResponseBody body = out -> scheduleStreamService.writeCourseSchedules(semesterId, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
         } catch (Exception e) {
-            return ResponseEntity
-                    .status(500)
-                    .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
+            return error(e);
         }
     }
 
@@ -94,4 +103,18 @@ public class ScheduleController {
                     .body(ApiResponse.error("An unexpected error occurred.", e.getMessage()));
         }
     }
+
+    /**
+     * Writes an unexpected error of a streaming endpoint in the usual error envelope.
+     *
+     * @param e the error
+     * @return the error response
+     */
+    private ResponseEntity<StreamingResponseBody> error(Exception e) {
+        Map<String, Object> error = ApiResponse.error("An unexpected error occurred.", e.getMessage());
+        return ResponseEntity
+                .status(500)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, error));
+    }
 }
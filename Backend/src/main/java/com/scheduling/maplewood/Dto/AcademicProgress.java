@@ -0,0 +1,8 @@
+package com.scheduling.maplewood.Dto;
+
+/**
+ * The progress figures of a student. predictedSemestersToGraduate is null if graduation cannot be planned.
+ */
+public record AcademicProgress(double creditsEarned, int creditsRequired, double creditsRemaining, int corePassed,
+                               int coreRequired, double gpa, Integer predictedSemestersToGraduate) {
+}
@@ -0,0 +1,18 @@
+package com.scheduling.maplewood.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkEnrollmentRequest {
+    private Integer semesterId;
+    private boolean allOrNothing;
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+        private Integer studentId;
+        private Integer courseId;
+    }
+}
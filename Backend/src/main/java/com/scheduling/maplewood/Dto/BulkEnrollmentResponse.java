@@ -0,0 +1,25 @@
+package com.scheduling.maplewood.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkEnrollmentResponse {
+    private boolean success;
+    private int enrolled;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Integer studentId;
+        private Integer courseId;
+        private Integer sectionId;
+        private boolean success;
+        private String message;
+    }
+}
@@ -0,0 +1,9 @@
+package com.scheduling.maplewood.Dto;
+
+import lombok.Data;
+
+@Data
+public class CartRequest {
+    private Integer studentId;
+    private Integer sectionId;
+}
@@ -0,0 +1,23 @@
+package com.scheduling.maplewood.Dto;
+
+import java.util.List;
+
+public record EligibleSectionsResponse(String message, StudentSummary student, List<Item> sections) {
+
+    /**
+     * An eligible section. students is the live seat count, left null in the cached copy.
+     */
+    public record Item(Integer sectionId, Integer courseId, String course, String teacher, String email, String room,
+                       List<String> schedule, String students) {
+
+        /**
+         * Returns a copy of this item with the given seat count.
+         *
+         * @param students the enrolled and available seats as displayed
+         * @return the copy
+         */
+        public Item withStudents(String students) {
+            return new Item(sectionId, courseId, course, teacher, email, room, schedule, students);
+        }
+    }
+}
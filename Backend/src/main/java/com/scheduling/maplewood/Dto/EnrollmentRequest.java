@@ -7,4 +7,5 @@ public class EnrollmentRequest {
     private Integer studentId;
     private Integer courseId;
     private Integer semesterId;
-}
\ No newline at end of file
+    private String idempotencyKey;   // optional, a retry with the same key returns the first outcome
+}
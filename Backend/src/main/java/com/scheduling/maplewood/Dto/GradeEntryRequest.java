@@ -0,0 +1,20 @@
+package com.scheduling.maplewood.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GradeEntryRequest {
+    private Integer semesterId;
+    private List<Item> grades;
+
+    @Data
+    public static class Item {
+        private Integer studentId;
+        private Integer courseId;
+        private Integer sectionId;
+        private Double gradeNumeric;
+        private String gradeLetter;
+    }
+}
@@ -0,0 +1,11 @@
+package com.scheduling.maplewood.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class LotteryRequest {
+    private Integer studentId;
+    private List<Integer> courseIds;   // in order of preference
+}
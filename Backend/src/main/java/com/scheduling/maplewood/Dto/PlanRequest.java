@@ -0,0 +1,13 @@
+package com.scheduling.maplewood.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PlanRequest {
+    private Integer studentId;
+    private Integer semesterId;
+    private List<Integer> courseIds;
+    private Integer limit;   // top-K combinations, default 10
+}
@@ -0,0 +1,10 @@
+package com.scheduling.maplewood.Dto;
+
+import java.util.List;
+
+public record ProgressResponse(boolean success, StudentSummary student, AcademicProgress progress,
+                               List<CoreCourse> remainingCoreCourses) {
+
+    public record CoreCourse(Integer courseId, String code, String name, Integer semesterOrder) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.scheduling.maplewood.Dto;
+
+import java.util.List;
+
+/**
+ * A section of the master or course schedule: course, teacher, room, meetings and seats.
+ */
+public record ScheduledSection(Integer courseId, Integer sectionId, String course, String teacher, String email,
+                               String room, List<String> schedule, String students) {
+}
@@ -0,0 +1,14 @@
+package com.scheduling.maplewood.Dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record StudentScheduleResponse(Student student, List<Item> sections) {
+
+    public record Student(Integer id, String name, String email, @JsonProperty("Grade level") Integer gradeLevel) {
+    }
+
+    public record Item(String course, String teacher, String room, List<String> schedule, String students) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.scheduling.maplewood.Dto;
+
+/**
+ * The student block of progress, transcript and eligibility responses.
+ * gradeLevel is the student's grade level, or "Unknown" if the student does not exist.
+ */
+public record StudentSummary(Integer id, String name, String email, Object gradeLevel) {
+}
@@ -0,0 +1,10 @@
+package com.scheduling.maplewood.Dto;
+
+import lombok.Data;
+
+@Data
+public class SwapRequest {
+    private Integer studentId;
+    private Integer fromSectionId;
+    private Integer toSectionId;
+}
@@ -0,0 +1,12 @@
+package com.scheduling.maplewood.Dto;
+
+import java.util.List;
+
+public record TeacherScheduleResponse(Teacher teacher, List<Item> schedule) {
+
+    public record Teacher(Integer id, String name, String email) {
+    }
+
+    public record Item(String course, String room, List<String> schedule, String students) {
+    }
+}
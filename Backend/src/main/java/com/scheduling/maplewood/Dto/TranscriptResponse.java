@@ -0,0 +1,16 @@
+package com.scheduling.maplewood.Dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record TranscriptResponse(boolean success, StudentSummary student, List<Entry> transcript) {
+
+    /**
+     * A course on the transcript. The grade fields are null if no grade was recorded.
+     */
+    public record Entry(Integer courseId, String courseCode, String courseName, BigDecimal credits, String semester,
+                        String status, LocalDateTime recordedAt, String gradeLetter, Double gradeNumeric,
+                        Double gradePoints, Double creditsAwarded) {
+    }
+}
@@ -1,11 +1,13 @@
 package com.scheduling.maplewood.Entity;
 
+import com.scheduling.maplewood.Event.CoreRequiredCourseChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
 @Table(name="core_required_courses")
 @Data
+@EntityListeners(CoreRequiredCourseChangeListener.class)
 public class CoreRequiredCourse {
 
     @Id
@@ -1,7 +1,11 @@
 package com.scheduling.maplewood.Entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.scheduling.maplewood.Event.CourseChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -9,6 +13,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "courses")
 @Data
+@EntityListeners(CourseChangeListener.class)
 public class Course {
 
     @Id
@@ -44,4 +49,11 @@ public class Course {
 
     @Column(name="created_at")
     private LocalDateTime createdAt;
+
+    // the credits as last read from or written to the database, set by CourseChangeListener
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private BigDecimal storedCredits;
 }
@@ -1,11 +1,14 @@
 package com.scheduling.maplewood.Entity;
 
+import com.scheduling.maplewood.Event.CourseSectionChangeListener;
+import com.scheduling.maplewood.Event.SeatReleaseListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
 @Table(name="course_sections")
 @Data
+@EntityListeners({CourseSectionChangeListener.class, SeatReleaseListener.class})
 public class CourseSection {
 
     @Id
@@ -1,11 +1,13 @@
 package com.scheduling.maplewood.Entity;
 
+import com.scheduling.maplewood.Event.SectionMeetingChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
 @Table(name="section_meetings")
 @Data
+@EntityListeners(SectionMeetingChangeListener.class)
 public class SectionMeeting {
 
     @Id
@@ -0,0 +1,33 @@
+package com.scheduling.maplewood.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "section_waitlist",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "course_id", "semester_id"}),
+        indexes = @Index(name = "ix_section_waitlist_section", columnList = "section_id, id"))
+@Data
+public class SectionWaitlist {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;   // queue order within a section
+
+    @Column(name="student_id")
+    private Integer studentId;
+
+    @Column(name="section_id")
+    private Integer sectionId;
+
+    @Column(name="course_id")
+    private Integer courseId;
+
+    @Column(name="semester_id")
+    private Integer semesterId;
+
+    @Column(name="created_at")
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.scheduling.maplewood.Entity;
 
+import com.scheduling.maplewood.Event.SemesterChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -7,6 +8,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name="semesters")
 @Data
+@EntityListeners(SemesterChangeListener.class)
 public class Semester {
 
     @Id
@@ -1,5 +1,6 @@
 package com.scheduling.maplewood.Entity;
 
+import com.scheduling.maplewood.Event.StudentChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name="students")
 @Data
+@EntityListeners(StudentChangeListener.class)
 public class Student {
 
     @Id
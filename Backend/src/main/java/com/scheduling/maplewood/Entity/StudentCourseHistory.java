@@ -1,5 +1,8 @@
 package com.scheduling.maplewood.Entity;
 
+import com.scheduling.maplewood.Event.HistoryAnalyticsListener;
+import com.scheduling.maplewood.Event.ProgressChangeListener;
+import com.scheduling.maplewood.Event.StudentRecordChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -8,6 +11,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "student_course_history")
 @Data
+@EntityListeners({StudentRecordChangeListener.class, ProgressChangeListener.class, HistoryAnalyticsListener.class})
 public class StudentCourseHistory {
 
     @Id
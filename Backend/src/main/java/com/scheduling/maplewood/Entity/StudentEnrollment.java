@@ -1,11 +1,15 @@
 package com.scheduling.maplewood.Entity;
 
+import com.scheduling.maplewood.Event.SeatReleaseListener;
+import com.scheduling.maplewood.Event.StudentRecordChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
-@Table(name="student_enrollments")
+@Table(name="student_enrollments",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "course_id", "semester_id"}))
 @Data
+@EntityListeners({StudentRecordChangeListener.class, SeatReleaseListener.class})
 public class StudentEnrollment {
 
     @Id
@@ -1,5 +1,7 @@
 package com.scheduling.maplewood.Entity;
 
+import com.scheduling.maplewood.Event.HistoryAnalyticsListener;
+import com.scheduling.maplewood.Event.ProgressChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -7,6 +9,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "student_grades")
 @Data
+@EntityListeners({ProgressChangeListener.class, HistoryAnalyticsListener.class})
 public class StudentGrade {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
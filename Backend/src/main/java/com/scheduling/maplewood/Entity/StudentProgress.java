@@ -0,0 +1,35 @@
+package com.scheduling.maplewood.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-student totals behind the academic progress, derived from the student's course history.
+ * Maintained by StudentProgressAggregator; never written directly.
+ */
+@Entity
+@Table(name = "student_progress")
+@Data
+public class StudentProgress {
+
+    @Id
+    @Column(name="student_id")
+    private Integer studentId;
+
+    @Column(name="credits_earned")
+    private Double creditsEarned;      // credits of the distinct passed courses
+
+    @Column(name="credits_attempted")
+    private Double creditsAttempted;   // credits of every history row
+
+    @Column(name="quality_points")
+    private Double qualityPoints;
+
+    @Column(name="core_passed")
+    private Integer corePassed;
+
+    @Column(name="updated_at")
+    private LocalDateTime updatedAt;
+}
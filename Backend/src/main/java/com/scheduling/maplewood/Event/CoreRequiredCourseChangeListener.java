@@ -0,0 +1,33 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Service.Progress.GraduationPlannerService;
+import com.scheduling.maplewood.Service.Progress.StudentProgressAggregator;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CoreRequiredCourseChangeListener {
+
+    private final ObjectProvider<StudentProgressAggregator> progressAggregator;
+    private final ObjectProvider<GraduationPlannerService> graduationPlanner;
+
+    /**
+     * Rebuilds the progress aggregates once a change to the core course list commits, since they count
+     * the core courses each student passed. Any number of changes in one transaction rebuild once.
+     * The graduation planner's catalog, which holds the core list, is dropped as well.
+     *
+     * @param entry the changed core course entry
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onCoreCoursesChanged(Object entry) {
+        graduationPlanner.ifAvailable(p -> TransactionHooks.invalidateNowAndAfterCommit(p::invalidateCatalog));
+        progressAggregator.ifAvailable(StudentProgressAggregator::rebuildAllAfterCommit);
+    }
+}
@@ -0,0 +1,92 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Entity.Course;
+import com.scheduling.maplewood.Service.Analytics.HistoryColumnStore;
+import com.scheduling.maplewood.Service.Enroll.EligibilityCache;
+import com.scheduling.maplewood.Service.Enroll.PrerequisiteGraphService;
+import com.scheduling.maplewood.Service.Progress.GraduationPlannerService;
+import com.scheduling.maplewood.Service.Progress.StudentProgressAggregator;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+@Component
+@RequiredArgsConstructor
+public class CourseChangeListener {
+
+    private final ObjectProvider<PrerequisiteGraphService> prerequisiteGraphService;
+    private final ObjectProvider<EligibilityCache> eligibilityCache;
+    private final ObjectProvider<StudentProgressAggregator> progressAggregator;
+    private final ObjectProvider<HistoryColumnStore> historyColumnStore;
+    private final ObjectProvider<GraduationPlannerService> graduationPlanner;
+
+    /**
+     * Remembers the credits a course was loaded with, so an update can tell whether it changed them.
+     *
+     * @param course the loaded course
+     */
+    @PostLoad
+    public void onCourseLoaded(Course course) {
+        course.setStoredCredits(course.getCredits());
+    }
+
+    /**
+     * Drops the caches that depend on the courses when a course is inserted. The progress aggregates are
+     * left alone, no history row can refer to the new course yet.
+     *
+     * @param course the inserted course
+     */
+    @PostPersist
+    public void onCourseInserted(Course course) {
+        invalidateCaches();
+        course.setStoredCredits(course.getCredits());
+    }
+
+    /**
+     * Drops the caches that depend on the courses when a course is updated, and rebuilds the progress
+     * aggregates once the change commits if its credits changed.
+     *
+     * @param course the updated course
+     */
+    @PostUpdate
+    public void onCourseUpdated(Course course) {
+        invalidateCaches();
+        if (!sameCredits(course.getStoredCredits(), course.getCredits())) {
+            progressAggregator.ifAvailable(StudentProgressAggregator::rebuildAllAfterCommit);
+        }
+        course.setStoredCredits(course.getCredits());
+    }
+
+    /**
+     * Drops the caches that depend on the courses when a course is deleted, and rebuilds the progress
+     * aggregates once the change commits, since its credits no longer count.
+     *
+     * @param course the deleted course
+     */
+    @PostRemove
+    public void onCourseRemoved(Course course) {
+        invalidateCaches();
+        progressAggregator.ifAvailable(StudentProgressAggregator::rebuildAllAfterCommit);
+    }
+
+    /**
+     * Drops the cached prerequisite graph, the planner's catalog and cached eligibility. The analytics copy
+     * of the history, which holds the courses' credits too, is reloaded on its next read.
+     */
+    private void invalidateCaches() {
+        prerequisiteGraphService.ifAvailable(s -> TransactionHooks.invalidateNowAndAfterCommit(s::invalidate));
+        graduationPlanner.ifAvailable(p -> TransactionHooks.invalidateNowAndAfterCommit(p::invalidateCatalog));
+        eligibilityCache.ifAvailable(c -> TransactionHooks.invalidateNowAndAfterCommit(c::evictAll));
+        historyColumnStore.ifAvailable(s -> TransactionHooks.invalidateNowAndAfterCommit(s::invalidate));
+    }
+
+    private static boolean sameCredits(BigDecimal before, BigDecimal after) {
+        return before == null ? after == null : after != null && before.compareTo(after) == 0;
+    }
+}
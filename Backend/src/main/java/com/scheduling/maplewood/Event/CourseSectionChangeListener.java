@@ -0,0 +1,35 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Entity.CourseSection;
+import com.scheduling.maplewood.Service.Enroll.EligibilityCache;
+import com.scheduling.maplewood.Service.Enroll.SeatLedger;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CourseSectionChangeListener {
+
+    private final ObjectProvider<SeatLedger> seatLedger;
+    private final ObjectProvider<EligibilityCache> eligibilityCache;
+
+    /**
+     * Drops the seat counter of a section and the cached eligibility of its semester
+     * whenever a section is inserted, updated or deleted.
+     *
+     * @param section the changed section
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onSectionChanged(CourseSection section) {
+        Integer sectionId = section.getId();
+        Integer semesterId = section.getSemesterId();
+        seatLedger.ifAvailable(l -> TransactionHooks.invalidateNowAndAfterCommit(() -> l.evict(sectionId)));
+        eligibilityCache.ifAvailable(c -> TransactionHooks.invalidateNowAndAfterCommit(() -> c.evictSemester(semesterId)));
+    }
+}
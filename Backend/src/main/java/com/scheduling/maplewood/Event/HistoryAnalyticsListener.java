@@ -0,0 +1,47 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Entity.StudentCourseHistory;
+import com.scheduling.maplewood.Service.Analytics.HistoryColumnStore;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class HistoryAnalyticsListener {
+
+    private final ObjectProvider<HistoryColumnStore> store;
+
+    /**
+     * Marks the analytics copy of the history stale when a grade is inserted. New history rows need
+     * nothing, the store appends them by id.
+     *
+     * @param record the inserted history or grade row
+     */
+    @PostPersist
+    public void onAnalyticsRecordInserted(Object record) {
+        if (record instanceof StudentCourseHistory) return;
+        invalidate();
+    }
+
+    /**
+     * Marks the analytics copy of the history stale when a history or grade row is updated or deleted.
+     *
+     * @param record the changed history or grade row
+     */
+    @PostUpdate
+    @PostRemove
+    public void onAnalyticsRecordChanged(Object record) {
+        invalidate();
+    }
+
+    /**
+     * Marks the store stale now and again once the current transaction commits.
+     */
+    private void invalidate() {
+        store.ifAvailable(s -> TransactionHooks.invalidateNowAndAfterCommit(s::invalidate));
+    }
+}
@@ -0,0 +1,45 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Entity.StudentCourseHistory;
+import com.scheduling.maplewood.Entity.StudentGrade;
+import com.scheduling.maplewood.Service.Progress.StudentProgressAggregator;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ProgressChangeListener {
+
+    private final ObjectProvider<StudentProgressAggregator> aggregator;
+
+    /**
+     * Refreshes the progress aggregate of a student once the transaction that wrote one of their
+     * history or grade rows commits.
+     *
+     * @param record the changed history or grade row
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onAcademicRecordChanged(Object record) {
+        Integer studentId = studentIdOf(record);
+        if (studentId == null) return;
+        aggregator.ifAvailable(a -> a.refreshAfterCommit(studentId));
+    }
+
+    /**
+     * Returns the student id of a record this listener is attached to.
+     *
+     * @param record the changed record
+     * @return the student's id, or null if the record is of an unknown type
+     */
+    private Integer studentIdOf(Object record) {
+        if (record instanceof StudentCourseHistory h) return h.getStudentId();
+        if (record instanceof StudentGrade g) return g.getStudentId();
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Entity.CourseSection;
+import com.scheduling.maplewood.Entity.StudentEnrollment;
+import com.scheduling.maplewood.Service.Enroll.SeatLedger;
+import com.scheduling.maplewood.Service.Enroll.WaitlistService;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SeatReleaseListener {
+
+    private final ObjectProvider<SeatLedger> seatLedger;
+    private final ObjectProvider<WaitlistService> waitlistService;
+
+    /**
+     * Gives the seat of a deleted enrollment back to its section once the deletion is committed;
+     * the ledger promotes the section's waitlist into it.
+     *
+     * @param record the deleted enrollment
+     */
+    @PostRemove
+    public void onRemoved(Object record) {
+        if (record instanceof StudentEnrollment e) seatLedger.ifAvailable(l -> l.releaseAfterCommit(e.getSectionId()));
+    }
+
+    /**
+     * Promotes the waitlist of an updated section once the update is committed, in case its capacity grew.
+     *
+     * @param record the updated section
+     */
+    @PostUpdate
+    public void onUpdated(Object record) {
+        if (record instanceof CourseSection cs) promoteAfterCommit(cs.getId());
+    }
+
+    /**
+     * Schedules the promotion of a section's waitlist after the current transaction commits.
+     *
+     * @param sectionId the section's id
+     */
+    private void promoteAfterCommit(Integer sectionId) {
+        waitlistService.ifAvailable(w -> TransactionHooks.afterCommit(() -> w.schedulePromotion(sectionId)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Entity.SectionMeeting;
+import com.scheduling.maplewood.Service.Enroll.BusyMaskService;
+import com.scheduling.maplewood.Service.Enroll.EligibilityCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SectionMeetingChangeListener {
+
+    private final ObjectProvider<BusyMaskService> busyMaskService;
+    private final ObjectProvider<EligibilityCache> eligibilityCache;
+
+    /**
+     * Drops the cached weekly mask of the meeting's section whenever a meeting is inserted, updated or deleted,
+     * along with all cached eligibility: the meeting decides conflicts both for students enrolled in its section
+     * and for students it may now clash with, and the meeting alone does not tell the semester.
+     *
+     * @param meeting the changed meeting
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onMeetingChanged(SectionMeeting meeting) {
+        Integer sectionId = meeting.getSectionId();
+        busyMaskService.ifAvailable(s -> TransactionHooks.invalidateNowAndAfterCommit(() -> s.evict(sectionId)));
+        eligibilityCache.ifAvailable(c -> TransactionHooks.invalidateNowAndAfterCommit(c::evictAll));
+    }
+}
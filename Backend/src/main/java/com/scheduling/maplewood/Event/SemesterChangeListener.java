@@ -0,0 +1,29 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Service.Progress.GraduationPlannerService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SemesterChangeListener {
+
+    private final ObjectProvider<GraduationPlannerService> graduationPlanner;
+
+    /**
+     * Drops the graduation planner's active semester when a semester is inserted, updated or deleted,
+     * since any of them can change which semester is active or latest.
+     *
+     * @param semester the changed semester
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onSemesterChanged(Object semester) {
+        graduationPlanner.ifAvailable(p -> TransactionHooks.invalidateNowAndAfterCommit(p::invalidateActiveSemester));
+    }
+}
@@ -0,0 +1,27 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Service.Analytics.HistoryColumnStore;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class StudentChangeListener {
+
+    private final ObjectProvider<HistoryColumnStore> historyColumnStore;
+
+    /**
+     * Marks the analytics copy of the history stale when a student is updated or deleted, since it holds
+     * each history row's grade level. A new student has no history yet, so inserts need nothing.
+     *
+     * @param student the changed student
+     */
+    @PostUpdate
+    @PostRemove
+    public void onStudentChanged(Object student) {
+        historyColumnStore.ifAvailable(s -> TransactionHooks.invalidateNowAndAfterCommit(s::invalidate));
+    }
+}
@@ -0,0 +1,45 @@
+package com.scheduling.maplewood.Event;
+
+import com.scheduling.maplewood.Entity.StudentCourseHistory;
+import com.scheduling.maplewood.Entity.StudentEnrollment;
+import com.scheduling.maplewood.Service.Enroll.EligibilityCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class StudentRecordChangeListener {
+
+    private final ObjectProvider<EligibilityCache> eligibilityCache;
+
+    /**
+     * Drops the cached state of a student whenever one of their enrollments or history rows
+     * is inserted, updated or deleted.
+     *
+     * @param record the changed enrollment or history row
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onStudentRecordChanged(Object record) {
+        Integer studentId = studentIdOf(record);
+        if (studentId == null) return;
+        eligibilityCache.ifAvailable(c -> TransactionHooks.invalidateNowAndAfterCommit(() -> c.evictStudent(studentId)));
+    }
+
+    /**
+     * Returns the student id of a record this listener is attached to.
+     *
+     * @param record the changed record
+     * @return the student's id, or null if the record is of an unknown type
+     */
+    private Integer studentIdOf(Object record) {
+        if (record instanceof StudentEnrollment e) return e.getStudentId();
+        if (record instanceof StudentCourseHistory h) return h.getStudentId();
+        return null;
+    }
+}
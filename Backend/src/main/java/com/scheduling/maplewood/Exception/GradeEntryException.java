@@ -0,0 +1,7 @@
+package com.scheduling.maplewood.Exception;
+
+public class GradeEntryException extends RuntimeException {
+    public GradeEntryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.scheduling.maplewood.Exception;
+
+import com.scheduling.maplewood.Dto.EnrollmentResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An enrollment request that did not get an outcome yet, for a reason that says nothing about the request
+ * itself: the pipeline is not running or is full, the caller stopped waiting, or the semester's registration
+ * is closed by its lottery for now. Such a failure must not be remembered as the request's outcome.
+ *
+ * If the request is still queued, pending completes with its real outcome once it is processed.
+ */
+public class TransientEnrollmentException extends EnrollmentException {
+
+    private final transient CompletableFuture<EnrollmentResponse> pending;
+
+    public TransientEnrollmentException(String message) {
+        this(message, null);
+    }
+
+    public TransientEnrollmentException(String message, CompletableFuture<EnrollmentResponse> pending) {
+        super(message);
+        this.pending = pending;
+    }
+
+    /**
+     * Returns the outcome of the request if it is still queued.
+     *
+     * @return the request's future, or null if it was never queued or will not complete
+     */
+    public CompletableFuture<EnrollmentResponse> getPending() {
+        return pending;
+    }
+}
@@ -2,8 +2,18 @@ package com.scheduling.maplewood.Repository;
 
 import com.scheduling.maplewood.Entity.Course;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Integer> {
+
+    @Query("select c from Course c, CoreRequiredCourse cr where c.id = cr.courseId and c.id not in "
+            + "(select h.courseId from StudentCourseHistory h "
+            + "where h.studentId = :studentId and h.status = 'passed' and h.courseId is not null) "
+            + "order by cr.id")
+    List<Course> findRemainingCoreCourses(@Param("studentId") Integer studentId);
 }
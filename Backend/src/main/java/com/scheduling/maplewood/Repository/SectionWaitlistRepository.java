@@ -0,0 +1,26 @@
+package com.scheduling.maplewood.Repository;
+
+import com.scheduling.maplewood.Entity.SectionWaitlist;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SectionWaitlistRepository extends JpaRepository<SectionWaitlist, Integer> {
+    List<SectionWaitlist> findByStudentId(Integer studentId);
+    Optional<SectionWaitlist> findFirstBySectionIdOrderByIdAsc(Integer sectionId);
+    boolean existsByStudentIdAndCourseIdAndSemesterId(Integer studentId, Integer courseId, Integer semesterId);
+    long countBySectionId(Integer sectionId);
+
+    @Query("select w.id, count(o) from SectionWaitlist w, SectionWaitlist o "
+            + "where w.studentId = :studentId and o.sectionId = w.sectionId and o.id <= w.id group by w.id")
+    List<Object[]> findPositionsByStudentId(@Param("studentId") Integer studentId);
+
+    @Query("select w.sectionId, count(w) from SectionWaitlist w where w.sectionId in :sectionIds group by w.sectionId")
+    List<Object[]> countBySectionIdIn(@Param("sectionIds") Collection<Integer> sectionIds);
+}
@@ -2,12 +2,22 @@ package com.scheduling.maplewood.Repository;
 
 import com.scheduling.maplewood.Entity.StudentCourseHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface StudentCourseHistoryRepository extends JpaRepository<StudentCourseHistory, Integer> {
     List<StudentCourseHistory> findByStudentId(Integer studentId);
+    List<StudentCourseHistory> findByStudentIdIn(Collection<Integer> studentIds);
     List<StudentCourseHistory> findByStudentIdAndStatus(Integer studentId, String status);
+    List<StudentCourseHistory> findByStatus(String status);
+    List<StudentCourseHistory> findBySemesterIdAndStudentIdIn(Integer semesterId, Collection<Integer> studentIds);
+
+    @Query("select h.courseId from StudentCourseHistory h "
+            + "where h.studentId = :studentId and lower(h.status) = 'passed' and h.courseId is not null")
+    List<Integer> findPassedCourseIdsByStudentId(@Param("studentId") Integer studentId);
 }
@@ -2,13 +2,25 @@ package com.scheduling.maplewood.Repository;
 
 import com.scheduling.maplewood.Entity.StudentEnrollment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StudentEnrollmentRepository extends JpaRepository<StudentEnrollment, Integer> {
     List<StudentEnrollment> findByStudentId(Integer studentId);
+    List<StudentEnrollment> findByStudentIdAndSemesterId(Integer studentId, Integer semesterId);
+    Optional<StudentEnrollment> findByStudentIdAndSectionId(Integer studentId, Integer sectionId);
+    List<StudentEnrollment> findByStudentIdInAndSemesterId(Collection<Integer> studentIds, Integer semesterId);
     List<StudentEnrollment> findByCourseId(Integer courseId);
     List<StudentEnrollment> findBySectionId(Integer sectionId);
+    List<StudentEnrollment> findBySemesterId(Integer semesterId);
+    long countBySectionId(Integer sectionId);
+
+    @Query("select e.sectionId, count(e) from StudentEnrollment e where e.sectionId in :sectionIds group by e.sectionId")
+    List<Object[]> countBySectionIdIn(@Param("sectionIds") Collection<Integer> sectionIds);
 }
@@ -0,0 +1,46 @@
+package com.scheduling.maplewood.Repository;
+
+import com.scheduling.maplewood.Entity.StudentGrade;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StudentGradeRepository extends JpaRepository<StudentGrade, Integer> {
+
+    List<StudentGrade> findBySemesterIdAndStudentIdIn(Integer semesterId, Collection<Integer> studentIds);
+
+    /**
+     * One course of a student's transcript: the history row with its course, semester and grade, if graded.
+     */
+    interface TranscriptRow {
+        Integer getCourseId();
+        String getCourseCode();
+        String getCourseName();
+        BigDecimal getCredits();
+        String getSemesterName();
+        Integer getSemesterYear();
+        String getStatus();
+        LocalDateTime getRecordedAt();
+        String getGradeLetter();
+        Double getGradeNumeric();
+        Double getCreditsAwarded();
+    }
+
+    @Query("select h.courseId as courseId, c.code as courseCode, c.name as courseName, c.credits as credits, "
+            + "s.name as semesterName, s.year as semesterYear, h.status as status, h.createdAt as recordedAt, "
+            + "g.gradeLetter as gradeLetter, g.gradeNumeric as gradeNumeric, g.creditsAwarded as creditsAwarded "
+            + "from StudentCourseHistory h "
+            + "left join Course c on c.id = h.courseId "
+            + "left join Semester s on s.id = h.semesterId "
+            + "left join StudentGrade g on g.studentId = h.studentId and g.courseId = h.courseId "
+            + "and g.semesterId = h.semesterId "
+            + "where h.studentId = :studentId order by h.id")
+    List<TranscriptRow> findTranscript(@Param("studentId") Integer studentId);
+}
@@ -0,0 +1,9 @@
+package com.scheduling.maplewood.Repository;
+
+import com.scheduling.maplewood.Entity.StudentProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StudentProgressRepository extends JpaRepository<StudentProgress, Integer> {
+}
@@ -4,7 +4,10 @@ import com.scheduling.maplewood.Entity.Student;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Integer> {
     Student findByEmail(String email);
+    List<Student> findByStatus(String status);
 }
@@ -0,0 +1,148 @@
+package com.scheduling.maplewood.Service.Analytics;
+
+import com.scheduling.maplewood.Service.Enroll.PrerequisiteGraphService;
+import com.scheduling.maplewood.Service.Enroll.PrerequisiteGraphService.PrerequisiteGraph;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Enrollment trends and bottleneck courses, aggregated by grouped SQL and read row by row.
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseOutcomeAnalyticsService {
+
+    private static final String TRENDS =
+            "SELECT t.course_id, c.code, c.name, t.semester_id, s.name, s.year, "
+            + "SUM(t.attempted), SUM(t.passed), SUM(t.enrolled) "
+            + "FROM (SELECT course_id, semester_id, 1 AS attempted, "
+            + "          CASE WHEN LOWER(status) = 'passed' THEN 1 ELSE 0 END AS passed, 0 AS enrolled "
+            + "      FROM student_course_history "
+            + "      UNION ALL SELECT course_id, semester_id, 0, 0, 1 FROM student_enrollments) t "
+            + "JOIN courses c ON c.id = t.course_id "
+            + "JOIN semesters s ON s.id = t.semester_id "
+            + "%s"
+            + "GROUP BY t.course_id, c.code, c.name, t.semester_id, s.name, s.year, s.order_in_year "
+            + "ORDER BY c.code, s.year, s.order_in_year";
+
+    private static final String FAILURES =
+            "SELECT h.course_id, c.code, c.name, COUNT(*), "
+            + "SUM(CASE WHEN LOWER(h.status) = 'failed' THEN 1 ELSE 0 END), "
+            + "COUNT(DISTINCT CASE WHEN LOWER(h.status) = 'failed' AND NOT EXISTS ("
+            + "    SELECT 1 FROM student_course_history p WHERE p.student_id = h.student_id "
+            + "    AND p.course_id = h.course_id AND LOWER(p.status) = 'passed') THEN h.student_id END) "
+            + "FROM student_course_history h JOIN courses c ON c.id = h.course_id "
+            + "GROUP BY h.course_id, c.code, c.name "
+            + "HAVING SUM(CASE WHEN LOWER(h.status) = 'failed' THEN 1 ELSE 0 END) > 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PrerequisiteGraphService prerequisiteGraphService;
+
+    /**
+     * Returns, per course, the students who took it (history) or are enrolled in it in each semester,
+     * oldest semester first, with the change from the previous semester the course ran.
+     *
+     * @param courseId the course to restrict to, or null for all courses
+     * @return a map with one entry per course
+     */
+    public Map<String, Object> enrollmentTrends(Integer courseId) {
+        Map<Integer, Map<String, Object>> byCourse = new LinkedHashMap<>();
+        String sql = String.format(TRENDS, courseId == null ? "" : "WHERE t.course_id = ? ");
+        Object[] args = courseId == null ? new Object[0] : new Object[] {courseId};
+
+        jdbcTemplate.query(sql, rs -> {
+            Map<String, Object> course = byCourse.get(rs.getInt(1));
+            if (course == null) {
+                course = new LinkedHashMap<>();
+                course.put("courseId", rs.getInt(1));
+                course.put("code", rs.getString(2));
+                course.put("name", rs.getString(3));
+                course.put("semesters", new ArrayList<Map<String, Object>>());
+                byCourse.put(rs.getInt(1), course);
+            }
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> semesters = (List<Map<String, Object>>) course.get("semesters");
+
+            int attempted = rs.getInt(7);
+            int passed = rs.getInt(8);
+            int enrolled = rs.getInt(9);
+            int students = attempted + enrolled;
+
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("semesterId", rs.getInt(4));
+            s.put("semester", rs.getString(5) + " " + rs.getInt(6));
+            s.put("students", students);
+            s.put("completed", attempted);
+            s.put("enrolled", enrolled);
+            s.put("passRate", attempted == 0 ? null : round(100.0 * passed / attempted));
+            s.put("changeFromPrevious", semesters.isEmpty() ? null
+                    : students - (int) semesters.get(semesters.size() - 1).get("students"));
+            semesters.add(s);
+        }, args);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("courses", new ArrayList<>(byCourse.values()));
+        return out;
+    }
+
+    /**
+     * Returns the courses whose failures hold back the most students from later courses.
+     *
+     * A student is blocked on a course if they failed it and have not passed it since. A blocked student
+     * cannot take any course that has it on its prerequisite chain, so each course is ranked by its blocked
+     * students times the number of such downstream courses.
+     *
+     * @param limit the number of courses to return
+     * @return a map with the ranked courses
+     */
+    public Map<String, Object> bottlenecks(int limit) {
+        PrerequisiteGraph graph = prerequisiteGraphService.getGraph();
+        int[] downstream = new int[graph.size()];
+        for (int i = 0; i < graph.size(); i++) {
+            BitSet a = graph.ancestorsOf(i);
+            for (int p = a.nextSetBit(0); p >= 0; p = a.nextSetBit(p + 1)) downstream[p]++;
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        jdbcTemplate.query(FAILURES, rs -> {
+            int i = graph.indexOf(rs.getInt(1));
+            int below = i < 0 ? 0 : downstream[i];
+            if (below == 0) return;
+            int attempts = rs.getInt(4);
+            int failed = rs.getInt(5);
+            int blocked = rs.getInt(6);
+
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("courseId", rs.getInt(1));
+            m.put("code", rs.getString(2));
+            m.put("name", rs.getString(3));
+            m.put("attempts", attempts);
+            m.put("failed", failed);
+            m.put("failRate", round(100.0 * failed / attempts));
+            m.put("blockedStudents", blocked);
+            m.put("downstreamCourses", below);
+            m.put("blockedCourseTakes", blocked * below);
+            rows.add(m);
+        });
+
+        rows.sort(Comparator.comparingInt((Map<String, Object> m) -> (int) m.get("blockedCourseTakes")).reversed()
+                .thenComparing(m -> (int) m.get("failed"), Comparator.reverseOrder()));
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("bottlenecks", rows.subList(0, Math.min(Math.max(limit, 0), rows.size())));
+        return out;
+    }
+
+    /**
+     * Rounds a double value to two decimal places.
+     * 
+     * @param v the value to round
+     * @return the rounded value
+     */
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+}
@@ -0,0 +1,239 @@
+package com.scheduling.maplewood.Service.Analytics;
+
+import com.scheduling.maplewood.Entity.Course;
+import com.scheduling.maplewood.Entity.Semester;
+import com.scheduling.maplewood.Repository.CourseRepository;
+import com.scheduling.maplewood.Repository.SemesterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Course, semester and cohort rollups of the course history, computed by scanning the columns of
+ * {@link HistoryColumnStore} into primitive accumulators indexed by id.
+ */
+@Service
+@RequiredArgsConstructor
+public class HistoryAnalyticsService {
+
+    private static final int CREDIT_BUCKET = 2;
+
+    private final HistoryColumnStore store;
+    private final CourseRepository courseRepository;
+    private final SemesterRepository semesterRepository;
+
+    /**
+     * Per-key counters of a rollup: attempts, passes, credits, graded attempts and the students seen.
+     */
+    private static final class Totals {
+        private final int[] attempts;
+        private final int[] passed;
+        private final double[] creditsAttempted;
+        private final double[] creditsEarned;
+        private final int[] graded;
+        private final double[] gradePoints;
+        private final BitSet[] students;
+
+        private Totals(int keys) {
+            attempts = new int[keys];
+            passed = new int[keys];
+            creditsAttempted = new double[keys];
+            creditsEarned = new double[keys];
+            graded = new int[keys];
+            gradePoints = new double[keys];
+            students = new BitSet[keys];
+        }
+
+        /**
+         * Adds one history row to a key.
+         *
+         * @param s the snapshot
+         * @param row the row
+         * @param key the key the row is counted under
+         * @param passCode the dictionary code of "passed"
+         */
+        private void add(HistoryColumnStore.Snapshot s, int row, int key, byte passCode) {
+            attempts[key]++;
+            creditsAttempted[key] += s.credits[row];
+            if (s.status[row] == passCode) {
+                passed[key]++;
+                creditsEarned[key] += s.credits[row];
+            }
+            if (!Double.isNaN(s.gradePoints[row])) {
+                graded[key]++;
+                gradePoints[key] += s.gradePoints[row];
+            }
+            if (students[key] == null) students[key] = new BitSet();
+            if (s.studentId[row] >= 0) students[key].set(s.studentId[row]);
+        }
+
+        /**
+         * Writes the counters of a key into a result row.
+         *
+         * @param key the key
+         * @param out the result row
+         * @return the result row
+         */
+        private Map<String, Object> put(int key, Map<String, Object> out) {
+            int distinct = students[key].cardinality();
+            out.put("attempts", attempts[key]);
+            out.put("passed", passed[key]);
+            out.put("failed", attempts[key] - passed[key]);
+            out.put("passRate", round(100.0 * passed[key] / attempts[key]));
+            out.put("students", distinct);
+            out.put("creditsAttempted", round(creditsAttempted[key]));
+            out.put("creditsEarned", round(creditsEarned[key]));
+            out.put("averageGradePoints", graded[key] == 0 ? null : round(gradePoints[key] / graded[key]));
+            return out;
+        }
+    }
+
+    /**
+     * Returns the pass rates, repeat attempts, credits and average grade points of every course.
+     *
+     * @param semesterId the semester to restrict to, or null for all semesters
+     * @return a map with the number of history rows scanned and one entry per course
+     */
+    public Map<String, Object> courseRollup(Integer semesterId) {
+        HistoryColumnStore.Snapshot s = store.read();
+        Totals t = new Totals(maxOf(s.courseId, s.size) + 1);
+        byte passCode = s.codeOf("passed");
+        int semester = semesterId == null ? -1 : semesterId;
+        for (int r = 0; r < s.size; r++) {
+            if (s.courseId[r] < 0 || (semesterId != null && s.semesterId[r] != semester)) continue;
+            t.add(s, r, s.courseId[r], passCode);
+        }
+
+        Map<Integer, Course> courses = courseRepository.findAll().stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int c = 0; c < t.attempts.length; c++) {
+            if (t.attempts[c] == 0) continue;
+            Course course = courses.get(c);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("courseId", c);
+            m.put("code", course != null ? course.getCode() : "UNKNOWN");
+            m.put("name", course != null ? course.getName() : "Unknown");
+            t.put(c, m);
+            m.put("repeatAttempts", t.attempts[c] - t.students[c].cardinality());
+            rows.add(m);
+        }
+        return result(s, "courses", rows);
+    }
+
+    /**
+     * Returns the pass rates, credits and average grade points of every semester.
+     *
+     * @return a map with the number of history rows scanned and one entry per semester
+     */
+    public Map<String, Object> semesterRollup() {
+        HistoryColumnStore.Snapshot s = store.read();
+        Totals t = new Totals(maxOf(s.semesterId, s.size) + 1);
+        byte passCode = s.codeOf("passed");
+        for (int r = 0; r < s.size; r++) {
+            if (s.semesterId[r] >= 0) t.add(s, r, s.semesterId[r], passCode);
+        }
+
+        Map<Integer, Semester> semesters = semesterRepository.findAll().stream()
+                .collect(Collectors.toMap(Semester::getId, Function.identity()));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int id = 0; id < t.attempts.length; id++) {
+            if (t.attempts[id] == 0) continue;
+            Semester semester = semesters.get(id);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("semesterId", id);
+            m.put("semester", semester != null ? semester.getName() + " " + semester.getYear() : "Unknown");
+            rows.add(t.put(id, m));
+        }
+        return result(s, "semesters", rows);
+    }
+
+    /**
+     * Returns the pass rates and the distribution of earned credits of every grade level.
+     * Earned credits count each passed course once per student, in buckets of {@value #CREDIT_BUCKET} credits.
+     *
+     * @return a map with the number of history rows scanned and one entry per grade level
+     */
+    public Map<String, Object> cohortRollup() {
+        HistoryColumnStore.Snapshot s = store.read();
+        Totals t = new Totals(maxOf(s.gradeLevel, s.size) + 1);
+        byte passCode = s.codeOf("passed");
+
+        Map<Integer, Double> earnedByStudent = new HashMap<>();
+        Map<Integer, Integer> levelOfStudent = new HashMap<>();
+        Set<Long> counted = new HashSet<>();
+        for (int r = 0; r < s.size; r++) {
+            int level = s.gradeLevel[r];
+            if (level < 0) continue;
+            t.add(s, r, level, passCode);
+            levelOfStudent.put(s.studentId[r], level);
+            if (s.status[r] == passCode && counted.add(((long) s.studentId[r] << 32) | (s.courseId[r] & 0xffffffffL))) {
+                earnedByStudent.merge(s.studentId[r], s.credits[r], Double::sum);
+            }
+        }
+
+        Map<Integer, TreeMap<Integer, Integer>> buckets = new HashMap<>();
+        Map<Integer, Double> earnedByLevel = new HashMap<>();
+        levelOfStudent.forEach((student, level) -> {
+            double earned = earnedByStudent.getOrDefault(student, 0.0);
+            earnedByLevel.merge(level, earned, Double::sum);
+            int bucket = (int) Math.floor(earned / CREDIT_BUCKET) * CREDIT_BUCKET;
+            buckets.computeIfAbsent(level, k -> new TreeMap<>()).merge(bucket, 1, Integer::sum);
+        });
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int level = 0; level < t.attempts.length; level++) {
+            if (t.attempts[level] == 0) continue;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("gradeLevel", level);
+            t.put(level, m);
+            m.put("averageCreditsEarned", round(earnedByLevel.get(level) / t.students[level].cardinality()));
+            Map<String, Integer> distribution = new LinkedHashMap<>();
+            buckets.get(level).forEach((from, count) -> distribution.put(from + "-" + (from + CREDIT_BUCKET), count));
+            m.put("creditsEarnedDistribution", distribution);
+            rows.add(m);
+        }
+        return result(s, "cohorts", rows);
+    }
+
+    /**
+     * Wraps rollup rows with the size and age of the snapshot they were computed from.
+     *
+     * @param s the snapshot
+     * @param name the name of the rows
+     * @param rows the rollup rows
+     * @return the result map
+     */
+    private Map<String, Object> result(HistoryColumnStore.Snapshot s, String name, List<Map<String, Object>> rows) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("historyRows", s.size());
+        out.put(name, rows);
+        return out;
+    }
+
+    /**
+     * Returns the largest value among the first n entries of a column, -1 if there are none.
+     *
+     * @param column the column
+     * @param n the number of rows
+     * @return the largest value
+     */
+    private static int maxOf(int[] column, int n) {
+        int max = -1;
+        for (int i = 0; i < n; i++) max = Math.max(max, column[i]);
+        return max;
+    }
+
+    /**
+     * Rounds a double value to two decimal places.
+     * 
+     * @param v the value to round
+     * @return the rounded value
+     */
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+}
@@ -0,0 +1,277 @@
+package com.scheduling.maplewood.Service.Analytics;
+
+import com.scheduling.maplewood.Service.Progress.GradeScale;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An in-memory, column-oriented copy of the course history for analytics.
+ *
+ * Every history row is one position in a set of primitive arrays: student, course, semester, the student's
+ * grade level, the course's credits, the grade points of the recorded grade (NaN if ungraded) and the status,
+ * dictionary-encoded as a byte. The copy is loaded with one streaming JDBC query over history joined with
+ * courses, students and grades.
+ *
+ * Before each read, rows with an id above the highest loaded one are appended with the same query. Updates
+ * and deletions of history rows, any grade write, course changes and student changes (the grade level) make
+ * the copy stale, and the next read reloads it in full (see HistoryAnalyticsListener and StudentChangeListener).
+ * The stale flag is cleared atomically by the read that reloads, so an invalidation that arrives during the
+ * reload is kept for the next read. Writes that bypass JPA must invalidate the store themselves. Since SQLite has a single writer, history ids commit in
+ * order, so appending by id does not skip rows.
+ *
+ * A {@link Snapshot} is immutable for its readers: appending only writes past the snapshot's size, into the
+ * same arrays while they have room or into larger copies, and publishes a new snapshot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HistoryColumnStore {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String ROWS =
+            "SELECT h.id, h.student_id, h.course_id, h.semester_id, h.status, c.credits, s.grade_level, g.grade_letter "
+            + "FROM student_course_history h "
+            + "LEFT JOIN courses c ON c.id = h.course_id "
+            + "LEFT JOIN students s ON s.id = h.student_id "
+            + "LEFT JOIN student_grades g ON g.student_id = h.student_id AND g.course_id = h.course_id "
+            + "    AND g.semester_id = h.semester_id "
+            + "WHERE h.id > ? ORDER BY h.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    /**
+     * The history columns up to {@link #size()}, read directly by the analytics in this package.
+     * Missing ids and grade levels are stored as -1.
+     */
+    public static final class Snapshot {
+        final int size;
+        final int maxId;
+        final int[] studentId;
+        final int[] courseId;
+        final int[] semesterId;
+        final int[] gradeLevel;
+        final double[] credits;
+        final double[] gradePoints;
+        final byte[] status;
+        final List<String> statuses;
+        final long loadedAt;
+
+        private Snapshot(int size, int maxId, int[] studentId, int[] courseId, int[] semesterId, int[] gradeLevel,
+                         double[] credits, double[] gradePoints, byte[] status, List<String> statuses, long loadedAt) {
+            this.size = size;
+            this.maxId = maxId;
+            this.studentId = studentId;
+            this.courseId = courseId;
+            this.semesterId = semesterId;
+            this.gradeLevel = gradeLevel;
+            this.credits = credits;
+            this.gradePoints = gradePoints;
+            this.status = status;
+            this.statuses = statuses;
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * Returns the number of rows.
+         *
+         * @return the number of rows
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the highest history id loaded.
+         *
+         * @return the highest id, 0 if empty
+         */
+        public int maxId() {
+            return maxId;
+        }
+
+        /**
+         * Returns when the snapshot was last extended.
+         *
+         * @return the time in epoch milliseconds
+         */
+        public long loadedAt() {
+            return loadedAt;
+        }
+
+        /**
+         * Returns the dictionary code of a status.
+         *
+         * @param value the status, e.g. "passed"
+         * @return the code, or -1 if no row has that status
+         */
+        public byte codeOf(String value) {
+            return (byte) statuses.indexOf(value.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Returns the current snapshot, appending new history rows first, or reloading everything if it is stale.
+     *
+     * @return the snapshot
+     */
+    public synchronized Snapshot read() {
+        long started = System.nanoTime();
+        boolean full = stale.getAndSet(false) || snapshot == null;
+        Snapshot before = full ? empty() : snapshot;
+        snapshot = append(before);
+        if (full) {
+            log.info("Loaded {} history rows for analytics in {} ms", snapshot.size, (System.nanoTime() - started) / 1_000_000);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Marks the snapshot stale, so the next read reloads it in full.
+     */
+    public void invalidate() {
+        stale.set(true);
+    }
+
+    /**
+     * Streams the history rows above the snapshot's highest id and appends them.
+     *
+     * @param s the snapshot to extend
+     * @return the extended snapshot, or s itself if there are no new rows
+     */
+    private Snapshot append(Snapshot s) {
+        Appender a = new Appender(s);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ROWS);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setInt(1, s.maxId);
+            return ps;
+        }, rs -> {
+            int grade = rs.getInt(7);
+            boolean noGrade = rs.wasNull();
+            Double points = GradeScale.pointsOf(rs.getString(8));
+            a.add(rs.getInt(1), rs.getInt(2), intOrMissing(rs, 3), intOrMissing(rs, 4), rs.getString(5),
+                    rs.getDouble(6), noGrade ? -1 : grade, points == null ? Double.NaN : points);
+        });
+        return a.size == s.size ? s : a.build();
+    }
+
+    /**
+     * Reads an integer column, -1 if it is NULL.
+     *
+     * @param rs the result set
+     * @param column the column's position
+     * @return the value, or -1
+     * @throws SQLException if reading fails
+     */
+    private static int intOrMissing(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? -1 : value;
+    }
+
+    /**
+     * Returns a snapshot with no rows.
+     *
+     * @return the empty snapshot
+     */
+    private static Snapshot empty() {
+        return new Snapshot(0, 0, new int[0], new int[0], new int[0], new int[0],
+                new double[0], new double[0], new byte[0], List.of(), System.currentTimeMillis());
+    }
+
+    /**
+     * Appends rows after the end of a snapshot, growing the arrays by doubling.
+     */
+    private static final class Appender {
+        private int size;
+        private int maxId;
+        private int[] studentId;
+        private int[] courseId;
+        private int[] semesterId;
+        private int[] gradeLevel;
+        private double[] credits;
+        private double[] gradePoints;
+        private byte[] status;
+        private final List<String> statuses;
+
+        private Appender(Snapshot s) {
+            size = s.size;
+            maxId = s.maxId;
+            studentId = s.studentId;
+            courseId = s.courseId;
+            semesterId = s.semesterId;
+            gradeLevel = s.gradeLevel;
+            credits = s.credits;
+            gradePoints = s.gradePoints;
+            status = s.status;
+            statuses = new ArrayList<>(s.statuses);
+        }
+
+        /**
+         * Appends one history row.
+         *
+         * @param id the row's id
+         * @param student the student's id
+         * @param course the course's id
+         * @param semester the semester's id
+         * @param state the row's status
+         * @param courseCredits the course's credits
+         * @param level the student's grade level
+         * @param points the grade points, NaN if ungraded
+         */
+        private void add(int id, int student, int course, int semester, String state, double courseCredits,
+                         int level, double points) {
+            if (size == studentId.length) grow();
+            String key = state == null ? "" : state.toLowerCase(Locale.ROOT);
+            int code = statuses.indexOf(key);
+            if (code < 0) {
+                statuses.add(key);
+                code = statuses.size() - 1;
+            }
+            studentId[size] = student;
+            courseId[size] = course;
+            semesterId[size] = semester;
+            gradeLevel[size] = level;
+            credits[size] = courseCredits;
+            gradePoints[size] = points;
+            status[size] = (byte) code;
+            maxId = Math.max(maxId, id);
+            size++;
+        }
+
+        /**
+         * Doubles the capacity of every column.
+         */
+        private void grow() {
+            int capacity = Math.max(1024, studentId.length * 2);
+            studentId = Arrays.copyOf(studentId, capacity);
+            courseId = Arrays.copyOf(courseId, capacity);
+            semesterId = Arrays.copyOf(semesterId, capacity);
+            gradeLevel = Arrays.copyOf(gradeLevel, capacity);
+            credits = Arrays.copyOf(credits, capacity);
+            gradePoints = Arrays.copyOf(gradePoints, capacity);
+            status = Arrays.copyOf(status, capacity);
+        }
+
+        /**
+         * Publishes the appended rows as a new snapshot.
+         *
+         * @return the snapshot
+         */
+        private Snapshot build() {
+            return new Snapshot(size, maxId, studentId, courseId, semesterId, gradeLevel, credits, gradePoints,
+                    status, List.copyOf(statuses), System.currentTimeMillis());
+        }
+    }
+}
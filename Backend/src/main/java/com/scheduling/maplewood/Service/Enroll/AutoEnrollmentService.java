@@ -0,0 +1,328 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Enrolls a whole cohort into its required and next core courses for a semester in one pass.
+ *
+ * Every active student requests each core-required course, and each core course of the semester's
+ * order, that they are eligible for and old enough to take. Requests are assigned to sections by a
+ * min-cost max-flow ({@link MinCostFlow}): source → student (their free course slots) → request →
+ * section (seats left) → sink. Maximum flow maximizes the number of satisfied requests and the arc
+ * costs prefer the most overdue ones. The flow cannot see clashes between two sections given to
+ * the same student, so the assignment is then repaired in memory, most overdue first: a clashing
+ * request moves to another fitting section with a seat or stays open for the next round, which
+ * solves again with the updated schedules and seat counts.
+ *
+ * The accepted enrollments are written together in this one transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AutoEnrollmentService {
+
+    private static final int ROUNDS = 3;
+    private static final int MAX_OVERDUE = 3;
+    private static final int MAX_PRIORITY = MAX_OVERDUE + 1;
+
+    private final StudentRepository studentRepository;
+    private final SemesterRepository semesterRepository;
+    private final CourseRepository courseRepository;
+    private final CoreRequiredCoursesRepository coreRequiredCoursesRepository;
+    private final CourseSectionRepository courseSectionRepository;
+    private final StudentEnrollmentRepository studentEnrollmentRepository;
+    private final EnrollmentContextLoader enrollmentContextLoader;
+    private final EnrollmentService enrollmentService;
+    private final BusyMaskService busyMaskService;
+    private final SeatLedger seatLedger;
+    private final StudentLocks studentLocks;
+    private final LotteryGate lotteryGate;
+
+    /**
+     * One (student, course) request and its assignment.
+     */
+    private static final class Request {
+        final EnrollmentContext ctx;
+        final Course course;
+        final int priority;
+        CourseSection assigned;
+        boolean done;
+
+        Request(EnrollmentContext ctx, Course course, int priority) {
+            this.ctx = ctx;
+            this.course = course;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Assigns every active student to sections of their required and next core courses and enrolls them.
+     *
+     * @param semesterId the semester's id
+     * @param dryRun if true, the assignment is computed and reported but nothing is written
+     * @return a map with the totals and the per-course counts
+     * @throws EnrollmentException if the semester does not exist or has no sections
+     */
+    @Transactional
+    public Map<String, Object> autoEnroll(Integer semesterId, boolean dryRun) {
+        long started = System.nanoTime();
+        if (semesterId == null) throw new EnrollmentException("semesterId is required.");
+        lotteryGate.requireDirectEnrollment(semesterId);
+        Semester semester = semesterRepository.findById(semesterId)
+                .orElseThrow(() -> new EnrollmentException("Semester not found: " + semesterId));
+
+        List<CourseSection> sections = courseSectionRepository.findBySemesterId(semesterId);
+        if (sections.isEmpty()) throw new EnrollmentException("The semester has no sections.");
+        sections.sort(Comparator.comparing(CourseSection::getId));
+
+        List<Student> students = studentRepository.findByStatus("active");
+        students.sort(Comparator.comparing(Student::getId));
+        if (!dryRun) studentLocks.lockAllUntilCompletion(students.stream().map(Student::getId).toList());
+
+        Map<Integer, List<CourseSection>> sectionsByCourse = sections.stream()
+                .collect(Collectors.groupingBy(CourseSection::getCourseId));
+        List<Integer> sectionIds = sections.stream().map(CourseSection::getId).toList();
+        Map<Integer, WeeklyBusyMask> masks = busyMaskService.sectionMasks(sectionIds);
+        Map<Integer, Integer> occupied = seatLedger.occupied(sectionIds);
+        Map<Integer, Integer> seatsLeft = new HashMap<>();
+        for (CourseSection cs : sections) {
+            seatsLeft.put(cs.getId(), cs.getCapacity() == null
+                    ? students.size()
+                    : Math.max(0, cs.getCapacity() - occupied.get(cs.getId())));
+        }
+
+        Set<Integer> required = coreRequiredCoursesRepository.findAll().stream()
+                .map(CoreRequiredCourse::getCourseId)
+                .collect(Collectors.toSet());
+        List<Course> wanted = courseRepository.findAll().stream()
+                .filter(c -> sectionsByCourse.containsKey(c.getId()))
+                .filter(c -> required.contains(c.getId())
+                        || ("core".equalsIgnoreCase(c.getCourseType())
+                            && Objects.equals(c.getSemesterOrder(), semester.getOrderInYear())))
+                .sorted(Comparator.comparing(Course::getId))
+                .toList();
+
+        Map<Integer, EnrollmentContext> contexts = enrollmentContextLoader.loadAll(students, semesterId);
+        List<Request> requests = new ArrayList<>();
+        for (Student student : students) {
+            EnrollmentContext ctx = contexts.get(student.getId());
+            for (Course course : wanted) {
+                if (!inGradeRange(student, course) || !enrollmentService.isEligible(ctx, course)) continue;
+                requests.add(new Request(ctx, course, priority(student, course, required)));
+            }
+        }
+
+        List<StudentEnrollment> accepted = new ArrayList<>();
+        int rounds = 0;
+        while (rounds < ROUNDS) {
+            rounds++;
+            solve(requests, sectionsByCourse, masks, seatsLeft);
+            int before = accepted.size();
+            repair(requests, sectionsByCourse, masks, seatsLeft, accepted, semesterId);
+            if (accepted.size() == before || requests.stream().allMatch(r -> r.done)) break;
+        }
+
+        if (!dryRun && !accepted.isEmpty()) {
+            Map<Integer, CourseSection> sectionById = sections.stream()
+                    .collect(Collectors.toMap(CourseSection::getId, Function.identity()));
+            Iterator<StudentEnrollment> it = accepted.iterator();
+            while (it.hasNext()) {
+                StudentEnrollment e = it.next();
+                // a concurrent enroll may have taken the last seat since the counts were read
+                if (!seatLedger.tryReserve(e.getSectionId(), sectionById.get(e.getSectionId()).getCapacity())) it.remove();
+            }
+            studentEnrollmentRepository.saveAll(accepted);
+            studentEnrollmentRepository.flush();
+        }
+
+        Map<Integer, Long> requestedByCourse = requests.stream()
+                .collect(Collectors.groupingBy(r -> r.course.getId(), Collectors.counting()));
+        Map<Integer, Long> enrolledByCourse = accepted.stream()
+                .collect(Collectors.groupingBy(StudentEnrollment::getCourseId, Collectors.counting()));
+        List<Map<String, Object>> byCourse = new ArrayList<>();
+        for (Course course : wanted) {
+            if (!requestedByCourse.containsKey(course.getId())) continue;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("courseId", course.getId());
+            item.put("code", course.getCode());
+            item.put("requested", requestedByCourse.get(course.getId()));
+            item.put("enrolled", enrolledByCourse.getOrDefault(course.getId(), 0L));
+            byCourse.add(item);
+        }
+
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Auto-enrollment for semester {}{}: {} requests, {} enrolled in {} rounds, {} ms",
+                semesterId, dryRun ? " (dry run)" : "", requests.size(), accepted.size(), rounds, millis);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("semesterId", semesterId);
+        out.put("dryRun", dryRun);
+        out.put("students", requests.stream().map(r -> r.ctx.getStudent().getId()).distinct().count());
+        out.put("requests", requests.size());
+        out.put("enrolled", accepted.size());
+        out.put("unsatisfied", requests.size() - accepted.size());
+        out.put("rounds", rounds);
+        out.put("millis", millis);
+        out.put("courses", byCourse);
+        return out;
+    }
+
+    /**
+     * Assigns the open requests to sections with a min-cost max-flow over the current seats and schedules.
+     *
+     * @param requests all requests; open ones get their assigned section set, or null
+     * @param sectionsByCourse the semester's sections by course id
+     * @param masks the weekly masks of the sections
+     * @param seatsLeft the seats left in each section
+     */
+    private void solve(List<Request> requests, Map<Integer, List<CourseSection>> sectionsByCourse,
+                       Map<Integer, WeeklyBusyMask> masks, Map<Integer, Integer> seatsLeft) {
+        Map<Integer, Integer> studentNode = new HashMap<>();
+        Map<Integer, Integer> sectionNode = new HashMap<>();
+        List<Request> open = requests.stream().filter(r -> !r.done).toList();
+        for (Request r : open) {
+            r.assigned = null;
+            studentNode.putIfAbsent(r.ctx.getStudent().getId(), studentNode.size());
+        }
+        for (Integer id : seatsLeft.keySet()) sectionNode.put(id, sectionNode.size());
+
+        int source = 0;
+        int sink = 1;
+        int studentBase = 2;
+        int sectionBase = studentBase + studentNode.size();
+        int requestBase = sectionBase + sectionNode.size();
+        MinCostFlow flow = new MinCostFlow(requestBase + open.size());
+
+        Set<Integer> linked = new HashSet<>();
+        for (Request r : open) {
+            Integer studentId = r.ctx.getStudent().getId();
+            if (linked.add(studentId)) {
+                int slots = EnrollmentService.MAX_COURSES_PER_SEMESTER - r.ctx.enrolledCount();
+                if (slots > 0) flow.addArc(source, studentBase + studentNode.get(studentId), slots, 0);
+            }
+        }
+        for (Map.Entry<Integer, Integer> e : sectionNode.entrySet()) {
+            int seats = seatsLeft.get(e.getKey());
+            if (seats > 0) flow.addArc(sectionBase + e.getValue(), sink, seats, 0);
+        }
+
+        int[][] choices = new int[open.size()][];
+        for (int i = 0; i < open.size(); i++) {
+            Request r = open.get(i);
+            int node = requestBase + i;
+            flow.addArc(studentBase + studentNode.get(r.ctx.getStudent().getId()), node, 1, MAX_PRIORITY - r.priority);
+            List<CourseSection> fitting = sectionsByCourse.get(r.course.getId()).stream()
+                    .filter(cs -> seatsLeft.get(cs.getId()) > 0)
+                    .filter(cs -> !masks.get(cs.getId()).intersects(r.ctx.getBusyMask()))
+                    .toList();
+            choices[i] = new int[fitting.size() * 2];
+            for (int k = 0; k < fitting.size(); k++) {
+                choices[i][2 * k] = fitting.get(k).getId();
+                choices[i][2 * k + 1] = flow.addArc(node, sectionBase + sectionNode.get(fitting.get(k).getId()), 1, 0);
+            }
+        }
+
+        flow.solve(source, sink);
+
+        for (int i = 0; i < open.size(); i++) {
+            for (int k = 0; k < choices[i].length; k += 2) {
+                if (flow.flow(choices[i][k + 1]) > 0) {
+                    int sectionId = choices[i][k];
+                    open.get(i).assigned = sectionsByCourse.get(open.get(i).course.getId()).stream()
+                            .filter(cs -> cs.getId() == sectionId)
+                            .findFirst()
+                            .orElseThrow();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Accepts the assigned requests that fit, most overdue first. A request whose section clashes with the
+     * student's schedule so far, or has filled up, moves to the fitting section with the most seats left;
+     * if there is none it stays open.
+     *
+     * @param requests all requests
+     * @param sectionsByCourse the semester's sections by course id
+     * @param masks the weekly masks of the sections
+     * @param seatsLeft the seats left in each section, updated
+     * @param accepted the accepted enrollments, appended to
+     * @param semesterId the semester's id
+     */
+    private void repair(List<Request> requests, Map<Integer, List<CourseSection>> sectionsByCourse,
+                        Map<Integer, WeeklyBusyMask> masks, Map<Integer, Integer> seatsLeft,
+                        List<StudentEnrollment> accepted, Integer semesterId) {
+        List<Request> assigned = requests.stream()
+                .filter(r -> !r.done && r.assigned != null)
+                .sorted(Comparator.comparingInt((Request r) -> r.priority).reversed())
+                .toList();
+
+        for (Request r : assigned) {
+            EnrollmentContext ctx = r.ctx;
+            if (ctx.enrolledCount() >= EnrollmentService.MAX_COURSES_PER_SEMESTER) continue;
+
+            CourseSection section = r.assigned;
+            if (seatsLeft.get(section.getId()) <= 0 || masks.get(section.getId()).intersects(ctx.getBusyMask())) {
+                section = sectionsByCourse.get(r.course.getId()).stream()
+                        .filter(cs -> seatsLeft.get(cs.getId()) > 0)
+                        .filter(cs -> !masks.get(cs.getId()).intersects(ctx.getBusyMask()))
+                        .max(Comparator.comparingInt((CourseSection cs) -> seatsLeft.get(cs.getId()))
+                                .thenComparing(CourseSection::getId, Comparator.reverseOrder()))
+                        .orElse(null);
+                if (section == null) continue;
+            }
+
+            StudentEnrollment enrollment = new StudentEnrollment();
+            enrollment.setStudentId(ctx.getStudent().getId());
+            enrollment.setCourseId(r.course.getId());
+            enrollment.setSemesterId(semesterId);
+            enrollment.setSectionId(section.getId());
+            ctx.accept(enrollment, masks.get(section.getId()));
+            seatsLeft.merge(section.getId(), -1, Integer::sum);
+            accepted.add(enrollment);
+            r.done = true;
+        }
+    }
+
+    /**
+     * Returns how urgent a request is: how many grades past the course's minimum grade the student is
+     * (capped), plus one if the course is core-required.
+     *
+     * @param student the student
+     * @param course the course
+     * @param required the ids of the core-required courses
+     * @return the priority, from 0 to {@link #MAX_PRIORITY}
+     */
+    private int priority(Student student, Course course, Set<Integer> required) {
+        int overdue = 0;
+        if (student.getGradeLevel() != null && course.getGradeLevelMin() != null) {
+            overdue = Math.max(0, Math.min(MAX_OVERDUE, student.getGradeLevel() - course.getGradeLevelMin()));
+        }
+        return overdue + (required.contains(course.getId()) ? 1 : 0);
+    }
+
+    /**
+     * Returns true if the student's grade level is within the course's grade range.
+     *
+     * @param student the student
+     * @param course the course
+     * @return true if the student may take the course at their grade
+     */
+    private boolean inGradeRange(Student student, Course course) {
+        Integer grade = student.getGradeLevel();
+        if (grade == null) return true;
+        return (course.getGradeLevelMin() == null || grade >= course.getGradeLevelMin())
+                && (course.getGradeLevelMax() == null || grade <= course.getGradeLevelMax());
+    }
+}
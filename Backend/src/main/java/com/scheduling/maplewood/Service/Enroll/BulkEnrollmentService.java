@@ -0,0 +1,158 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.BulkEnrollmentRequest;
+import com.scheduling.maplewood.Dto.BulkEnrollmentResponse;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BulkEnrollmentService {
+
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseSectionRepository courseSectionRepository;
+    private final StudentEnrollmentRepository studentEnrollmentRepository;
+    private final EnrollmentContextLoader enrollmentContextLoader;
+    private final EnrollmentService enrollmentService;
+    private final BusyMaskService busyMaskService;
+    private final StudentLocks studentLocks;
+    private final LotteryGate lotteryGate;
+
+    /**
+     * Enrolls many (student, course) pairs into one semester.
+     *
+     * Everything the validation needs is loaded with a few set queries (students, courses, the semester's
+     * sections, and one {@link EnrollmentContext} per student); the pairs are then validated in memory with the
+     * same rules as {@link EnrollmentService#enroll}, in request order, each success updating the context the
+     * next pair of that student is checked against. Successful enrollments are written together in this one
+     * transaction.
+     *
+     * With allOrNothing, a single failure rolls the whole batch back and nothing is written.
+     *
+     * @param req the semester, the pairs to enroll and the allOrNothing flag
+     * @return the per-pair results
+     * @throws EnrollmentException if the semester or the items are missing, or the semester is under lottery
+     */
+    @Transactional
+    public BulkEnrollmentResponse enrollAll(BulkEnrollmentRequest req) {
+        lotteryGate.requireDirectEnrollment(req.getSemesterId());
+        return enroll(req);
+    }
+
+    /**
+     * Enrolls a lottery draft, like {@link #enrollAll} but into a semester whose direct enrollment is closed
+     * by its lottery.
+     *
+     * @param req the semester, the draft's pairs in order and the allOrNothing flag
+     * @return the per-pair results
+     * @throws EnrollmentException if the semester or the items are missing
+     */
+    @Transactional
+    BulkEnrollmentResponse enrollDraft(BulkEnrollmentRequest req) {
+        return enroll(req);
+    }
+
+    /**
+     * Validates and writes the pairs of a bulk request in the current transaction.
+     *
+     * @param req the semester, the pairs to enroll and the allOrNothing flag
+     * @return the per-pair results
+     * @throws EnrollmentException if the semester or the items are missing
+     */
+    private BulkEnrollmentResponse enroll(BulkEnrollmentRequest req) {
+
+        Integer semesterId = req.getSemesterId();
+        List<BulkEnrollmentRequest.Item> items = req.getItems() == null ? List.of() : req.getItems();
+        if (semesterId == null || items.isEmpty()) {
+            throw new EnrollmentException("semesterId and at least one item are required.");
+        }
+
+        Set<Integer> studentIds = items.stream().map(BulkEnrollmentRequest.Item::getStudentId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Integer> courseIds = items.stream().map(BulkEnrollmentRequest.Item::getCourseId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+
+        studentLocks.lockAllUntilCompletion(studentIds);
+
+        Map<Integer, Student> students = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        Map<Integer, Course> courses = courseRepository.findAllById(courseIds).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+        List<CourseSection> semesterSections = courseSectionRepository.findBySemesterId(semesterId);
+        Map<Integer, List<CourseSection>> sectionsByCourse = semesterSections.stream()
+                .sorted(Comparator.comparing(CourseSection::getId))
+                .collect(Collectors.groupingBy(CourseSection::getCourseId));
+        Map<Integer, WeeklyBusyMask> masks = busyMaskService.sectionMasks(
+                semesterSections.stream().map(CourseSection::getId).collect(Collectors.toList()));
+
+        Map<Integer, EnrollmentContext> contexts = enrollmentContextLoader.loadAll(students.values(), semesterId);
+
+        List<StudentEnrollment> toSave = new ArrayList<>();
+        List<BulkEnrollmentResponse.ItemResult> results = new ArrayList<>();
+
+        for (BulkEnrollmentRequest.Item item : items) {
+            Integer studentId = item.getStudentId();
+            Integer courseId = item.getCourseId();
+            try {
+                if (studentId == null || courseId == null) {
+                    throw new EnrollmentException("studentId and courseId are required.");
+                }
+                if (!students.containsKey(studentId)) throw new EnrollmentException("Student not found: " + studentId);
+                Course course = courses.get(courseId);
+                if (course == null) throw new EnrollmentException("Course not found: " + courseId);
+
+                List<CourseSection> sections = sectionsByCourse.getOrDefault(courseId, List.of());
+                if (sections.isEmpty()) {
+                    throw new EnrollmentException("No section available for this course in the selected semester.");
+                }
+
+                EnrollmentContext ctx = contexts.get(studentId);
+                enrollmentService.validateEligible(ctx, course);
+                CourseSection chosen = enrollmentService.reserveBestSection(ctx, sections);
+
+                StudentEnrollment enrollment = new StudentEnrollment();
+                enrollment.setStudentId(studentId);
+                enrollment.setCourseId(courseId);
+                enrollment.setSemesterId(semesterId);
+                enrollment.setSectionId(chosen.getId());
+                toSave.add(enrollment);
+
+                ctx.accept(enrollment, masks.get(chosen.getId()));
+
+                results.add(new BulkEnrollmentResponse.ItemResult(studentId, courseId, chosen.getId(), true, "Enrolled successfully."));
+            } catch (EnrollmentException e) {
+                results.add(new BulkEnrollmentResponse.ItemResult(studentId, courseId, null, false, e.getMessage()));
+            }
+        }
+
+        long failed = results.stream().filter(r -> !r.isSuccess()).count();
+
+        if (req.isAllOrNothing() && failed > 0) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            for (BulkEnrollmentResponse.ItemResult r : results) {
+                if (r.isSuccess()) {
+                    r.setSuccess(false);
+                    r.setSectionId(null);
+                    r.setMessage("Not enrolled: another item of the batch failed.");
+                }
+            }
+            return new BulkEnrollmentResponse(false, 0, results.size(), results);
+        }
+
+        studentEnrollmentRepository.saveAll(toSave);
+        studentEnrollmentRepository.flush();
+
+        return new BulkEnrollmentResponse(failed == 0, toSave.size(), (int) failed, results);
+    }
+}
@@ -0,0 +1,82 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Entity.SectionMeeting;
+import com.scheduling.maplewood.Repository.SectionMeetingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BusyMaskService {
+
+    private final SectionMeetingRepository sectionMeetingRepository;
+
+    private final Map<Integer, WeeklyBusyMask> sectionMasks = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the weekly mask of a single section.
+     *
+     * @param sectionId the section's id
+     * @return the section's mask, empty if it has no meetings
+     */
+    public WeeklyBusyMask sectionMask(Integer sectionId) {
+        if (sectionId == null) return WeeklyBusyMask.EMPTY;
+        return sectionMasks(List.of(sectionId)).get(sectionId);
+    }
+
+    /**
+     * Returns the weekly masks of the given sections.
+     * Sections not cached yet are loaded together with a single meetings query.
+     *
+     * @param sectionIds the sections' ids
+     * @return a map of section id to mask, with an entry for every requested section
+     */
+    public Map<Integer, WeeklyBusyMask> sectionMasks(Collection<Integer> sectionIds) {
+        Map<Integer, WeeklyBusyMask> out = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (Integer id : sectionIds) {
+            if (id == null) continue;
+            WeeklyBusyMask mask = sectionMasks.get(id);
+            if (mask != null) out.put(id, mask);
+            else missing.add(id);
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Integer, List<SectionMeeting>> meetings = sectionMeetingRepository.findBySectionIdIn(missing).stream()
+                    .collect(Collectors.groupingBy(SectionMeeting::getSectionId));
+            for (Integer id : missing) {
+                WeeklyBusyMask mask = WeeklyBusyMask.of(meetings.get(id));
+                sectionMasks.put(id, mask);
+                out.put(id, mask);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the combined mask of the sections a student is enrolled in.
+     *
+     * @param sectionIds the ids of the student's sections for one semester
+     * @return the student's busy mask
+     */
+    public WeeklyBusyMask combinedMask(Collection<Integer> sectionIds) {
+        WeeklyBusyMask busy = WeeklyBusyMask.EMPTY;
+        for (WeeklyBusyMask mask : sectionMasks(sectionIds).values()) {
+            busy = busy.or(mask);
+        }
+        return busy;
+    }
+
+    /**
+     * Drops the cached mask of a section, so it is rebuilt from its meetings on next use.
+     *
+     * @param sectionId the section's id
+     */
+    public void evict(Integer sectionId) {
+        if (sectionId != null) sectionMasks.remove(sectionId);
+    }
+}
@@ -0,0 +1,351 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Registration carts backed by temporary seat holds.
+ *
+ * Adding a section to a cart validates it like an enrollment (against the student's enrollments and
+ * the other sections in the cart) and holds one of its seats in the {@link SeatLedger} for a limited
+ * time. Holds live in memory only. Expired holds are released by a sweeper thread waiting on a
+ * {@link DelayQueue}, so expiry costs O(log n) per hold and never scans the holds.
+ *
+ * Checkout turns every hold of the cart into an enrollment in one transaction: either all of them
+ * become enrollments or none do and the holds stay in the cart.
+ */
+@Service
+@RequiredArgsConstructor
+public class CartService {
+
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseSectionRepository courseSectionRepository;
+    private final StudentEnrollmentRepository studentEnrollmentRepository;
+    private final EnrollmentContextLoader enrollmentContextLoader;
+    private final EnrollmentService enrollmentService;
+    private final BusyMaskService busyMaskService;
+    private final SeatLedger seatLedger;
+    private final StudentLocks studentLocks;
+    private final LotteryGate lotteryGate;
+
+    @Value("${maplewood.cart.hold-ttl:10m}")
+    private Duration holdTtl;
+
+    /**
+     * A seat held for a student. It is active until it expires, is removed or is checked out;
+     * whoever deactivates it first owns the release of the seat.
+     */
+    private static final class Hold implements Delayed {
+        final Integer studentId;
+        final CourseSection section;
+        final Instant expiresAt;
+        final AtomicBoolean active = new AtomicBoolean(true);
+
+        Hold(Integer studentId, CourseSection section, Instant expiresAt) {
+            this.studentId = studentId;
+            this.section = section;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAt.toEpochMilli() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return expiresAt.compareTo(((Hold) other).expiresAt);
+        }
+    }
+
+    /**
+     * The holds claimed by one checkout, the ones already turned into taken seats, and for each hold
+     * whether it goes back to the cart if the checkout does not commit.
+     */
+    private static final class Checkout {
+        final List<Hold> claimed;
+        final Set<Hold> converted = ConcurrentHashMap.newKeySet();
+        private final Map<Hold, Boolean> kept = new ConcurrentHashMap<>();
+
+        Checkout(List<Hold> claimed) {
+            this.claimed = claimed;
+        }
+
+        /**
+         * Tells whether a hold goes back to the cart after the checkout did not commit: only if it has
+         * not expired. Decided once per checkout, so the cart and the seat ledger agree.
+         *
+         * @param hold the hold
+         * @return true if the hold is kept
+         */
+        boolean keptAfterRollback(Hold hold) {
+            return kept.computeIfAbsent(hold, h -> h.getDelay(TimeUnit.MILLISECONDS) > 0);
+        }
+    }
+
+    private final Map<Integer, Map<Integer, Hold>> carts = new ConcurrentHashMap<>();
+    private final DelayQueue<Hold> expiries = new DelayQueue<>();
+    private Thread sweeper;
+
+    /**
+     * Starts the thread that releases expired holds.
+     */
+    @PostConstruct
+    public void start() {
+        sweeper = new Thread(this::sweep, "cart-hold-sweeper");
+        sweeper.setDaemon(true);
+        sweeper.start();
+    }
+
+    /**
+     * Stops the sweeper thread.
+     */
+    @PreDestroy
+    public void stop() {
+        sweeper.interrupt();
+    }
+
+    /**
+     * Adds a section to a student's cart and holds one of its seats.
+     *
+     * @param studentId the student's id
+     * @param sectionId the section's id
+     * @return the student's cart
+     * @throws EnrollmentException if the student cannot enroll in the section or it is full
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> add(Integer studentId, Integer sectionId) {
+        if (studentId == null || sectionId == null) {
+            throw new EnrollmentException("studentId and sectionId are required.");
+        }
+
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new EnrollmentException("Student not found: " + studentId));
+        CourseSection section = courseSectionRepository.findById(sectionId)
+                .orElseThrow(() -> new EnrollmentException("Section not found: " + sectionId));
+        lotteryGate.requireDirectEnrollment(section.getSemesterId());
+        Course course = courseRepository.findById(section.getCourseId())
+                .orElseThrow(() -> new EnrollmentException("Course not found: " + section.getCourseId()));
+
+        Map<Integer, Hold> cart = carts.computeIfAbsent(studentId, k -> new ConcurrentHashMap<>());
+        synchronized (cart) {
+            if (cart.containsKey(sectionId)) throw new EnrollmentException("Section already in the cart.");
+
+            EnrollmentContext ctx = contextWithCart(student, section.getSemesterId(), cart.values());
+            enrollmentService.validateEligible(ctx, course);
+            enrollmentService.validateNoTimeConflict(ctx, sectionId);
+            if (!seatLedger.tryHold(sectionId, section.getCapacity())) throw new EnrollmentException("Section is full.");
+
+            Hold hold = new Hold(studentId, section, Instant.now().plus(holdTtl));
+            cart.put(sectionId, hold);
+            expiries.add(hold);
+        }
+        return cart(studentId);
+    }
+
+    /**
+     * Removes a section from a student's cart and releases its seat.
+     *
+     * @param studentId the student's id
+     * @param sectionId the section's id
+     * @return the student's cart
+     */
+    public Map<String, Object> remove(Integer studentId, Integer sectionId) {
+        Map<Integer, Hold> cart = carts.get(studentId);
+        if (cart != null) {
+            Hold hold = cart.remove(sectionId);
+            if (hold != null && hold.active.compareAndSet(true, false)) seatLedger.releaseHold(sectionId);
+        }
+        return cart(studentId);
+    }
+
+    /**
+     * Returns a student's cart: the held sections and when their holds expire.
+     *
+     * @param studentId the student's id
+     * @return a map with the student's id and their held sections
+     */
+    public Map<String, Object> cart(Integer studentId) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Hold hold : carts.getOrDefault(studentId, Map.of()).values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("sectionId", hold.section.getId());
+            item.put("courseId", hold.section.getCourseId());
+            item.put("semesterId", hold.section.getSemesterId());
+            item.put("expiresAt", hold.expiresAt.toString());
+            item.put("secondsLeft", Math.max(0, hold.getDelay(TimeUnit.SECONDS)));
+            items.add(item);
+        }
+        items.sort(Comparator.comparing(i -> (Integer) i.get("sectionId")));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("studentId", studentId);
+        response.put("sections", items);
+        return response;
+    }
+
+    /**
+     * Turns every hold of a student's cart into an enrollment, all or nothing.
+     *
+     * The holds are re-validated together against the student's enrollments, since those may have changed
+     * since the sections were added. If any of them fails or the transaction rolls back, no enrollment is
+     * written and the holds stay in the cart.
+     *
+     * @param studentId the student's id
+     * @return a map with the enrolled sections
+     * @throws EnrollmentException if the cart is empty, a hold expired or a section can no longer be taken
+     */
+    @Transactional
+    public Map<String, Object> checkout(Integer studentId) {
+        Map<Integer, Hold> cart = carts.get(studentId);
+        if (cart == null || cart.isEmpty()) throw new EnrollmentException("The cart is empty.");
+
+        studentLocks.lockUntilCompletion(studentId);
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new EnrollmentException("Student not found: " + studentId));
+
+        List<Hold> claimed = new ArrayList<>();
+        synchronized (cart) {
+            for (Hold hold : cart.values()) {
+                if (!hold.active.compareAndSet(true, false)) {
+                    for (Hold h : claimed) {
+                        h.active.set(true);
+                        expiries.add(h);
+                    }
+                    throw new EnrollmentException("Hold expired for section " + hold.section.getId() + ".");
+                }
+                claimed.add(hold);
+            }
+        }
+        claimed.sort(Comparator.comparing(h -> h.section.getId()));
+        Checkout checkout = new Checkout(claimed);
+        registerCheckoutCompletion(cart, checkout);
+
+        Map<Integer, Course> courses = courseRepository.findAllById(claimed.stream()
+                        .map(h -> h.section.getCourseId())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Course::getId, c -> c));
+        Map<Integer, EnrollmentContext> contexts = new HashMap<>();
+        List<StudentEnrollment> enrollments = new ArrayList<>();
+
+        for (Hold hold : claimed) {
+            CourseSection section = hold.section;
+            EnrollmentContext ctx = contexts.computeIfAbsent(section.getSemesterId(),
+                    sem -> enrollmentContextLoader.load(student, sem));
+            Course course = courses.get(section.getCourseId());
+            if (course == null) throw new EnrollmentException("Course not found: " + section.getCourseId());
+
+            lotteryGate.requireDirectEnrollment(section.getSemesterId());
+            enrollmentService.validateEligible(ctx, course);
+            enrollmentService.validateNoTimeConflict(ctx, section.getId());
+            seatLedger.convertHold(section.getId(), () -> checkout.keptAfterRollback(hold));
+            checkout.converted.add(hold);
+
+            StudentEnrollment enrollment = new StudentEnrollment();
+            enrollment.setStudentId(studentId);
+            enrollment.setCourseId(section.getCourseId());
+            enrollment.setSemesterId(section.getSemesterId());
+            enrollment.setSectionId(section.getId());
+            ctx.accept(enrollment, busyMaskService.sectionMask(section.getId()));
+            enrollments.add(enrollment);
+        }
+        studentEnrollmentRepository.saveAll(enrollments);
+        studentEnrollmentRepository.flush();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("message", "Checked out successfully.");
+        response.put("sectionIds", enrollments.stream().map(StudentEnrollment::getSectionId).toList());
+        return response;
+    }
+
+    /**
+     * After checkout, drops the claimed holds from the cart if it committed, or hands them back otherwise.
+     * A hold that expired in the meantime is dropped instead of being handed back. Its seat is released
+     * here only if the checkout did not convert it yet; the seat ledger's rollback of a converted hold
+     * releases or restores the seat itself.
+     *
+     * @param cart the student's cart
+     * @param checkout the holds taken by the checkout
+     */
+    private void registerCheckoutCompletion(Map<Integer, Hold> cart, Checkout checkout) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (Hold hold : checkout.claimed) {
+                    if (status == STATUS_COMMITTED) {
+                        cart.remove(hold.section.getId(), hold);
+                    } else if (checkout.keptAfterRollback(hold)) {
+                        hold.active.set(true);
+                        expiries.add(hold);
+                    } else {
+                        cart.remove(hold.section.getId(), hold);
+                        if (!checkout.converted.contains(hold)) seatLedger.releaseHold(hold.section.getId());
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads a student's context for a semester and adds the sections already in their cart for that semester,
+     * so a new section is checked against them too.
+     *
+     * @param student the student
+     * @param semesterId the semester's id
+     * @param holds the student's current holds
+     * @return the context including the cart
+     */
+    private EnrollmentContext contextWithCart(Student student, Integer semesterId, Collection<Hold> holds) {
+        EnrollmentContext ctx = enrollmentContextLoader.load(student, semesterId);
+        for (Hold hold : holds) {
+            if (!Objects.equals(hold.section.getSemesterId(), semesterId)) continue;
+            StudentEnrollment held = new StudentEnrollment();
+            held.setStudentId(student.getId());
+            held.setCourseId(hold.section.getCourseId());
+            held.setSemesterId(semesterId);
+            held.setSectionId(hold.section.getId());
+            ctx.accept(held, busyMaskService.sectionMask(hold.section.getId()));
+        }
+        return ctx;
+    }
+
+    /**
+     * The sweeper loop: waits for the next hold to expire and releases its seat, unless it was already
+     * removed or checked out.
+     */
+    private void sweep() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Hold hold;
+            try {
+                hold = expiries.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!hold.active.compareAndSet(true, false)) continue;
+            Map<Integer, Hold> cart = carts.get(hold.studentId);
+            if (cart != null) cart.remove(hold.section.getId(), hold);
+            seatLedger.releaseHold(hold.section.getId());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.EligibleSectionsResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per (student, semester) cache of the student-dependent part of the eligibility computation.
+ *
+ * Entries hold the sections that pass every rule except seat availability; seats are overlaid
+ * from the live {@link SeatLedger} on every read. A student's entries are dropped whenever
+ * their enrollments or history change, a semester's entries whenever its sections change.
+ *
+ * Generation counters guard against a stale put: an entry computed while an invalidation that
+ * covers it happened (of its student, of its semester or of everything) is returned to the caller
+ * but not stored. Invalidations of other students or semesters do not keep it out of the cache.
+ */
+@Component
+public class EligibilityCache {
+
+    /**
+     * A section that passed the student-dependent eligibility rules, with its detail item
+     * (everything except the live seat count).
+     */
+    public static class CachedSection {
+        public final Integer sectionId;
+        public final Integer capacity;
+        public final EligibleSectionsResponse.Item item;
+
+        public CachedSection(Integer sectionId, Integer capacity, EligibleSectionsResponse.Item item) {
+            this.sectionId = sectionId;
+            this.capacity = capacity;
+            this.item = item;
+        }
+    }
+
+    /**
+     * The generations an entry depends on, read before it is computed.
+     */
+    private record Stamp(long all, long student, long semester) {
+    }
+
+    private final Map<Integer, Map<Integer, List<CachedSection>>> entries = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> studentGenerations = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> semesterGenerations = new ConcurrentHashMap<>();
+    private long generation;
+
+    /**
+     * Returns the cached sections of a student for a semester, computing them on a miss.
+     *
+     * @param studentId the student's id
+     * @param semesterId the semester's id
+     * @param loader computes the sections on a miss
+     * @return the student's cached sections
+     */
+    public List<CachedSection> get(Integer studentId, Integer semesterId, Supplier<List<CachedSection>> loader) {
+        Map<Integer, List<CachedSection>> bySemester = entries.get(studentId);
+        List<CachedSection> cached = bySemester == null ? null : bySemester.get(semesterId);
+        if (cached != null) return cached;
+
+        Stamp before = stamp(studentId, semesterId);
+        List<CachedSection> computed = List.copyOf(loader.get());
+        synchronized (this) {
+            if (before.equals(stamp(studentId, semesterId))) {
+                entries.computeIfAbsent(studentId, k -> new ConcurrentHashMap<>()).put(semesterId, computed);
+            }
+        }
+        return computed;
+    }
+
+    /**
+     * Drops every entry of a student.
+     *
+     * @param studentId the student's id
+     */
+    public synchronized void evictStudent(Integer studentId) {
+        if (studentId == null) return;
+        studentGenerations.merge(studentId, 1L, Long::sum);
+        entries.remove(studentId);
+    }
+
+    /**
+     * Drops the entries of every student for a semester.
+     *
+     * @param semesterId the semester's id
+     */
+    public synchronized void evictSemester(Integer semesterId) {
+        if (semesterId == null) return;
+        semesterGenerations.merge(semesterId, 1L, Long::sum);
+        entries.values().forEach(m -> m.remove(semesterId));
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public synchronized void evictAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Reads the generations an entry of a student for a semester depends on.
+     *
+     * @param studentId the student's id
+     * @param semesterId the semester's id
+     * @return the current generations
+     */
+    private synchronized Stamp stamp(Integer studentId, Integer semesterId) {
+        return new Stamp(generation,
+                studentGenerations.getOrDefault(studentId, 0L),
+                semesterGenerations.getOrDefault(semesterId, 0L));
+    }
+}
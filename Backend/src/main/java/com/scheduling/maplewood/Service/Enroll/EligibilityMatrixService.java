@@ -0,0 +1,211 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Service
+@RequiredArgsConstructor
+public class EligibilityMatrixService {
+
+    private final StudentRepository studentRepository;
+    private final CourseSectionRepository courseSectionRepository;
+    private final StudentEnrollmentRepository studentEnrollmentRepository;
+    private final StudentCourseHistoryRepository studentCourseHistoryRepository;
+    private final PrerequisiteGraphService prerequisiteGraphService;
+    private final BusyMaskService busyMaskService;
+    private final SeatLedger seatLedger;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The student -> eligible sections matrix for one semester.
+     * Row i holds the eligible sections of studentIds[i], as bit positions into sectionIds.
+     */
+    public static class EligibilityMatrix {
+        public final Integer semesterId;
+        public final int[] studentIds;
+        public final int[] sectionIds;
+        public final BitSet[] rows;
+
+        public EligibilityMatrix(Integer semesterId, int[] studentIds, int[] sectionIds, BitSet[] rows) {
+            this.semesterId = semesterId;
+            this.studentIds = studentIds;
+            this.sectionIds = sectionIds;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Computes the eligibility of every student for every section of the given semester.
+     *
+     * Students, sections, enrollments and course history are each loaded with a single query, prerequisites
+     * are answered by the cached {@link PrerequisiteGraphService} and meetings by the cached {@link BusyMaskService}.
+     * The per-section facts (full, conflicting pairs, sections of a course) are turned into bitsets once,
+     * so evaluating a student is a handful of bitset operations. Students are evaluated in parallel.
+     *
+     * The rules are the same as {@link EligibilityService#getEligibleSections(Integer, Integer)}:
+     * not already enrolled, not passed earlier, seats left, prerequisites satisfied and no time conflict
+     * with the student's sections of this semester.
+     *
+     * @param semesterId the semester's id
+     * @return the eligibility matrix
+     */
+    public EligibilityMatrix computeMatrix(Integer semesterId) {
+
+        List<CourseSection> sections = courseSectionRepository.findBySemesterId(semesterId).stream()
+                .sorted(Comparator.comparing(CourseSection::getId))
+                .collect(Collectors.toList());
+
+        int[] sectionIds = sections.stream().mapToInt(CourseSection::getId).toArray();
+        Map<Integer, Integer> sectionIndex = new HashMap<>();
+        for (int i = 0; i < sectionIds.length; i++) sectionIndex.put(sectionIds[i], i);
+
+        PrerequisiteGraphService.PrerequisiteGraph graph = prerequisiteGraphService.getGraph();
+
+        Map<Integer, WeeklyBusyMask> masks = busyMaskService.sectionMasks(sectionIndex.keySet());
+
+        List<StudentEnrollment> enrollments = studentEnrollmentRepository.findBySemesterId(semesterId);
+
+        Map<Integer, List<StudentCourseHistory>> passedByStudent = studentCourseHistoryRepository.findByStatus("passed")
+                .stream()
+                .collect(Collectors.groupingBy(StudentCourseHistory::getStudentId));
+
+        int[] studentIds = studentRepository.findAll().stream()
+                .mapToInt(Student::getId)
+                .sorted()
+                .toArray();
+
+        // Sections that have no seat left, counting seats held in carts or kept for waitlists
+        int[] enrolledCount = new int[sectionIds.length];
+        Map<Integer, BitSet> enrolledByStudent = new HashMap<>();
+        for (StudentEnrollment e : enrollments) {
+            Integer idx = sectionIndex.get(e.getSectionId());
+            if (idx == null) continue;
+            enrolledCount[idx]++;
+            enrolledByStudent.computeIfAbsent(e.getStudentId(), k -> new BitSet(sectionIds.length)).set(idx);
+        }
+        Map<Integer, Integer> heldOrQueued = seatLedger.heldOrQueued(Arrays.stream(sectionIds).boxed().toList());
+        BitSet full = new BitSet(sectionIds.length);
+        for (int i = 0; i < sections.size(); i++) {
+            Integer cap = sections.get(i).getCapacity();
+            if (cap != null && enrolledCount[i] + heldOrQueued.get(sectionIds[i]) >= cap) full.set(i);
+        }
+
+        // Sections grouped by course
+        Map<Integer, BitSet> sectionsByCourse = new HashMap<>();
+        for (int i = 0; i < sections.size(); i++) {
+            sectionsByCourse.computeIfAbsent(sections.get(i).getCourseId(), k -> new BitSet(sectionIds.length)).set(i);
+        }
+
+        // Pairwise time conflicts between the sections of this semester
+        BitSet[] conflicts = new BitSet[sectionIds.length];
+        for (int i = 0; i < sectionIds.length; i++) conflicts[i] = new BitSet(sectionIds.length);
+        for (int i = 0; i < sectionIds.length; i++) {
+            WeeklyBusyMask a = masks.get(sectionIds[i]);
+            for (int j = i + 1; j < sectionIds.length; j++) {
+                if (a.intersects(masks.get(sectionIds[j]))) {
+                    conflicts[i].set(j);
+                    conflicts[j].set(i);
+                }
+            }
+        }
+
+        BitSet[] rows = new BitSet[studentIds.length];
+        IntStream.range(0, studentIds.length).parallel().forEach(i -> {
+            int studentId = studentIds[i];
+            List<StudentCourseHistory> passed = passedByStudent.getOrDefault(studentId, List.of());
+            BitSet enrolled = enrolledByStudent.getOrDefault(studentId, new BitSet());
+
+            BitSet eligible = new BitSet(sectionIds.length);
+            eligible.set(0, sectionIds.length);
+            eligible.andNot(full);
+            eligible.andNot(enrolled);
+            for (int s = enrolled.nextSetBit(0); s >= 0; s = enrolled.nextSetBit(s + 1)) {
+                eligible.andNot(conflicts[s]);
+            }
+
+            BitSet passedCourses = new BitSet(graph.size());
+            for (StudentCourseHistory h : passed) {
+                int c = graph.indexOf(h.getCourseId());
+                if (c >= 0) passedCourses.set(c);
+                if (h.getSemesterId() != null && h.getSemesterId() <= semesterId) {
+                    BitSet ofCourse = sectionsByCourse.get(h.getCourseId());
+                    if (ofCourse != null) eligible.andNot(ofCourse);
+                }
+            }
+
+            for (Map.Entry<Integer, BitSet> entry : sectionsByCourse.entrySet()) {
+                if (!eligible.intersects(entry.getValue())) continue;
+                if (!graph.prerequisitesSatisfied(entry.getKey(), passedCourses)) {
+                    eligible.andNot(entry.getValue());
+                }
+            }
+
+            rows[i] = eligible;
+        });
+
+        return new EligibilityMatrix(semesterId, studentIds, sectionIds, rows);
+    }
+
+    /**
+     * Writes the matrix as JSON, one entry per student with the ids of its eligible sections.
+     *
+     * @param matrix the matrix to write
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeJson(EligibilityMatrix matrix, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            gen.writeNumberField("semesterId", matrix.semesterId);
+            gen.writeNumberField("sectionCount", matrix.sectionIds.length);
+            gen.writeNumberField("studentCount", matrix.studentIds.length);
+            gen.writeArrayFieldStart("students");
+            for (int i = 0; i < matrix.studentIds.length; i++) {
+                BitSet row = matrix.rows[i];
+                gen.writeStartObject();
+                gen.writeNumberField("studentId", matrix.studentIds[i]);
+                gen.writeArrayFieldStart("eligibleSectionIds");
+                for (int s = row.nextSetBit(0); s >= 0; s = row.nextSetBit(s + 1)) {
+                    gen.writeNumber(matrix.sectionIds[s]);
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the matrix as CSV, one "student_id,section_id" line per eligible pair.
+     *
+     * @param matrix the matrix to write
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeCsv(EligibilityMatrix matrix, OutputStream out) throws IOException {
+        Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        w.write("student_id,section_id\n");
+        for (int i = 0; i < matrix.studentIds.length; i++) {
+            BitSet row = matrix.rows[i];
+            for (int s = row.nextSetBit(0); s >= 0; s = row.nextSetBit(s + 1)) {
+                w.write(matrix.studentIds[i] + "," + matrix.sectionIds[s] + "\n");
+            }
+        }
+        w.flush();
+    }
+}
@@ -1,11 +1,13 @@
 package com.scheduling.maplewood.Service.Enroll;
+import com.scheduling.maplewood.Dto.EligibleSectionsResponse;
+import com.scheduling.maplewood.Dto.StudentSummary;
 import com.scheduling.maplewood.Entity.*;
 import com.scheduling.maplewood.Repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,168 +22,183 @@ public class EligibilityService {
     private final TeacherRepository teacherRepository;
     private final ClassroomRepository classroomRepository;
     private final StudentRepository studentRepository;
+    private final PrerequisiteGraphService prerequisiteGraphService;
+    private final BusyMaskService busyMaskService;
+    private final EligibilityCache eligibilityCache;
+    private final SeatLedger seatLedger;
 
     /**
      * Gets all eligible sections for a given student and semester.
+     *
+     * The student-dependent part is served from the {@link EligibilityCache}; seat availability
+     * is overlaid from the live {@link SeatLedger} counters on every call; seats held in carts count as taken.
+     *
      * @param studentId the student's id
      * @param semesterId the semester's id
-     * @return a map containing the student's information and a list of eligible sections
+     * @return the student's information and a list of eligible sections
      */
-    public Map<String, Object> getEligibleSections(Integer studentId, Integer semesterId) {
-
+    public EligibleSectionsResponse getEligibleSections(Integer studentId, Integer semesterId) {
 
         Student student = studentRepository.findById(studentId).orElse(null);
+
+        List<EligibilityCache.CachedSection> candidates =
+                eligibilityCache.get(studentId, semesterId, () -> computeCandidates(studentId, semesterId));
+
+        Map<Integer, Integer> occupied = seatLedger.occupied(candidates.stream()
+                .map(c -> c.sectionId)
+                .collect(Collectors.toList()));
+
+        List<EligibleSectionsResponse.Item> eligibleFormatted = new ArrayList<>();
+
+        for (EligibilityCache.CachedSection c : candidates) {
+            int enrolled = occupied.get(c.sectionId);
+            if (c.capacity != null && enrolled >= c.capacity) continue;
+
+            int available = c.capacity == null ? 0 : c.capacity - enrolled;
+            eligibleFormatted.add(c.item.withStudents(
+                    enrolled + " (" + (available <= 0 ? "capacity full" : available + " spots available") + ")"));
+        }
+
+        StudentSummary studentInfo = new StudentSummary(studentId,
+                student != null ? student.getFirstName() + " " + student.getLastName() : "Unknown",
+                student != null ? student.getEmail() : "Unknown",
+                student != null ? student.getGradeLevel() : "Unknown");
+
+        return new EligibleSectionsResponse(
+                eligibleFormatted.isEmpty()
+                        ? "No eligible sections available for this student."
+                        : "Eligible sections found.",
+                studentInfo,
+                eligibleFormatted);
+    }
+
+    /**
+     * Computes the sections of a semester that pass every student-dependent eligibility rule:
+     * not already enrolled, not passed earlier, prerequisites satisfied and no time conflict.
+     * Seat availability is left out so the result can be cached.
+     *
+     * @param studentId the student's id
+     * @param semesterId the semester's id
+     * @return the candidate sections with their detail items
+     */
+    private List<EligibilityCache.CachedSection> computeCandidates(Integer studentId, Integer semesterId) {
+
         List<CourseSection> allSections = courseSectionRepository.findBySemesterId(semesterId);
 
         List<StudentEnrollment> studentEnrollments = studentEnrollmentRepository.findByStudentId(studentId);
         Set<Integer> enrolledSectionIds = studentEnrollments.stream()
+                .filter(e -> Objects.equals(e.getSemesterId(), semesterId))
                 .map(StudentEnrollment::getSectionId)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
 
-        List<SectionMeeting> currentMeetings = enrolledSectionIds.stream()
-                .flatMap(id -> sectionMeetingRepository.findBySectionId(id).stream())
-                .collect(Collectors.toList());
+        WeeklyBusyMask busy = busyMaskService.combinedMask(enrolledSectionIds);
+        Map<Integer, WeeklyBusyMask> sectionMasks = busyMaskService.sectionMasks(
+                allSections.stream().map(CourseSection::getId).collect(Collectors.toList()));
 
         List<StudentCourseHistory> history = studentCourseHistoryRepository.findByStudentId(studentId);
 
-        List<Map<String, Object>> eligibleFormatted = new ArrayList<>();
+        PrerequisiteGraphService.PrerequisiteGraph graph = prerequisiteGraphService.getGraph();
+        BitSet passedCourses = graph.toBitSet(history.stream()
+                .filter(h -> "passed".equalsIgnoreCase(h.getStatus()))
+                .map(StudentCourseHistory::getCourseId)
+                .collect(Collectors.toList()));
 
-        for (CourseSection cs : allSections) {
+        Set<Integer> passedBefore = history.stream()
+                .filter(h -> "passed".equalsIgnoreCase(h.getStatus()))
+                .filter(h -> h.getSemesterId() != null && h.getSemesterId() <= semesterId)
+                .map(StudentCourseHistory::getCourseId)
+                .collect(Collectors.toSet());
 
-            if (enrolledSectionIds.contains(cs.getId())) continue;
+        List<CourseSection> eligible = new ArrayList<>();
 
-            boolean passedBefore = history.stream()
-                    .filter(h -> "passed".equalsIgnoreCase(h.getStatus()))
-                    .anyMatch(h ->
-                            Objects.equals(h.getCourseId(), cs.getCourseId()) &&
-                                    h.getSemesterId() != null &&
-                                    h.getSemesterId() <= semesterId
-                    );
-            if (passedBefore) continue;
+        for (CourseSection cs : allSections) {
 
+            if (enrolledSectionIds.contains(cs.getId())) continue;
 
-            int enrolledCount = studentEnrollmentRepository.findBySectionId(cs.getId()).size();
-            if (cs.getCapacity() != null && enrolledCount >= cs.getCapacity()) continue;
+            if (passedBefore.contains(cs.getCourseId())) continue;
 
-            if (!prerequisitesSatisfied(studentId, cs.getCourseId())) continue;
+            if (!graph.prerequisitesSatisfied(cs.getCourseId(), passedCourses)) continue;
 
-            List<SectionMeeting> sectionMeetings = sectionMeetingRepository.findBySectionId(cs.getId());
-            if (hasTimeConflict(sectionMeetings, currentMeetings)) continue;
+            if (sectionMasks.get(cs.getId()).intersects(busy)) continue;
 
-            eligibleFormatted.add(mapSectionToDetailedItem(cs));
+            eligible.add(cs);
         }
 
-        Map<String, Object> out = new LinkedHashMap<>();
-        out.put("message", eligibleFormatted.isEmpty()
-                ? "No eligible sections available for this student."
-                : "Eligible sections found.");
-
-        Map<String, Object> studentInfo = new LinkedHashMap<>();
-        studentInfo.put("id", studentId);
-        studentInfo.put("name", student != null ? student.getFirstName() + " " + student.getLastName() : "Unknown");
-        studentInfo.put("email", student != null ? student.getEmail() : "Unknown");
-        studentInfo.put("gradeLevel", student != null ? student.getGradeLevel() : "Unknown");
-
-        out.put("student", studentInfo);
-        out.put("sections", eligibleFormatted);
+        Map<Integer, Course> courses = byId(
+                courseRepository.findAllById(ids(eligible, CourseSection::getCourseId)), Course::getId);
+        Map<Integer, Teacher> teachers = byId(
+                teacherRepository.findAllById(ids(eligible, CourseSection::getTeacherId)), Teacher::getId);
+        Map<Integer, Classroom> rooms = byId(
+                classroomRepository.findAllById(ids(eligible, CourseSection::getRoomId)), Classroom::getId);
+        Map<Integer, List<SectionMeeting>> meetings = eligible.isEmpty() ? Map.of()
+                : sectionMeetingRepository.findBySectionIdIn(ids(eligible, CourseSection::getId)).stream()
+                        .collect(Collectors.groupingBy(SectionMeeting::getSectionId));
+
+        List<EligibilityCache.CachedSection> out = new ArrayList<>();
+        for (CourseSection cs : eligible) {
+            out.add(new EligibilityCache.CachedSection(cs.getId(), cs.getCapacity(), mapSectionToDetailedItem(cs,
+                    courses.get(cs.getCourseId()),
+                    cs.getTeacherId() == null ? null : teachers.get(cs.getTeacherId()),
+                    cs.getRoomId() == null ? null : rooms.get(cs.getRoomId()),
+                    meetings.getOrDefault(cs.getId(), List.of()))));
+        }
 
         return out;
     }
 
     /**
-     * Recursively checks if the student has satisfied the prerequisites for a given course.
+     * Collects the distinct non-null ids a list of sections refers to.
      *
-     * @param studentId the student ID to check
-     * @param courseId the course ID to check
-     * @return true if the student has satisfied the prerequisites, false otherwise
+     * @param sections the sections
+     * @param id extracts the id from a section
+     * @return the distinct ids
      */
-    private boolean prerequisitesSatisfied(Integer studentId, Integer courseId) {
-
-        Course course = courseRepository.findById(courseId).orElse(null);
-        if (course == null) return false;
-
-        Integer prereqId = course.getPrerequisiteId();
-        if (prereqId == null) return true;
-
-        boolean passed = studentCourseHistoryRepository.findByStudentIdAndStatus(studentId, "passed")
-                .stream().anyMatch(h -> Objects.equals(h.getCourseId(), prereqId));
-
-        if (passed) return true;
-
-        return prerequisitesSatisfied(studentId, prereqId);
+    private static Set<Integer> ids(List<CourseSection> sections, Function<CourseSection, Integer> id) {
+        return sections.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
     }
 
-
     /**
-     * Checks if there is a time conflict between two lists of section meetings.
-     *
-     * A time conflict is when two section meetings occur on the same day and
-     * overlap in time.
+     * Indexes entities by their id.
      *
-     * @param target the list of section meetings to check for conflicts
-     * @param current the list of section meetings that may have conflicts with the target
-     * @return true if there is a time conflict, false otherwise
-    */
-    private boolean hasTimeConflict(List<SectionMeeting> target, List<SectionMeeting> current) {
-
-        if (target == null || target.isEmpty() || current == null || current.isEmpty()) return false;
-
-        for (SectionMeeting t : target) {
-            for (SectionMeeting s : current) {
-                if (t.getDayOfWeek() == null || s.getDayOfWeek() == null) continue;
-                if (!t.getDayOfWeek().equalsIgnoreCase(s.getDayOfWeek())) continue;
-
-                LocalTime tStart = LocalTime.parse(t.getStartTime());
-                LocalTime tEnd = LocalTime.parse(t.getEndTime());
-                LocalTime sStart = LocalTime.parse(s.getStartTime());
-                LocalTime sEnd = LocalTime.parse(s.getEndTime());
-
-                if (tStart.isBefore(sEnd) && tEnd.isAfter(sStart)) return true;
-            }
-        }
-        return false;
+     * @param entities the entities
+     * @param id extracts the id from an entity
+     * @return a map of id to entity
+     */
+    private static <T> Map<Integer, T> byId(List<T> entities, Function<T, Integer> id) {
+        return entities.stream().collect(Collectors.toMap(id, e -> e));
     }
 
-
     /**
-     * Maps a CourseSection to a detailed item containing its section ID, course ID, course name, teacher name, email, room name, schedule, and student count.
+     * Maps a CourseSection to a detailed item containing its section ID, course ID, course name, teacher name, email, room name, and schedule.
+     * The student count is added on read from the live seat counters.
      *
      * @param cs the CourseSection to map
-     * @return a map containing the detailed item
+     * @param course the section's course, or null if not found
+     * @param teacher the section's teacher, or null if none is assigned
+     * @param room the section's room, or null if none is assigned
+     * @param meetings the section's weekly meetings
+     * @return the detailed item, without the student count
      */
-    private Map<String, Object> mapSectionToDetailedItem(CourseSection cs) {
-        Course course = courseRepository.findById(cs.getCourseId()).orElse(null);
-        Teacher teacher = teacherRepository.findById(cs.getTeacherId()).orElse(null);
-        Classroom room = classroomRepository.findById(cs.getRoomId()).orElse(null);
-        List<SectionMeeting> meetings = sectionMeetingRepository.findBySectionId(cs.getId());
-
+    private EligibleSectionsResponse.Item mapSectionToDetailedItem(CourseSection cs, Course course, Teacher teacher,
+                                                                   Classroom room, List<SectionMeeting> meetings) {
         Map<String, Integer> dayOrder = Map.of(
                 "MONDAY", 1, "TUESDAY", 2, "WEDNESDAY", 3, "THURSDAY", 4, "FRIDAY", 5
         );
-        if (meetings != null) {
-            meetings.sort(Comparator.comparingInt(m -> dayOrder.getOrDefault(m.getDayOfWeek().toUpperCase(), 99)));
-        } else {
-            meetings = Collections.emptyList();
-        }
-
         List<String> schedule = meetings.stream()
+                .sorted(Comparator.comparingInt(m -> dayOrder.getOrDefault(m.getDayOfWeek().toUpperCase(), 99)))
                 .map(m -> m.getDayOfWeek() + " " + formatTime(m.getStartTime()) + "-" + formatTime(m.getEndTime()))
                 .collect(Collectors.toList());
 
-        int enrolled = studentEnrollmentRepository.findBySectionId(cs.getId()).size();
-        int available = cs.getCapacity() == null ? 0 : cs.getCapacity() - enrolled;
-
-        Map<String, Object> out = new LinkedHashMap<>();
-        out.put("sectionId", cs.getId());
-        out.put("courseId", course.getId());
-        out.put("course", (course != null ? course.getCode() : "UNKNOWN") + " - " + (course != null ? course.getName() : "Unknown"));
-        out.put("teacher", teacher != null ? teacher.getFirstName() + " " + teacher.getLastName() : "TBD");
-        out.put("email", teacher != null ? teacher.getEmail() : "TBD");
-        out.put("room", room != null ? room.getName() : "TBD");
-        out.put("schedule", schedule);
-        out.put("students", enrolled + " (" + (available <= 0 ? "capacity full" : available + " spots available") + ")");
-        return out;
+        return new EligibleSectionsResponse.Item(
+                cs.getId(),
+                cs.getCourseId(),
+                (course != null ? course.getCode() : "UNKNOWN") + " - " + (course != null ? course.getName() : "Unknown"),
+                teacher != null ? teacher.getFirstName() + " " + teacher.getLastName() : "TBD",
+                teacher != null ? teacher.getEmail() : "TBD",
+                room != null ? room.getName() : "TBD",
+                schedule,
+                null);
     }
 
     /**
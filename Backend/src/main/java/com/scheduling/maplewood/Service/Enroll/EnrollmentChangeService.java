@@ -0,0 +1,127 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.SwapRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Drops and swaps of existing enrollments.
+ *
+ * Both run in one transaction under the student's lock. A dropped seat is given back to the
+ * {@link SeatLedger} once the transaction commits, and the ledger promotes the section's waitlist
+ * into it (see SeatReleaseListener). A swap takes the new seat before the old enrollment is deleted,
+ * so the student is never left without either seat: if the new one cannot be taken nothing changes.
+ */
+@Service
+@RequiredArgsConstructor
+public class EnrollmentChangeService {
+
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseSectionRepository courseSectionRepository;
+    private final StudentEnrollmentRepository studentEnrollmentRepository;
+    private final EnrollmentContextLoader enrollmentContextLoader;
+    private final EnrollmentService enrollmentService;
+    private final BusyMaskService busyMaskService;
+    private final SeatLedger seatLedger;
+    private final StudentLocks studentLocks;
+    private final LotteryGate lotteryGate;
+
+    /**
+     * Drops a student's enrollment in a section.
+     *
+     * @param studentId the student's id
+     * @param sectionId the section's id
+     * @return a map with a message and the dropped section
+     * @throws EnrollmentException if the student is not enrolled in the section
+     */
+    @Transactional
+    public Map<String, Object> drop(Integer studentId, Integer sectionId) {
+        if (studentId == null || sectionId == null) {
+            throw new EnrollmentException("studentId and sectionId are required.");
+        }
+        studentLocks.lockUntilCompletion(studentId);
+
+        StudentEnrollment enrollment = studentEnrollmentRepository.findByStudentIdAndSectionId(studentId, sectionId)
+                .orElseThrow(() -> new EnrollmentException("Student is not enrolled in section: " + sectionId));
+        studentEnrollmentRepository.delete(enrollment);
+        studentEnrollmentRepository.flush();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("message", "Dropped successfully.");
+        response.put("droppedSectionId", sectionId);
+        return response;
+    }
+
+    /**
+     * Replaces a student's enrollment in one section with an enrollment in another section of the same semester.
+     *
+     * The new section is validated with the enroll rules as if the old enrollment were already gone, so a
+     * student can move to another section of the same course. Its seat is taken first; only then is the old
+     * enrollment deleted and the new one written, all in this transaction.
+     *
+     * @param req the student, the section to leave and the section to join
+     * @return a map with a message and both sections
+     * @throws EnrollmentException if the student is not in the old section or cannot take the new one
+     */
+    @Transactional
+    public Map<String, Object> swap(SwapRequest req) {
+        Integer studentId = req.getStudentId();
+        Integer fromId = req.getFromSectionId();
+        Integer toId = req.getToSectionId();
+
+        if (studentId == null || fromId == null || toId == null) {
+            throw new EnrollmentException("studentId, fromSectionId and toSectionId are required.");
+        }
+        if (fromId.equals(toId)) throw new EnrollmentException("fromSectionId and toSectionId must differ.");
+
+        studentLocks.lockUntilCompletion(studentId);
+
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new EnrollmentException("Student not found: " + studentId));
+        StudentEnrollment current = studentEnrollmentRepository.findByStudentIdAndSectionId(studentId, fromId)
+                .orElseThrow(() -> new EnrollmentException("Student is not enrolled in section: " + fromId));
+        CourseSection target = courseSectionRepository.findById(toId)
+                .orElseThrow(() -> new EnrollmentException("Section not found: " + toId));
+        if (!Objects.equals(target.getSemesterId(), current.getSemesterId())) {
+            throw new EnrollmentException("Both sections must be in the same semester.");
+        }
+        lotteryGate.requireDirectEnrollment(target.getSemesterId());
+        Course course = courseRepository.findById(target.getCourseId())
+                .orElseThrow(() -> new EnrollmentException("Course not found: " + target.getCourseId()));
+
+        EnrollmentContext ctx = enrollmentContextLoader.load(student, current.getSemesterId());
+        ctx.remove(current, busyMaskService.combinedMask(ctx.getSemesterEnrollments().stream()
+                .filter(e -> !Objects.equals(e.getId(), current.getId()))
+                .map(StudentEnrollment::getSectionId)
+                .collect(Collectors.toList())));
+
+        enrollmentService.validateEligible(ctx, course);
+        enrollmentService.validateNoTimeConflict(ctx, toId);
+        if (!seatLedger.tryReserve(toId, target.getCapacity())) throw new EnrollmentException("Section is full.");
+
+        // delete first and flush, the new row may reuse the same (student, course, semester) key
+        studentEnrollmentRepository.delete(current);
+        studentEnrollmentRepository.flush();
+
+        StudentEnrollment replacement = new StudentEnrollment();
+        replacement.setStudentId(studentId);
+        replacement.setCourseId(target.getCourseId());
+        replacement.setSemesterId(target.getSemesterId());
+        replacement.setSectionId(toId);
+        studentEnrollmentRepository.saveAndFlush(replacement);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("message", "Swapped successfully.");
+        response.put("droppedSectionId", fromId);
+        response.put("enrolledSectionId", toId);
+        return response;
+    }
+}
@@ -0,0 +1,122 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Entity.Student;
+import com.scheduling.maplewood.Entity.StudentCourseHistory;
+import com.scheduling.maplewood.Entity.StudentEnrollment;
+
+import java.util.*;
+
+/**
+ * Everything the enrollment rules need to know about one student in one semester, loaded once.
+ *
+ * Holds the student's history, their enrollments of the semester, the weekly busy mask of those
+ * enrollments and the passed courses, both as ids and as a prerequisite-graph bitset. Accepting an
+ * enrollment updates the context in place, so a batch can validate several enrollments of the same
+ * student against one context without reading the database again.
+ */
+public final class EnrollmentContext {
+
+    private final Student student;
+    private final Integer semesterId;
+    private final List<StudentCourseHistory> history;
+    private final List<StudentEnrollment> semesterEnrollments;
+    private final Set<Integer> enrolledCourseIds = new HashSet<>();
+    private final Set<Integer> passedBefore = new HashSet<>();
+    private final BitSet passedCourses;
+    private WeeklyBusyMask busy;
+
+    EnrollmentContext(Student student, Integer semesterId, List<StudentCourseHistory> history,
+                      List<StudentEnrollment> semesterEnrollments, WeeklyBusyMask busy, BitSet passedCourses) {
+        this.student = student;
+        this.semesterId = semesterId;
+        this.history = List.copyOf(history);
+        this.semesterEnrollments = new ArrayList<>(semesterEnrollments);
+        this.busy = busy;
+        this.passedCourses = passedCourses;
+
+        for (StudentEnrollment e : semesterEnrollments) enrolledCourseIds.add(e.getCourseId());
+        for (StudentCourseHistory h : history) {
+            if ("passed".equalsIgnoreCase(h.getStatus())
+                    && h.getSemesterId() != null && h.getSemesterId() <= semesterId) {
+                passedBefore.add(h.getCourseId());
+            }
+        }
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public Integer getSemesterId() {
+        return semesterId;
+    }
+
+    public List<StudentCourseHistory> getHistory() {
+        return history;
+    }
+
+    public List<StudentEnrollment> getSemesterEnrollments() {
+        return Collections.unmodifiableList(semesterEnrollments);
+    }
+
+    public WeeklyBusyMask getBusyMask() {
+        return busy;
+    }
+
+    public BitSet getPassedCourses() {
+        return passedCourses;
+    }
+
+    /**
+     * Returns true if the student passed the course in this semester or an earlier one.
+     *
+     * @param courseId the course's id
+     * @return true if the course was already passed
+     */
+    public boolean passedBefore(Integer courseId) {
+        return passedBefore.contains(courseId);
+    }
+
+    /**
+     * Returns true if the student is enrolled in the course this semester.
+     *
+     * @param courseId the course's id
+     * @return true if already enrolled
+     */
+    public boolean isEnrolledIn(Integer courseId) {
+        return enrolledCourseIds.contains(courseId);
+    }
+
+    /**
+     * Returns the number of courses the student is enrolled in this semester.
+     *
+     * @return the number of enrollments
+     */
+    public int enrolledCount() {
+        return semesterEnrollments.size();
+    }
+
+    /**
+     * Records an accepted enrollment, so the next validation sees it.
+     *
+     * @param enrollment the accepted enrollment
+     * @param sectionMask the weekly mask of the enrollment's section
+     */
+    public void accept(StudentEnrollment enrollment, WeeklyBusyMask sectionMask) {
+        semesterEnrollments.add(enrollment);
+        enrolledCourseIds.add(enrollment.getCourseId());
+        busy = busy.or(sectionMask);
+    }
+
+    /**
+     * Removes an enrollment being dropped, so the next validation no longer sees it.
+     *
+     * @param enrollment the dropped enrollment
+     * @param remainingBusy the busy mask of the student's other enrollments of the semester
+     */
+    public void remove(StudentEnrollment enrollment, WeeklyBusyMask remainingBusy) {
+        semesterEnrollments.removeIf(e -> Objects.equals(e.getId(), enrollment.getId()));
+        enrolledCourseIds.remove(enrollment.getCourseId());
+        busy = remainingBusy;
+    }
+}
@@ -0,0 +1,80 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Entity.Student;
+import com.scheduling.maplewood.Entity.StudentCourseHistory;
+import com.scheduling.maplewood.Entity.StudentEnrollment;
+import com.scheduling.maplewood.Repository.StudentCourseHistoryRepository;
+import com.scheduling.maplewood.Repository.StudentEnrollmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class EnrollmentContextLoader {
+
+    private final StudentEnrollmentRepository studentEnrollmentRepository;
+    private final StudentCourseHistoryRepository studentCourseHistoryRepository;
+    private final PrerequisiteGraphService prerequisiteGraphService;
+    private final BusyMaskService busyMaskService;
+
+    /**
+     * Builds the enrollment context of one student for a semester.
+     * Costs one history query, one enrollments query and at most one meetings query for uncached masks,
+     * however long the history is.
+     *
+     * @param student the student
+     * @param semesterId the semester's id
+     * @return the student's context
+     */
+    public EnrollmentContext load(Student student, Integer semesterId) {
+        return loadAll(List.of(student), semesterId).get(student.getId());
+    }
+
+    /**
+     * Builds the enrollment contexts of many students for a semester with the same three queries as a single one.
+     *
+     * @param students the students
+     * @param semesterId the semester's id
+     * @return a map of student id to context
+     */
+    public Map<Integer, EnrollmentContext> loadAll(Collection<Student> students, Integer semesterId) {
+        if (students.isEmpty()) return Map.of();
+        Set<Integer> studentIds = students.stream().map(Student::getId).collect(Collectors.toSet());
+
+        Map<Integer, List<StudentCourseHistory>> history = studentCourseHistoryRepository.findByStudentIdIn(studentIds)
+                .stream()
+                .collect(Collectors.groupingBy(StudentCourseHistory::getStudentId));
+        Map<Integer, List<StudentEnrollment>> enrollments = studentEnrollmentRepository
+                .findByStudentIdInAndSemesterId(studentIds, semesterId)
+                .stream()
+                .collect(Collectors.groupingBy(StudentEnrollment::getStudentId));
+
+        Map<Integer, WeeklyBusyMask> masks = busyMaskService.sectionMasks(enrollments.values().stream()
+                .flatMap(List::stream)
+                .map(StudentEnrollment::getSectionId)
+                .collect(Collectors.toSet()));
+        PrerequisiteGraphService.PrerequisiteGraph graph = prerequisiteGraphService.getGraph();
+
+        Map<Integer, EnrollmentContext> contexts = new HashMap<>();
+        for (Student student : students) {
+            List<StudentCourseHistory> h = history.getOrDefault(student.getId(), List.of());
+            List<StudentEnrollment> current = enrollments.getOrDefault(student.getId(), List.of());
+
+            WeeklyBusyMask busy = WeeklyBusyMask.EMPTY;
+            for (StudentEnrollment e : current) {
+                WeeklyBusyMask mask = masks.get(e.getSectionId());
+                if (mask != null) busy = busy.or(mask);
+            }
+            BitSet passed = graph.toBitSet(h.stream()
+                    .filter(r -> "passed".equalsIgnoreCase(r.getStatus()))
+                    .map(StudentCourseHistory::getCourseId)
+                    .collect(Collectors.toList()));
+
+            contexts.put(student.getId(), new EnrollmentContext(student, semesterId, h, current, busy, passed));
+        }
+        return contexts;
+    }
+}
@@ -0,0 +1,252 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.BulkEnrollmentRequest;
+import com.scheduling.maplewood.Dto.BulkEnrollmentResponse;
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Dto.EnrollmentResponse;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Exception.TransientEnrollmentException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Serializes enrollment writes through a few worker threads that commit them in groups.
+ *
+ * SQLite has a single writer, so one transaction per enroll request makes every request wait for the
+ * database lock and pay its own commit. Here requests are queued instead, striped by student id so the
+ * requests of one student always land on the same worker and are applied in arrival order. Each worker
+ * takes whatever has queued up (up to the batch size), validates the group in memory through
+ * {@link BulkEnrollmentService} and commits it in one transaction. Callers wait on a future for the
+ * result of their own request.
+ *
+ * If the group transaction fails as a whole (not because of a broken rule, which only fails its own
+ * request), the group is replayed one request at a time so a single bad row cannot fail its neighbours.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EnrollmentPipeline {
+
+    private final BulkEnrollmentService bulkEnrollmentService;
+    private final EnrollmentService enrollmentService;
+    private final PlatformTransactionManager transactionManager;
+    private final LotteryGate lotteryGate;
+
+    @Value("${maplewood.enrollment.pipeline.enabled:false}")
+    private boolean enabled;
+
+    @Value("${maplewood.enrollment.pipeline.workers:2}")
+    private int workerCount;
+
+    @Value("${maplewood.enrollment.pipeline.batch-size:64}")
+    private int batchSize;
+
+    @Value("${maplewood.enrollment.pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${maplewood.enrollment.pipeline.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    private record Pending(EnrollmentRequest request, CompletableFuture<EnrollmentResponse> result) {
+    }
+
+    private final List<BlockingQueue<Pending>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * Starts the worker threads if the pipeline is enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<Pending> queue = new LinkedBlockingQueue<>(queueCapacity);
+            Thread worker = new Thread(() -> drain(queue), "enrollment-pipeline-" + i);
+            worker.setDaemon(true);
+            queues.add(queue);
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("Enrollment pipeline started with {} workers, batch size {}", workerCount, batchSize);
+    }
+
+    /**
+     * Stops the workers; requests still queued are failed.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (BlockingQueue<Pending> queue : queues) {
+            Pending p;
+            while ((p = queue.poll()) != null) {
+                p.result().completeExceptionally(new TransientEnrollmentException("Enrollment service is shutting down."));
+            }
+        }
+    }
+
+    /**
+     * Returns true if enroll requests should go through the pipeline.
+     *
+     * @return true if the pipeline is enabled and running
+     */
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    /**
+     * Queues an enroll request.
+     *
+     * @param req the enrollment request with studentId, courseId, and semesterId
+     * @return a future completed once the request's group is committed
+     * @throws EnrollmentException if a field is missing
+     * @throws TransientEnrollmentException if the pipeline is not running or the queue is full
+     */
+    public CompletableFuture<EnrollmentResponse> submit(EnrollmentRequest req) {
+        if (req.getStudentId() == null || req.getCourseId() == null || req.getSemesterId() == null) {
+            throw new EnrollmentException("studentId, courseId and semesterId are required.");
+        }
+        lotteryGate.requireDirectEnrollment(req.getSemesterId());
+        if (!isEnabled()) throw new TransientEnrollmentException("Enrollment pipeline is not running.");
+
+        Pending pending = new Pending(req, new CompletableFuture<>());
+        BlockingQueue<Pending> queue = queues.get(Math.floorMod(req.getStudentId(), queues.size()));
+        if (!queue.offer(pending)) {
+            throw new TransientEnrollmentException("Too many enrollment requests, please try again.");
+        }
+        return pending.result();
+    }
+
+    /**
+     * Queues an enroll request and waits for its result.
+     *
+     * @param req the enrollment request with studentId, courseId, and semesterId
+     * @return an EnrollmentResponse object with success and message
+     * @throws EnrollmentException if the enrollment is rejected
+     * @throws TransientEnrollmentException if it could not be queued or does not complete in time;
+     *         in the latter case the exception carries the request's future
+     */
+    public EnrollmentResponse enroll(EnrollmentRequest req) {
+        CompletableFuture<EnrollmentResponse> result = submit(req);
+        try {
+            return result.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new EnrollmentException(e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new TransientEnrollmentException("Enrollment timed out, please check your schedule before retrying.", result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransientEnrollmentException("Enrollment was interrupted.", result);
+        }
+    }
+
+    /**
+     * The worker loop: waits for a request, takes everything else already queued up to the batch size,
+     * and commits the group.
+     *
+     * @param queue the worker's queue
+     */
+    private void drain(BlockingQueue<Pending> queue) {
+        List<Pending> group = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(group, batchSize - 1);
+            try {
+                process(group);
+            } catch (RuntimeException e) {
+                log.error("Enrollment pipeline group failed", e);
+                group.forEach(p -> p.result().completeExceptionally(e));
+            }
+            group.clear();
+        }
+    }
+
+    /**
+     * Validates and commits a group of requests in one transaction, then completes their futures.
+     *
+     * @param group the queued requests
+     */
+    private void process(List<Pending> group) {
+        Map<Integer, List<Pending>> bySemester = group.stream()
+                .collect(Collectors.groupingBy(p -> p.request().getSemesterId(), LinkedHashMap::new, Collectors.toList()));
+
+        Map<Pending, BulkEnrollmentResponse.ItemResult> results = new IdentityHashMap<>();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                for (Map.Entry<Integer, List<Pending>> e : bySemester.entrySet()) {
+                    BulkEnrollmentResponse resp = bulkEnrollmentService.enrollAll(toBulkRequest(e.getKey(), e.getValue()));
+                    for (int i = 0; i < e.getValue().size(); i++) {
+                        results.put(e.getValue().get(i), resp.getResults().get(i));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Enrollment group of {} failed to commit, replaying one by one: {}", group.size(), e.getMessage());
+            group.forEach(this::processAlone);
+            return;
+        }
+
+        for (Pending p : group) {
+            BulkEnrollmentResponse.ItemResult r = results.get(p);
+            if (r.isSuccess()) p.result().complete(new EnrollmentResponse(true, r.getMessage()));
+            else p.result().completeExceptionally(new EnrollmentException(r.getMessage()));
+        }
+    }
+
+    /**
+     * Runs one request in its own transaction through the regular enroll path.
+     *
+     * @param pending the queued request
+     */
+    private void processAlone(Pending pending) {
+        try {
+            pending.result().complete(enrollmentService.enroll(pending.request()));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Turns the requests of one semester into a bulk request, keeping their order.
+     *
+     * @param semesterId the semester's id
+     * @param pending the semester's requests
+     * @return the bulk request
+     */
+    private BulkEnrollmentRequest toBulkRequest(Integer semesterId, List<Pending> pending) {
+        BulkEnrollmentRequest bulk = new BulkEnrollmentRequest();
+        bulk.setSemesterId(semesterId);
+        bulk.setAllOrNothing(false);
+        bulk.setItems(pending.stream().map(p -> {
+            BulkEnrollmentRequest.Item item = new BulkEnrollmentRequest.Item();
+            item.setStudentId(p.request().getStudentId());
+            item.setCourseId(p.request().getCourseId());
+            return item;
+        }).collect(Collectors.toList()));
+        return bulk;
+    }
+}
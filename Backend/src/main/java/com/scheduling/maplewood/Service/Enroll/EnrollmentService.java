@@ -6,12 +6,11 @@ import com.scheduling.maplewood.Entity.*;
 import com.scheduling.maplewood.Exception.EnrollmentException;
 import com.scheduling.maplewood.Repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,15 +19,25 @@ public class EnrollmentService {
     private final StudentRepository studentRepository;
     private final CourseRepository courseRepository;
     private final CourseSectionRepository courseSectionRepository;
-    private final SectionMeetingRepository sectionMeetingRepository;
     private final StudentEnrollmentRepository studentEnrollmentRepository;
-    private final StudentCourseHistoryRepository studentCourseHistoryRepository;
+    private final EnrollmentContextLoader enrollmentContextLoader;
+    private final PrerequisiteGraphService prerequisiteGraphService;
+    private final BusyMaskService busyMaskService;
+    private final SeatLedger seatLedger;
+    private final StudentLocks studentLocks;
+    private final LotteryGate lotteryGate;
 
-    private static final int MAX_COURSES_PER_SEMESTER = 5;
+    public static final int MAX_COURSES_PER_SEMESTER = 5;
 
     /**
      * Enroll a student in a course.
      *
+     * The student is locked until the transaction completes and the seat is taken atomically from the
+     * {@link SeatLedger}, so concurrent calls can neither oversubscribe a section nor double-enroll a student.
+     * The rules run against an {@link EnrollmentContext} loaded once, so the number of queries does not
+     * grow with the student's history or schedule. Any section of the course that fits the student's
+     * schedule can be chosen, not only the first one with room.
+     *
      * @param req the enrollment request with studentId, courseId, and semesterId
      * @return an EnrollmentResponse object with success and message
      * @throws EnrollmentException if studentId, courseId, or semesterId is null
@@ -43,6 +52,9 @@ public class EnrollmentService {
         if (studentId == null || courseId == null || semesterId == null) {
             throw new EnrollmentException("studentId, courseId and semesterId are required.");
         }
+        lotteryGate.requireDirectEnrollment(semesterId);
+
+        studentLocks.lockUntilCompletion(studentId);
 
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new EnrollmentException("Student not found: " + studentId));
@@ -55,164 +67,144 @@ public class EnrollmentService {
             throw new EnrollmentException("No section available for this course in the selected semester.");
         }
 
-        CourseSection chosen = null;
-        for (CourseSection cs : sections) {
-            int enrolled = studentEnrollmentRepository.findBySectionId(cs.getId()).size();
-            if (cs.getCapacity() == null || enrolled < cs.getCapacity()) {
-                chosen = cs;
-                break;
-            }
-        }
-        if (chosen == null) chosen = sections.get(0);
-        Integer sectionId = chosen.getId();
-
-        List<StudentCourseHistory> history = studentCourseHistoryRepository.findByStudentId(studentId);
-
-        validateNotPassedPreviously(history, courseId, semesterId);
-        validateNotAlreadyEnrolled(studentId, courseId, semesterId);
-        validateSectionCapacity(sectionId, chosen.getCapacity());
-        validateMaxSemesterCourses(studentId, semesterId);
-        validatePrerequisites(studentId, courseId);
-        validateNoTimeConflict(studentId, sectionId);
+        EnrollmentContext ctx = enrollmentContextLoader.load(student, semesterId);
+        validateEligible(ctx, course);
+        Integer sectionId = reserveBestSection(ctx, sections).getId();
 
         StudentEnrollment enrollment = new StudentEnrollment();
         enrollment.setStudentId(studentId);
         enrollment.setCourseId(courseId);
         enrollment.setSemesterId(semesterId);
         enrollment.setSectionId(sectionId);
-        studentEnrollmentRepository.save(enrollment);
+        try {
+            studentEnrollmentRepository.saveAndFlush(enrollment);
+        } catch (DataIntegrityViolationException e) {
+            throw new EnrollmentException("Student already enrolled in this course this semester.");
+        }
 
         return new EnrollmentResponse(true, "Enrolled successfully.");
     }
 
     /**
-     * Validate that the student has not passed the course previously.
-     * 
-     * @param history the student's course history
-     * @param courseId the course's id
-     * @param semesterId the semester's id
-     * @throws EnrollmentException if the student has already passed the course earlier
+     * Picks a section of the course for the student and takes one of its seats, in one in-memory pass.
+     *
+     * Sections that overlap the student's busy mask are skipped. The others are ranked by remaining
+     * seats (most first, then lowest id) so enrollments spread evenly over the sections, and a seat is
+     * taken from the first one that still has room. Losing a seat race simply moves on to the next one.
+     *
+     * @param ctx the student's enrollment context
+     * @param sections the course's sections in the semester, not empty
+     * @return the section a seat was taken in
+     * @throws EnrollmentException if every section conflicts with the schedule or every fitting one is full
      */
-    private void validateNotPassedPreviously(List<StudentCourseHistory> history, Integer courseId, Integer semesterId) {
-        boolean passed = history.stream()
-                .filter(h -> "passed".equalsIgnoreCase(h.getStatus()))
-                .anyMatch(h -> Objects.equals(h.getCourseId(), courseId)
-                        && h.getSemesterId() != null && h.getSemesterId() <= semesterId);
-        if (passed) throw new EnrollmentException("Student already passed this course earlier.");
-    }
+    CourseSection reserveBestSection(EnrollmentContext ctx, List<CourseSection> sections) {
+        List<Integer> ids = sections.stream().map(CourseSection::getId).toList();
+        Map<Integer, WeeklyBusyMask> masks = busyMaskService.sectionMasks(ids);
+        Map<Integer, Integer> occupied = seatLedger.occupied(ids);
 
-    /**
-     * Validate that the student is not already enrolled in the course this semester.
-     * 
-     * @param studentId the student's id
-     * @param courseId the course's id
-     * @param semesterId the semester's id
-     * @throws EnrollmentException if the student is already enrolled
-     */
-    private void validateNotAlreadyEnrolled(Integer studentId, Integer courseId, Integer semesterId) {
-        boolean exists = studentEnrollmentRepository.findByStudentId(studentId)
-                .stream()
-                .anyMatch(e -> Objects.equals(e.getCourseId(), courseId)
-                        && Objects.equals(e.getSemesterId(), semesterId));
-        if (exists) throw new EnrollmentException("Student already enrolled in this course this semester.");
+        List<CourseSection> fitting = new ArrayList<>();
+        for (CourseSection cs : sections) {
+            if (!masks.get(cs.getId()).intersects(ctx.getBusyMask())) fitting.add(cs);
+        }
+        if (fitting.isEmpty()) throw new EnrollmentException("Time conflict with existing schedule.");
+
+        fitting.sort(Comparator
+                .comparingLong((CourseSection cs) -> cs.getCapacity() == null
+                        ? Long.MAX_VALUE
+                        : cs.getCapacity() - occupied.get(cs.getId()))
+                .reversed()
+                .thenComparing(CourseSection::getId));
+
+        for (CourseSection cs : fitting) {
+            if (cs.getCapacity() != null && occupied.get(cs.getId()) >= cs.getCapacity()) break;
+            if (seatLedger.tryReserve(cs.getId(), cs.getCapacity())) return cs;
+        }
+        throw new EnrollmentException("Section is full.");
     }
 
     /**
-     * Validates that the student has not exceeded the section's capacity.
+     * Runs the enrollment rules that do not depend on the section: not passed before, not enrolled yet,
+     * below the semester maximum and prerequisites satisfied.
      *
-     * @param sectionId the section's id
-     * @param capacity the section's capacity
-     * @throws EnrollmentException if the section is full
+     * @param ctx the student's enrollment context
+     * @param course the course to enroll in
+     * @throws EnrollmentException if a rule is violated
      */
-    private void validateSectionCapacity(Integer sectionId, Integer capacity) {
-        int enrolled = studentEnrollmentRepository.findBySectionId(sectionId).size();
-        if (capacity != null && enrolled >= capacity) throw new EnrollmentException("Section is full.");
+    void validateEligible(EnrollmentContext ctx, Course course) {
+        validateNotPassedPreviously(ctx, course.getId());
+        validateNotAlreadyEnrolled(ctx, course.getId());
+        validateMaxSemesterCourses(ctx);
+        validatePrerequisites(ctx, course);
     }
 
     /**
-     * Validates that the student has not exceeded the maximum number of courses for this semester.
-     * 
-     * @param studentId the student's id
-     * @param semesterId the semester's id
-     * @throws EnrollmentException if the student has exceeded the maximum number of courses for this semester
+     * Same rules as {@link #validateEligible}, as a test instead of an exception, for callers that screen
+     * many (student, course) pairs at once.
+     *
+     * @param ctx the student's enrollment context
+     * @param course the course to enroll in
+     * @return true if the student may enroll in the course
      */
-    private void validateMaxSemesterCourses(Integer studentId, Integer semesterId) {
-        long count = studentEnrollmentRepository.findByStudentId(studentId)
-                .stream()
-                .filter(e -> Objects.equals(e.getSemesterId(), semesterId))
-                .count();
-        if (count >= MAX_COURSES_PER_SEMESTER) throw new EnrollmentException("Student reached maximum courses for this semester.");
+    boolean isEligible(EnrollmentContext ctx, Course course) {
+        return !ctx.passedBefore(course.getId())
+                && !ctx.isEnrolledIn(course.getId())
+                && ctx.enrolledCount() < MAX_COURSES_PER_SEMESTER
+                && prerequisiteGraphService.getGraph().prerequisitesSatisfied(course.getId(), ctx.getPassedCourses());
     }
 
     /**
-     * Validates that the student has satisfied the prerequisites for a given course.
+     * Validate that the student has not passed the course previously.
      *
-     * @param studentId the student's id
+     * @param ctx the student's enrollment context
      * @param courseId the course's id
-     * @throws EnrollmentException if the prerequisites are not satisfied
-    */
-    private void validatePrerequisites(Integer studentId, Integer courseId) {
-        if (!prerequisitesSatisfied(studentId, courseId)) {
-            Course c = courseRepository.findById(courseId).orElse(null);
-            throw new EnrollmentException("Prerequisites not satisfied for course: " + (c != null ? c.getCode() : courseId));
-        }
+     * @throws EnrollmentException if the student has already passed the course earlier
+     */
+    private void validateNotPassedPreviously(EnrollmentContext ctx, Integer courseId) {
+        if (ctx.passedBefore(courseId)) throw new EnrollmentException("Student already passed this course earlier.");
     }
 
     /**
-     * Recursively checks if the student has satisfied the prerequisites for a given course.
+     * Validate that the student is not already enrolled in the course this semester.
      *
-     * @param studentId the student's id
+     * @param ctx the student's enrollment context
      * @param courseId the course's id
-     * @return true if the student has satisfied the prerequisites, false otherwise
+     * @throws EnrollmentException if the student is already enrolled
      */
-    private boolean prerequisitesSatisfied(Integer studentId, Integer courseId) {
-        Course c = courseRepository.findById(courseId).orElse(null);
-        if (c == null) return false;
-        Integer prereq = c.getPrerequisiteId();
-        if (prereq == null) return true;
-        boolean passed = studentCourseHistoryRepository.findByStudentIdAndStatus(studentId, "passed")
-                .stream().anyMatch(h -> Objects.equals(h.getCourseId(), prereq));
-        if (passed) return true;
-        return prerequisitesSatisfied(studentId, prereq);
+    private void validateNotAlreadyEnrolled(EnrollmentContext ctx, Integer courseId) {
+        if (ctx.isEnrolledIn(courseId)) throw new EnrollmentException("Student already enrolled in this course this semester.");
     }
 
     /**
-     * Validates that there is no time conflict between the given section and the student's existing schedule.
+     * Validates that the student has not exceeded the maximum number of courses for this semester.
      *
-     * @param studentId the student's id
-     * @param sectionId the section's id
-     * @throws EnrollmentException if there is a time conflict
+     * @param ctx the student's enrollment context
+     * @throws EnrollmentException if the student has exceeded the maximum number of courses for this semester
      */
-    private void validateNoTimeConflict(Integer studentId, Integer sectionId) {
-        List<SectionMeeting> target = sectionMeetingRepository.findBySectionId(sectionId);
-        List<SectionMeeting> current = studentEnrollmentRepository.findByStudentId(studentId)
-                .stream()
-                .flatMap(e -> sectionMeetingRepository.findBySectionId(e.getSectionId()).stream())
-                .collect(Collectors.toList());
-        if (hasTimeConflict(target, current)) throw new EnrollmentException("Time conflict with existing schedule.");
+    private void validateMaxSemesterCourses(EnrollmentContext ctx) {
+        if (ctx.enrolledCount() >= MAX_COURSES_PER_SEMESTER) throw new EnrollmentException("Student reached maximum courses for this semester.");
     }
 
     /**
-     * Checks if there is a time conflict between two lists of section meetings.
+     * Validates that the student has satisfied the prerequisites for a given course.
      *
-     * A time conflict is when two section meetings occur on the same day and
-     * overlap in time.
+     * @param ctx the student's enrollment context
+     * @param course the course to enroll in
+     * @throws EnrollmentException if the prerequisites are not satisfied
+    */
+    private void validatePrerequisites(EnrollmentContext ctx, Course course) {
+        if (!prerequisiteGraphService.getGraph().prerequisitesSatisfied(course.getId(), ctx.getPassedCourses())) {
+            throw new EnrollmentException("Prerequisites not satisfied for course: " + course.getCode());
+        }
+    }
+
+    /**
+     * Validates that there is no time conflict between the given section and the student's schedule for the semester.
      *
-     * @param target the list of section meetings to check for conflicts
-     * @param current the list of section meetings that may have conflicts with the target
-     * @return true if there is a time conflict, false otherwise
+     * @param ctx the student's enrollment context
+     * @param sectionId the section's id
+     * @throws EnrollmentException if there is a time conflict
      */
-    private boolean hasTimeConflict(List<SectionMeeting> target, List<SectionMeeting> current) {
-        for (SectionMeeting t : target) {
-            for (SectionMeeting s : current) {
-                if (!t.getDayOfWeek().equalsIgnoreCase(s.getDayOfWeek())) continue;
-                LocalTime tStart = LocalTime.parse(t.getStartTime());
-                LocalTime tEnd = LocalTime.parse(t.getEndTime());
-                LocalTime sStart = LocalTime.parse(s.getStartTime());
-                LocalTime sEnd = LocalTime.parse(s.getEndTime());
-                if (tStart.isBefore(sEnd) && tEnd.isAfter(sStart)) return true;
-            }
-        }
-        return false;
+    void validateNoTimeConflict(EnrollmentContext ctx, Integer sectionId) {
+        if (busyMaskService.sectionMask(sectionId).intersects(ctx.getBusyMask())) throw new EnrollmentException("Time conflict with existing schedule.");
     }
 }
@@ -0,0 +1,139 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Dto.EnrollmentResponse;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Exception.TransientEnrollmentException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of enroll requests that carry an idempotency key.
+ *
+ * Entries are keyed by student and key, kept in a bounded LRU map and dropped after a TTL. A retry
+ * with the same key gets the first request's outcome (success or rule violation) without touching
+ * the database; a retry that arrives while the first request is still running waits for it instead
+ * of running a second time. Unexpected and transient failures are not remembered, so they can be
+ * retried; if a transient failure left the request queued (a pipeline timeout), the entry takes the
+ * request's real outcome once it completes, and a retry waits for that instead of running again.
+ */
+@Component
+public class IdempotencyStore {
+
+    @Value("${maplewood.enrollment.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${maplewood.enrollment.idempotency.ttl:10m}")
+    private Duration ttl;
+
+    private record Entry(String fingerprint, long createdAt, CompletableFuture<EnrollmentResponse> outcome) {
+    }
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Runs an enroll request once per idempotency key.
+     * Requests without a key are simply run.
+     *
+     * @param req the enrollment request
+     * @param enroll runs the enrollment
+     * @return the outcome of the first request with this key
+     * @throws EnrollmentException the first request's rule violation, or if the key was used for another request
+     */
+    public EnrollmentResponse execute(EnrollmentRequest req, Supplier<EnrollmentResponse> enroll) {
+        String key = req.getIdempotencyKey();
+        if (key == null || key.isBlank() || req.getStudentId() == null) return enroll.get();
+
+        String storeKey = req.getStudentId() + ":" + key;
+        String fingerprint = req.getCourseId() + ":" + req.getSemesterId();
+        CompletableFuture<EnrollmentResponse> mine = new CompletableFuture<>();
+
+        Entry existing;
+        synchronized (entries) {
+            existing = entries.get(storeKey);
+            if (existing != null && System.currentTimeMillis() - existing.createdAt() > ttl.toMillis()) {
+                entries.remove(storeKey);
+                existing = null;
+            }
+            if (existing == null) entries.put(storeKey, new Entry(fingerprint, System.currentTimeMillis(), mine));
+        }
+
+        if (existing != null) {
+            if (!Objects.equals(existing.fingerprint(), fingerprint)) {
+                throw new EnrollmentException("Idempotency key already used for a different enrollment request.");
+            }
+            try {
+                return existing.outcome().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+        }
+
+        try {
+            EnrollmentResponse response = enroll.get();
+            mine.complete(response);
+            return response;
+        } catch (TransientEnrollmentException e) {
+            if (e.getPending() == null) forget(storeKey, mine, e);
+            else e.getPending().whenComplete((response, failure) -> settle(storeKey, mine, response, failure));
+            throw e;
+        } catch (EnrollmentException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            forget(storeKey, mine, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Completes an entry with the outcome of a request that was still queued when its caller gave up.
+     * A rule violation is remembered like any other; any other failure is forgotten.
+     *
+     * @param storeKey the entry's key
+     * @param mine the entry's outcome
+     * @param response the request's response, if it succeeded
+     * @param failure the request's failure, if it failed
+     */
+    private void settle(String storeKey, CompletableFuture<EnrollmentResponse> mine,
+                        EnrollmentResponse response, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        if (cause == null) {
+            mine.complete(response);
+        } else if (cause instanceof EnrollmentException && !(cause instanceof TransientEnrollmentException)) {
+            mine.completeExceptionally(cause);
+        } else {
+            forget(storeKey, mine, cause);
+        }
+    }
+
+    /**
+     * Drops an entry whose request failed without an outcome worth remembering, and fails the retries
+     * already waiting on it with the same error.
+     *
+     * @param storeKey the entry's key
+     * @param mine the entry's outcome
+     * @param failure the failure
+     */
+    private void forget(String storeKey, CompletableFuture<EnrollmentResponse> mine, Throwable failure) {
+        synchronized (entries) {
+            Entry current = entries.get(storeKey);
+            if (current != null && current.outcome() == mine) entries.remove(storeKey);
+        }
+        mine.completeExceptionally(failure);
+    }
+}
@@ -0,0 +1,62 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Exception.TransientEnrollmentException;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The semesters whose registration currently goes through a lottery.
+ *
+ * A semester is under lottery from the moment its window opens until its results are published,
+ * including while the draft is being enrolled. Every path that takes a seat directly (enroll, bulk,
+ * swap, cart, waitlist and auto-enrollment) checks it here, so the lottery's seats cannot be taken
+ * ahead of the draft.
+ */
+@Component
+public class LotteryGate {
+
+    private final Set<Integer> semesters = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Returns true if the semester's registration goes through its lottery.
+     *
+     * @param semesterId the semester's id
+     * @return true if direct enrollment is closed
+     */
+    public boolean isActive(Integer semesterId) {
+        return semesterId != null && semesters.contains(semesterId);
+    }
+
+    /**
+     * Rejects a direct enrollment into a semester whose registration goes through its lottery.
+     *
+     * @param semesterId the semester's id
+     * @throws TransientEnrollmentException if the semester is under lottery; it is not an outcome of the request,
+     *         which may succeed once the lottery is published
+     */
+    public void requireDirectEnrollment(Integer semesterId) {
+        if (isActive(semesterId)) {
+            throw new TransientEnrollmentException("Registration for this semester is by lottery, submit a lottery request instead.");
+        }
+    }
+
+    /**
+     * Closes direct enrollment into a semester.
+     *
+     * @param semesterId the semester's id
+     */
+    void activate(Integer semesterId) {
+        semesters.add(semesterId);
+    }
+
+    /**
+     * Reopens direct enrollment into a semester.
+     *
+     * @param semesterId the semester's id
+     */
+    void release(Integer semesterId) {
+        semesters.remove(semesterId);
+    }
+}
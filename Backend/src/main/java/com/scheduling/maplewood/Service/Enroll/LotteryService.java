@@ -0,0 +1,275 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.BulkEnrollmentRequest;
+import com.scheduling.maplewood.Dto.BulkEnrollmentResponse;
+import com.scheduling.maplewood.Dto.LotteryRequest;
+import com.scheduling.maplewood.Entity.Student;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.StudentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lottery registration windows.
+ *
+ * While a semester's window is open, students submit their wanted courses in order of preference and
+ * nothing is written. Running the window orders the students by seniority (grade level, highest first)
+ * with ties broken by a seeded shuffle, then drafts round-robin: each round every student, in that
+ * order, gets their next preference. The whole draft is validated in memory and committed in one bulk
+ * transaction by {@link BulkEnrollmentService}, and all results are published together once it commits.
+ *
+ * The seed is returned when the window opens so a run can be reproduced. Direct enrollment into the semester
+ * is closed through the {@link LotteryGate} from the moment the window opens until its results are published.
+ * If the draft fails to commit, the window reopens with the error recorded so the run can be retried.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LotteryService {
+
+    private final StudentRepository studentRepository;
+    private final BulkEnrollmentService bulkEnrollmentService;
+    private final LotteryGate lotteryGate;
+
+    private static final class Window {
+        final Integer semesterId;
+        final long seed;
+        final LocalDateTime openedAt = LocalDateTime.now();
+        final Map<Integer, List<Integer>> preferences = new LinkedHashMap<>();
+        volatile boolean closed;
+        volatile LocalDateTime processedAt;
+        volatile Map<Integer, List<Map<String, Object>>> results;
+        volatile String lastError;
+
+        Window(Integer semesterId, long seed) {
+            this.semesterId = semesterId;
+            this.seed = seed;
+        }
+    }
+
+    private final Map<Integer, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Opens the lottery window of a semester, replacing a finished one.
+     *
+     * @param semesterId the semester's id
+     * @param seed the lottery seed, or null for a random one
+     * @return a map with the window's state
+     * @throws EnrollmentException if a window is already open for the semester
+     */
+    public Map<String, Object> open(Integer semesterId, Long seed) {
+        if (semesterId == null) throw new EnrollmentException("semesterId is required.");
+        Window window = new Window(semesterId, seed != null ? seed : new Random().nextLong());
+        Window previous = windows.putIfAbsent(semesterId, window);
+        if (previous != null) {
+            if (previous.processedAt == null) {
+                throw new EnrollmentException("A lottery window is already open for this semester.");
+            }
+            windows.put(semesterId, window);
+        }
+        lotteryGate.activate(semesterId);
+        return status(window);
+    }
+
+    /**
+     * Records (or replaces) a student's preferences in the semester's open window.
+     *
+     * @param semesterId the semester's id
+     * @param req the student and their wanted courses in order of preference
+     * @return a map with the recorded preferences
+     * @throws EnrollmentException if the window is not open or the request is incomplete
+     */
+    public Map<String, Object> submit(Integer semesterId, LotteryRequest req) {
+        Window window = openWindow(semesterId);
+        if (req.getStudentId() == null || req.getCourseIds() == null || req.getCourseIds().isEmpty()) {
+            throw new EnrollmentException("studentId and at least one courseId are required.");
+        }
+        List<Integer> courses = req.getCourseIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .limit(EnrollmentService.MAX_COURSES_PER_SEMESTER)
+                .toList();
+
+        synchronized (window) {
+            if (window.closed) throw new EnrollmentException("The lottery window is closed.");
+            window.preferences.put(req.getStudentId(), courses);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("message", "Request recorded.");
+        response.put("studentId", req.getStudentId());
+        response.put("courseIds", courses);
+        return response;
+    }
+
+    /**
+     * Closes the window and enrolls every collected request in draft order, in one bulk transaction.
+     *
+     * If the bulk transaction fails, nothing is published: the window is reopened with the error recorded
+     * in its status and the run can be retried.
+     *
+     * @param semesterId the semester's id
+     * @return a map with the window's state and totals
+     * @throws EnrollmentException if the window is not open
+     */
+    public Map<String, Object> run(Integer semesterId) {
+        Window window = openWindow(semesterId);
+        Map<Integer, List<Integer>> preferences;
+        synchronized (window) {
+            if (window.closed) throw new EnrollmentException("The lottery window is closed.");
+            window.closed = true;
+            preferences = new LinkedHashMap<>(window.preferences);
+        }
+
+        try {
+            return process(window, preferences);
+        } catch (RuntimeException e) {
+            log.warn("Lottery for semester {} failed, reopening the window: {}", semesterId, e.getMessage());
+            synchronized (window) {
+                window.lastError = e.getMessage();
+                window.closed = false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drafts the collected requests, enrolls them in one bulk transaction and publishes the results.
+     *
+     * @param window the closed window
+     * @param preferences the students' preferences at closing
+     * @return a map with the window's state and totals
+     */
+    private Map<String, Object> process(Window window, Map<Integer, List<Integer>> preferences) {
+        Integer semesterId = window.semesterId;
+        List<Integer> order = drawOrder(preferences.keySet(), window.seed);
+        List<BulkEnrollmentRequest.Item> draft = new ArrayList<>();
+        for (int round = 0; round < EnrollmentService.MAX_COURSES_PER_SEMESTER; round++) {
+            for (Integer studentId : order) {
+                List<Integer> wanted = preferences.get(studentId);
+                if (round >= wanted.size()) continue;
+                BulkEnrollmentRequest.Item item = new BulkEnrollmentRequest.Item();
+                item.setStudentId(studentId);
+                item.setCourseId(wanted.get(round));
+                draft.add(item);
+            }
+        }
+
+        Map<Integer, List<Map<String, Object>>> results = new HashMap<>();
+        int enrolled = 0;
+        if (!draft.isEmpty()) {
+            BulkEnrollmentRequest bulk = new BulkEnrollmentRequest();
+            bulk.setSemesterId(semesterId);
+            bulk.setAllOrNothing(false);
+            bulk.setItems(draft);
+            BulkEnrollmentResponse resp = bulkEnrollmentService.enrollDraft(bulk);
+            enrolled = resp.getEnrolled();
+
+            for (BulkEnrollmentResponse.ItemResult r : resp.getResults()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("courseId", r.getCourseId());
+                item.put("sectionId", r.getSectionId());
+                item.put("success", r.isSuccess());
+                item.put("message", r.getMessage());
+                results.computeIfAbsent(r.getStudentId(), k -> new ArrayList<>()).add(item);
+            }
+        }
+
+        window.results = results;
+        window.lastError = null;
+        window.processedAt = LocalDateTime.now();
+        lotteryGate.release(semesterId);
+        log.info("Lottery for semester {} processed: {} students, {} requests, {} enrolled",
+                semesterId, order.size(), draft.size(), enrolled);
+
+        Map<String, Object> response = status(window);
+        response.put("requests", draft.size());
+        response.put("enrolled", enrolled);
+        return response;
+    }
+
+    /**
+     * Returns the published results of a processed window, for one student or for everyone.
+     *
+     * @param semesterId the semester's id
+     * @param studentId the student's id, or null for all students
+     * @return a map with the window's state and the results
+     * @throws EnrollmentException if there is no window or its results are not published yet
+     */
+    public Map<String, Object> results(Integer semesterId, Integer studentId) {
+        Window window = windows.get(semesterId);
+        if (window == null) throw new EnrollmentException("No lottery window for this semester.");
+        Map<Integer, List<Map<String, Object>>> results = window.results;
+        if (results == null) throw new EnrollmentException("Lottery results are not published yet.");
+
+        Map<String, Object> response = status(window);
+        if (studentId != null) {
+            response.put("studentId", studentId);
+            response.put("results", results.getOrDefault(studentId, List.of()));
+        } else {
+            response.put("results", new TreeMap<>(results));
+        }
+        return response;
+    }
+
+    /**
+     * Orders the students by grade level (highest first), shuffling each grade with the seeded random.
+     *
+     * @param studentIds the students who submitted requests
+     * @param seed the lottery seed
+     * @return the draft order
+     */
+    private List<Integer> drawOrder(Collection<Integer> studentIds, long seed) {
+        Map<Integer, Student> students = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+
+        // shuffle a sorted copy so the same seed always gives the same order
+        List<Integer> order = new ArrayList<>(new TreeSet<>(studentIds));
+        Collections.shuffle(order, new Random(seed));
+        order.sort(Comparator.comparingInt((Integer id) -> {
+            Student s = students.get(id);
+            return s == null || s.getGradeLevel() == null ? Integer.MIN_VALUE : s.getGradeLevel();
+        }).reversed());
+        return order;
+    }
+
+    /**
+     * Returns the open window of a semester.
+     *
+     * @param semesterId the semester's id
+     * @return the window
+     * @throws EnrollmentException if the semester has no open window
+     */
+    private Window openWindow(Integer semesterId) {
+        Window window = semesterId == null ? null : windows.get(semesterId);
+        if (window == null || window.closed) throw new EnrollmentException("No open lottery window for this semester.");
+        return window;
+    }
+
+    /**
+     * Describes a window.
+     *
+     * @param window the window
+     * @return a map with the window's semester, seed, state and dates
+     */
+    private Map<String, Object> status(Window window) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("semesterId", window.semesterId);
+        out.put("seed", window.seed);
+        out.put("status", window.processedAt != null ? "PUBLISHED" : window.closed ? "PROCESSING" : "OPEN");
+        out.put("openedAt", window.openedAt);
+        out.put("processedAt", window.processedAt);
+        if (window.lastError != null) out.put("lastError", window.lastError);
+        synchronized (window) {
+            out.put("students", window.preferences.size());
+        }
+        return out;
+    }
+}
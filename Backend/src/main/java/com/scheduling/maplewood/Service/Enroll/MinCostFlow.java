@@ -0,0 +1,195 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Min-cost max-flow over a graph held in flat arrays, for non-negative integer arc costs.
+ *
+ * Solved primal-dual: each phase runs Dijkstra on reduced costs to update the node potentials, then
+ * pushes a Dinic blocking flow through the arcs whose reduced cost is zero. Every path found in a phase
+ * has the same cost, so the number of phases is bounded by the number of distinct path costs, which
+ * is small when costs are small priorities. Whole cohorts are solved in a handful of phases.
+ */
+final class MinCostFlow {
+
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    private final int nodes;
+    private final int[] head;
+    private int[] next = new int[1024];
+    private int[] to = new int[1024];
+    private int[] cap = new int[1024];
+    private int[] cost = new int[1024];
+    private int arcs;
+
+    private long[] potential;
+    private int[] level;
+    private int[] cursor;
+
+    MinCostFlow(int nodes) {
+        this.nodes = nodes;
+        this.head = new int[nodes];
+        Arrays.fill(head, -1);
+    }
+
+    /**
+     * Adds an arc and its residual reverse arc.
+     *
+     * @param from the tail node
+     * @param target the head node
+     * @param capacity the arc's capacity
+     * @param arcCost the cost of one unit of flow, not negative
+     * @return the arc's index, to read its flow after solving
+     */
+    int addArc(int from, int target, int capacity, int arcCost) {
+        if (arcs + 2 > to.length) grow();
+        int a = arcs;
+        link(a, from, target, capacity, arcCost);
+        link(a + 1, target, from, 0, -arcCost);
+        arcs += 2;
+        return a;
+    }
+
+    /**
+     * Returns the flow pushed through an arc.
+     *
+     * @param arc an index returned by {@link #addArc}
+     * @return the arc's flow
+     */
+    int flow(int arc) {
+        return cap[arc ^ 1];
+    }
+
+    /**
+     * Pushes as much flow as possible from source to sink at the least total cost.
+     *
+     * @param source the source node
+     * @param sink the sink node
+     * @return the flow and its cost
+     */
+    long[] solve(int source, int sink) {
+        potential = new long[nodes];
+        level = new int[nodes];
+        cursor = new int[nodes];
+        long flow = 0;
+        long total = 0;
+
+        while (reprice(source, sink)) {
+            long pathCost = potential[sink] - potential[source];
+            while (levels(source, sink)) {
+                System.arraycopy(head, 0, cursor, 0, nodes);
+                int pushed;
+                while ((pushed = push(source, sink, Integer.MAX_VALUE)) > 0) {
+                    flow += pushed;
+                    total += pathCost * pushed;
+                }
+            }
+        }
+        return new long[]{flow, total};
+    }
+
+    /**
+     * Runs Dijkstra on reduced costs and adds the distances to the potentials.
+     *
+     * @param source the source node
+     * @param sink the sink node
+     * @return true if the sink is still reachable
+     */
+    private boolean reprice(int source, int sink) {
+        long[] dist = new long[nodes];
+        Arrays.fill(dist, INF);
+        dist[source] = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>((x, y) -> Long.compare(x[0], y[0]));
+        queue.add(new long[]{0, source});
+
+        while (!queue.isEmpty()) {
+            long[] top = queue.poll();
+            int u = (int) top[1];
+            if (top[0] > dist[u]) continue;
+            for (int a = head[u]; a >= 0; a = next[a]) {
+                if (cap[a] == 0) continue;
+                int v = to[a];
+                long d = dist[u] + cost[a] + potential[u] - potential[v];
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    queue.add(new long[]{d, v});
+                }
+            }
+        }
+        if (dist[sink] >= INF) return false;
+        for (int v = 0; v < nodes; v++) potential[v] += Math.min(dist[v], dist[sink]);
+        return true;
+    }
+
+    /**
+     * Builds the BFS levels of the admissible subgraph: residual arcs with zero reduced cost.
+     *
+     * @param source the source node
+     * @param sink the sink node
+     * @return true if the sink is reachable through admissible arcs
+     */
+    private boolean levels(int source, int sink) {
+        Arrays.fill(level, -1);
+        level[source] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int a = head[u]; a >= 0; a = next[a]) {
+                int v = to[a];
+                if (cap[a] > 0 && level[v] < 0 && admissible(a, u, v)) {
+                    level[v] = level[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return level[sink] >= 0;
+    }
+
+    /**
+     * Pushes one augmenting path along increasing levels.
+     *
+     * @param u the current node
+     * @param sink the sink node
+     * @param limit the flow that can still be pushed to u
+     * @return the flow pushed, 0 if u is a dead end
+     */
+    private int push(int u, int sink, int limit) {
+        if (u == sink) return limit;
+        for (; cursor[u] >= 0; cursor[u] = next[cursor[u]]) {
+            int a = cursor[u];
+            int v = to[a];
+            if (cap[a] > 0 && level[v] == level[u] + 1 && admissible(a, u, v)) {
+                int pushed = push(v, sink, Math.min(limit, cap[a]));
+                if (pushed > 0) {
+                    cap[a] -= pushed;
+                    cap[a ^ 1] += pushed;
+                    return pushed;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private boolean admissible(int a, int u, int v) {
+        return cost[a] + potential[u] - potential[v] == 0;
+    }
+
+    private void link(int a, int from, int target, int capacity, int arcCost) {
+        to[a] = target;
+        cap[a] = capacity;
+        cost[a] = arcCost;
+        next[a] = head[from];
+        head[from] = a;
+    }
+
+    private void grow() {
+        int n = to.length * 2;
+        next = Arrays.copyOf(next, n);
+        to = Arrays.copyOf(to, n);
+        cap = Arrays.copyOf(cap, n);
+        cost = Arrays.copyOf(cost, n);
+    }
+}
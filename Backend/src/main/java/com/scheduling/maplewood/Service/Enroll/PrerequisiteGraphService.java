@@ -0,0 +1,233 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Entity.Course;
+import com.scheduling.maplewood.Repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrerequisiteGraphService {
+
+    private final CourseRepository courseRepository;
+
+    private volatile PrerequisiteGraph graph;
+
+    /**
+     * The prerequisite graph of all courses, loaded in one query.
+     *
+     * Every course gets a dense index. ancestors[i] holds the indexes of all courses on the
+     * prerequisite chain of course i (its direct prerequisite, that one's prerequisite, and so on).
+     * Courses whose chain runs into a cycle are flagged and never have their prerequisites satisfied.
+     */
+    public static class PrerequisiteGraph {
+        private final Map<Integer, Integer> index;
+        private final int[] courseIds;
+        private final int[] parent;
+        private final BitSet[] ancestors;
+        private final BitSet cyclic;
+
+        PrerequisiteGraph(Map<Integer, Integer> index, int[] courseIds, int[] parent, BitSet[] ancestors, BitSet cyclic) {
+            this.index = index;
+            this.courseIds = courseIds;
+            this.parent = parent;
+            this.ancestors = ancestors;
+            this.cyclic = cyclic;
+        }
+
+        /**
+         * Returns the dense index of a course, or -1 if the course is unknown.
+         *
+         * @param courseId the course's id
+         * @return the course's index, or -1
+         */
+        public int indexOf(Integer courseId) {
+            Integer i = courseId == null ? null : index.get(courseId);
+            return i == null ? -1 : i;
+        }
+
+        /**
+         * Returns the course id stored at the given index.
+         *
+         * @param i the course's index
+         * @return the course's id
+         */
+        public int courseIdAt(int i) {
+            return courseIds[i];
+        }
+
+        /**
+         * Returns the number of courses in the graph.
+         *
+         * @return the number of courses
+         */
+        public int size() {
+            return courseIds.length;
+        }
+
+        /**
+         * Returns the index of the direct prerequisite of the course at the given index, or -1 if it has none.
+         *
+         * @param i the course's index
+         * @return the prerequisite's index, or -1
+         */
+        public int parentOf(int i) {
+            return parent[i];
+        }
+
+        /**
+         * Returns the ancestors of the course at the given index. The returned set must not be modified.
+         *
+         * @param i the course's index
+         * @return the indexes of all transitive prerequisites
+         */
+        public BitSet ancestorsOf(int i) {
+            return ancestors[i];
+        }
+
+        /**
+         * Returns true if the prerequisite chain of the course at the given index contains a cycle.
+         *
+         * @param i the course's index
+         * @return true if the chain is cyclic
+         */
+        public boolean isCyclic(int i) {
+            return cyclic.get(i);
+        }
+
+        /**
+         * Converts a collection of course ids to a bitset over this graph's course indexes.
+         * Unknown course ids are ignored.
+         *
+         * @param courseIds the course ids
+         * @return the bitset of course indexes
+         */
+        public BitSet toBitSet(Collection<Integer> courseIds) {
+            BitSet bits = new BitSet(this.courseIds.length);
+            for (Integer id : courseIds) {
+                int i = indexOf(id);
+                if (i >= 0) bits.set(i);
+            }
+            return bits;
+        }
+
+        /**
+         * Checks whether every transitive prerequisite of a course is among the passed courses.
+         *
+         * @param courseId the course to check
+         * @param passed the passed courses as a bitset built by {@link #toBitSet(Collection)}
+         * @return true if the prerequisites are satisfied, false if not or if the course is unknown or cyclic
+         */
+        public boolean prerequisitesSatisfied(Integer courseId, BitSet passed) {
+            int i = indexOf(courseId);
+            if (i < 0 || cyclic.get(i)) return false;
+            BitSet a = ancestors[i];
+            if (a.isEmpty()) return true;
+            BitSet missing = (BitSet) a.clone();
+            missing.andNot(passed);
+            return missing.isEmpty();
+        }
+    }
+
+    /**
+     * Returns the prerequisite graph, loading it on first use or after an invalidation.
+     *
+     * @return the current prerequisite graph
+     */
+    public PrerequisiteGraph getGraph() {
+        PrerequisiteGraph g = graph;
+        if (g != null) return g;
+        synchronized (this) {
+            if (graph == null) graph = load(courseRepository.findAll());
+            return graph;
+        }
+    }
+
+    /**
+     * Drops the cached graph so the next call reloads it from the courses table.
+     */
+    public void invalidate() {
+        graph = null;
+    }
+
+    /**
+     * Checks whether a student who passed the given courses has satisfied the prerequisites of a course.
+     *
+     * @param courseId the course to check
+     * @param passedCourseIds the ids of the courses the student has passed
+     * @return true if the prerequisites are satisfied, false otherwise
+     */
+    public boolean prerequisitesSatisfied(Integer courseId, Collection<Integer> passedCourseIds) {
+        PrerequisiteGraph g = getGraph();
+        return g.prerequisitesSatisfied(courseId, g.toBitSet(passedCourseIds));
+    }
+
+    /**
+     * Builds the graph from a list of courses.
+     *
+     * Since every course has at most one direct prerequisite, the ancestors of a course are its
+     * parent's ancestors plus the parent. They are filled in with an iterative walk up each chain;
+     * reaching a course that is already on the current walk means the chain is cyclic.
+     *
+     * @param courses all courses
+     * @return the prerequisite graph
+     */
+    private PrerequisiteGraph load(List<Course> courses) {
+        int n = courses.size();
+        int[] courseIds = new int[n];
+        Map<Integer, Integer> index = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            courseIds[i] = courses.get(i).getId();
+            index.put(courseIds[i], i);
+        }
+
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            Integer p = courses.get(i).getPrerequisiteId();
+            Integer pi = p == null ? null : index.get(p);
+            parent[i] = pi == null ? -1 : pi;
+        }
+
+        BitSet[] ancestors = new BitSet[n];
+        BitSet cyclic = new BitSet(n);
+        byte[] state = new byte[n]; // 0 = new, 1 = on the current walk, 2 = done
+        Deque<Integer> walk = new ArrayDeque<>();
+
+        for (int start = 0; start < n; start++) {
+            int cur = start;
+            while (cur >= 0 && state[cur] == 0) {
+                state[cur] = 1;
+                walk.push(cur);
+                cur = parent[cur];
+            }
+
+            boolean inCycle = cur >= 0 && (state[cur] == 1 || cyclic.get(cur));
+            BitSet above = cur >= 0 && state[cur] == 2 ? ancestors[cur] : new BitSet(n);
+
+            while (!walk.isEmpty()) {
+                int node = walk.pop();
+                if (inCycle) {
+                    cyclic.set(node);
+                    ancestors[node] = new BitSet(n);
+                } else {
+                    BitSet a = (BitSet) above.clone();
+                    if (parent[node] >= 0) a.set(parent[node]);
+                    ancestors[node] = a;
+                    above = a;
+                }
+                state[node] = 2;
+            }
+        }
+
+        if (!cyclic.isEmpty()) {
+            List<Integer> ids = cyclic.stream().map(i -> courseIds[i]).boxed().toList();
+            log.warn("Prerequisite cycle detected, courses will be treated as unsatisfiable: {}", ids);
+        }
+
+        return new PrerequisiteGraph(index, courseIds, parent, ancestors, cyclic);
+    }
+}
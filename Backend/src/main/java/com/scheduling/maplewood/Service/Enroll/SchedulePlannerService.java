@@ -0,0 +1,227 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.PlanRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the conflict-free section combinations of a list of courses for one student and semester.
+ *
+ * Every course contributes the sections that still have a seat and do not overlap the student's
+ * current schedule. Courses are tried fewest-candidates first and a section is only added when its
+ * weekly mask does not intersect the masks chosen so far, so dead branches are cut as soon as they
+ * appear. Complete combinations are ranked by gap time, then latest finish, then number of days,
+ * and only the best K are kept.
+ */
+@Service
+@RequiredArgsConstructor
+public class SchedulePlannerService {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_NODES = 200_000;
+
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseSectionRepository courseSectionRepository;
+    private final SectionMeetingRepository sectionMeetingRepository;
+    private final EnrollmentContextLoader enrollmentContextLoader;
+    private final EnrollmentService enrollmentService;
+    private final BusyMaskService busyMaskService;
+    private final SeatLedger seatLedger;
+
+    /**
+     * A complete combination with its ranking measures.
+     */
+    private record Plan(int[] sectionIds, int gapMinutes, int latestEnd, int days) {
+    }
+
+    private static final Comparator<Plan> RANKING = Comparator
+            .comparingInt(Plan::gapMinutes)
+            .thenComparingInt(Plan::latestEnd)
+            .thenComparingInt(Plan::days)
+            .thenComparing(Plan::sectionIds, Arrays::compare);
+
+    /**
+     * Returns the best conflict-free section combinations of the requested courses.
+     *
+     * @param req the student, the semester, the course ids and the number of combinations wanted
+     * @return a map with the ranked combinations
+     * @throws EnrollmentException if the student cannot take one of the courses or would exceed the semester maximum
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> plan(PlanRequest req) {
+
+        Integer studentId = req.getStudentId();
+        Integer semesterId = req.getSemesterId();
+        List<Integer> courseIds = req.getCourseIds() == null ? List.of()
+                : req.getCourseIds().stream().filter(Objects::nonNull).distinct().toList();
+        int limit = Math.min(MAX_LIMIT, req.getLimit() == null || req.getLimit() <= 0 ? DEFAULT_LIMIT : req.getLimit());
+
+        if (studentId == null || semesterId == null || courseIds.isEmpty()) {
+            throw new EnrollmentException("studentId, semesterId and at least one courseId are required.");
+        }
+
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new EnrollmentException("Student not found: " + studentId));
+        Map<Integer, Course> courses = courseRepository.findAllById(courseIds).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+        for (Integer id : courseIds) {
+            if (!courses.containsKey(id)) throw new EnrollmentException("Course not found: " + id);
+        }
+
+        EnrollmentContext ctx = enrollmentContextLoader.load(student, semesterId);
+        if (ctx.enrolledCount() + courseIds.size() > EnrollmentService.MAX_COURSES_PER_SEMESTER) {
+            throw new EnrollmentException("Student reached maximum courses for this semester.");
+        }
+        for (Integer id : courseIds) enrollmentService.validateEligible(ctx, courses.get(id));
+
+        Map<Integer, List<CourseSection>> sectionsByCourse = courseSectionRepository.findBySemesterId(semesterId).stream()
+                .filter(cs -> courses.containsKey(cs.getCourseId()))
+                .collect(Collectors.groupingBy(CourseSection::getCourseId));
+        List<Integer> allSections = sectionsByCourse.values().stream()
+                .flatMap(List::stream).map(CourseSection::getId).toList();
+        Map<Integer, WeeklyBusyMask> masks = busyMaskService.sectionMasks(allSections);
+        Map<Integer, Integer> occupied = seatLedger.occupied(allSections);
+
+        // Candidate sections per course: a free seat and no overlap with the current schedule
+        List<List<CourseSection>> candidates = new ArrayList<>();
+        for (Integer id : courseIds) {
+            List<CourseSection> open = sectionsByCourse.getOrDefault(id, List.of()).stream()
+                    .filter(cs -> cs.getCapacity() == null || occupied.get(cs.getId()) < cs.getCapacity())
+                    .filter(cs -> !masks.get(cs.getId()).intersects(ctx.getBusyMask()))
+                    .sorted(Comparator.comparing(CourseSection::getId))
+                    .toList();
+            if (open.isEmpty()) {
+                throw new EnrollmentException("No open section fits the current schedule for course: "
+                        + courses.get(id).getCode());
+            }
+            candidates.add(open);
+        }
+        candidates.sort(Comparator.comparingInt(List::size));
+
+        PriorityQueue<Plan> best = new PriorityQueue<>(RANKING.reversed());
+        int[] chosen = new int[candidates.size()];
+        int[] nodes = {0};
+        search(candidates, 0, ctx.getBusyMask(), chosen, masks, best, limit, nodes);
+
+        List<Plan> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+
+        Map<Integer, CourseSection> sectionById = sectionsByCourse.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(CourseSection::getId, Function.identity()));
+        Map<Integer, List<SectionMeeting>> meetings = sectionMeetingRepository.findBySectionIdIn(ranked.stream()
+                        .flatMapToInt(p -> Arrays.stream(p.sectionIds()))
+                        .boxed()
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.groupingBy(SectionMeeting::getSectionId));
+
+        List<Map<String, Object>> combinations = new ArrayList<>();
+        for (int i = 0; i < ranked.size(); i++) {
+            Plan p = ranked.get(i);
+            List<Map<String, Object>> sections = new ArrayList<>();
+            for (int sectionId : p.sectionIds()) {
+                CourseSection cs = sectionById.get(sectionId);
+                Course course = courses.get(cs.getCourseId());
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("sectionId", sectionId);
+                item.put("courseId", course.getId());
+                item.put("course", course.getCode() + " - " + course.getName());
+                item.put("schedule", schedule(meetings.getOrDefault(sectionId, List.of())));
+                sections.add(item);
+            }
+            Map<String, Object> combination = new LinkedHashMap<>();
+            combination.put("rank", i + 1);
+            combination.put("gapMinutes", p.gapMinutes());
+            combination.put("latestFinish", String.format("%02d:%02d", p.latestEnd() / 60, p.latestEnd() % 60));
+            combination.put("days", p.days());
+            combination.put("sections", sections);
+            combinations.add(combination);
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("message", combinations.isEmpty()
+                ? "No conflict-free combination of these courses."
+                : "Combinations found.");
+        out.put("studentId", studentId);
+        out.put("semesterId", semesterId);
+        out.put("complete", nodes[0] < MAX_NODES);
+        out.put("combinations", combinations);
+        return out;
+    }
+
+    /**
+     * Depth-first search over the courses, adding one section per course while the masks stay disjoint.
+     *
+     * @param candidates the candidate sections of each course, in search order
+     * @param depth the index of the course to place next
+     * @param busy the busy mask of the current schedule plus the sections chosen so far
+     * @param chosen the sections chosen so far, by depth
+     * @param masks the weekly masks of the sections
+     * @param best the best complete combinations found so far, worst on top
+     * @param limit the number of combinations to keep
+     * @param nodes the number of search nodes visited, to stop on pathological inputs
+     */
+    private void search(List<List<CourseSection>> candidates, int depth, WeeklyBusyMask busy, int[] chosen,
+                        Map<Integer, WeeklyBusyMask> masks, PriorityQueue<Plan> best, int limit, int[] nodes) {
+        if (depth == candidates.size()) {
+            int[] ids = chosen.clone();
+            Arrays.sort(ids);
+            Plan plan = new Plan(ids, busy.gapMinutes(), busy.latestEndMinute(), busy.daysUsed());
+            if (best.size() < limit) {
+                best.add(plan);
+            } else if (RANKING.compare(plan, best.peek()) < 0) {
+                best.poll();
+                best.add(plan);
+            }
+            return;
+        }
+        for (CourseSection cs : candidates.get(depth)) {
+            if (++nodes[0] >= MAX_NODES) return;
+            WeeklyBusyMask mask = masks.get(cs.getId());
+            if (mask.intersects(busy)) continue;
+            chosen[depth] = cs.getId();
+            search(candidates, depth + 1, busy.or(mask), chosen, masks, best, limit, nodes);
+        }
+    }
+
+    /**
+     * Formats the meetings of a section as "DAY 9AM-10AM" strings, in week order.
+     *
+     * @param meetings the section's meetings
+     * @return the formatted meetings
+     */
+    private List<String> schedule(List<SectionMeeting> meetings) {
+        Map<String, Integer> dayOrder = Map.of("MONDAY",1,"TUESDAY",2,"WEDNESDAY",3,"THURSDAY",4,"FRIDAY",5);
+        return meetings.stream()
+                .sorted(Comparator.comparingInt(m -> dayOrder.getOrDefault(m.getDayOfWeek().toUpperCase(), 99)))
+                .map(m -> m.getDayOfWeek() + " " + formatTime(m.getStartTime()) + "-" + formatTime(m.getEndTime()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Formats a given time string such as "13:00" as "1PM".
+     *
+     * @param time the time string to format
+     * @return the formatted time string
+     */
+    private String formatTime(String time) {
+        if (time == null || time.isBlank()) return "";
+        java.time.LocalTime t = java.time.LocalTime.parse(time);
+        int hour = t.getHour();
+        String ampm = hour >= 12 ? "PM" : "AM";
+        int h = hour % 12;
+        if (h == 0) h = 12;
+        return h + ampm;
+    }
+}
@@ -1,5 +1,6 @@
 package com.scheduling.maplewood.Service.Enroll;
 
+import com.scheduling.maplewood.Dto.StudentScheduleResponse;
 import com.scheduling.maplewood.Entity.*;
 import com.scheduling.maplewood.Repository.*;
 import lombok.RequiredArgsConstructor;
@@ -25,9 +26,9 @@ public class ScheduleService {
      * 
      * @param studentId the student's ID
      * @param semesterId the semester's ID
-     * @return a map containing the student's information and a list of sections they are enrolled in
+     * @return the student's information and a list of sections they are enrolled in
      */
-    public Map<String, Object> getStudentScheduleResponse(Integer studentId, Integer semesterId) {
+    public StudentScheduleResponse getStudentScheduleResponse(Integer studentId, Integer semesterId) {
         Student student = studentRepository.findById(studentId).orElse(null);
 
         List<StudentEnrollment> enrollments = studentEnrollmentRepository.findByStudentId(studentId).stream()
@@ -39,31 +40,26 @@ public class ScheduleService {
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
 
-        List<Map<String, Object>> sectionList = sections.stream()
+        List<StudentScheduleResponse.Item> sectionList = sections.stream()
                 .map(this::mapSectionToScheduleItem)
                 .collect(Collectors.toList());
 
-        Map<String, Object> response = new LinkedHashMap<>();
+        StudentScheduleResponse.Student studentInfo = new StudentScheduleResponse.Student(
+                student != null ? student.getId() : null,
+                student != null ? student.getFirstName() + " " + student.getLastName() : "Unknown",
+                student != null ? student.getEmail() : "Unknown",
+                student != null ? student.getGradeLevel() : null);
 
-        Map<String, Object> studentInfo = new LinkedHashMap<>();
-        studentInfo.put("id", student != null ? student.getId() : null);
-        studentInfo.put("name", student != null ? student.getFirstName() + " " + student.getLastName() : "Unknown");
-        studentInfo.put("email", student != null ? student.getEmail() : "Unknown");
-        studentInfo.put("Grade level", student != null ? student.getGradeLevel() : null);
-
-        response.put("student", studentInfo);
-        response.put("sections", sectionList);
-
-        return response;
+        return new StudentScheduleResponse(studentInfo, sectionList);
     }
 
     /**
      * Maps a CourseSection to a detailed item containing its course name, teacher name, room name, schedule, and student count.
      *
      * @param s the CourseSection to map
-     * @return a map containing the detailed item
+     * @return the detailed item
      */
-    private Map<String, Object> mapSectionToScheduleItem(CourseSection s) {
+    private StudentScheduleResponse.Item mapSectionToScheduleItem(CourseSection s) {
         Course course = courseRepository.findById(s.getCourseId()).orElse(null);
         Teacher teacher = teacherRepository.findById(s.getTeacherId()).orElse(null);
         Classroom room = classroomRepository.findById(s.getRoomId()).orElse(null);
@@ -79,13 +75,12 @@ public class ScheduleService {
         int enrolled = studentEnrollmentRepository.findBySectionId(s.getId()).size();
         int available = s.getCapacity() == null ? 0 : s.getCapacity() - enrolled;
 
-        Map<String,Object> out = new LinkedHashMap<>();
-        out.put("course", (course != null ? course.getCode() : "UNKNOWN") + " - " + (course != null ? course.getName() : "Unknown"));
-        out.put("teacher", teacher != null ? teacher.getFirstName() + " " + teacher.getLastName() : "TBD");
-        out.put("room", room != null ? room.getName() : "TBD");
-        out.put("schedule", schedule);
-        out.put("students", enrolled + " (" + (available <= 0 ? "capacity full" : available + " spots available") + ")");
-        return out;
+        return new StudentScheduleResponse.Item(
+                (course != null ? course.getCode() : "UNKNOWN") + " - " + (course != null ? course.getName() : "Unknown"),
+                teacher != null ? teacher.getFirstName() + " " + teacher.getLastName() : "TBD",
+                room != null ? room.getName() : "TBD",
+                schedule,
+                enrolled + " (" + (available <= 0 ? "capacity full" : available + " spots available") + ")");
     }
 
     /**
@@ -0,0 +1,440 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Event.TransactionHooks;
+import com.scheduling.maplewood.Repository.SectionWaitlistRepository;
+import com.scheduling.maplewood.Repository.StudentEnrollmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Live seat counts of the sections, kept in memory.
+ *
+ * Every section has three counts: taken seats (enrollments), queued seats (waitlist entries), both
+ * loaded from the database on first use, and held seats (temporary cart holds, memory only). All three
+ * count against the capacity, so a seat freed in a section with a waitlist stays kept for the head of
+ * the queue: only {@link #tryReserveFromWaitlist} may claim it, and an enrollment deleted, a hold released
+ * or a reservation rolled back in such a section schedules its promotion once the seat is counted as free.
+ * A section's counts are only changed under its own monitor, so a check against the capacity and the
+ * increment that follows it are atomic.
+ *
+ * Evicting a section reloads its taken count from the database on next use; its holds are kept.
+ * Reservations and releases of transactions that have not completed yet are counted as in flight:
+ * the database cannot tell whether they are included in a count, so the reload of an evicted section
+ * waits until none are in flight and the stored count is kept until then. A count read while a change
+ * started or completed is discarded as well.
+ */
+@Service
+@RequiredArgsConstructor
+public class SeatLedger {
+
+    private final StudentEnrollmentRepository studentEnrollmentRepository;
+    private final SectionWaitlistRepository sectionWaitlistRepository;
+    private final ObjectProvider<WaitlistService> waitlistService;
+
+    private static final class Seats {
+        private boolean loaded;
+        private boolean stale;
+        private int inFlight;
+        private int version;
+        private int taken;
+        private int queued;
+        private int held;
+    }
+
+    private final Map<Integer, Seats> seats = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the live number of enrolled seats of a section.
+     *
+     * @param sectionId the section's id
+     * @return the number of taken seats
+     */
+    public int taken(Integer sectionId) {
+        Seats s = loaded(sectionId);
+        synchronized (s) {
+            return s.taken;
+        }
+    }
+
+    /**
+     * Returns the live number of occupied seats (enrolled, held or kept for the waitlist) of a section.
+     *
+     * @param sectionId the section's id
+     * @return the number of occupied seats
+     */
+    public int occupied(Integer sectionId) {
+        Seats s = loaded(sectionId);
+        synchronized (s) {
+            return s.taken + s.held + s.queued;
+        }
+    }
+
+    /**
+     * Returns the live number of occupied seats (enrolled, held or kept for the waitlist) of several sections.
+     * Taken counts not loaded yet are loaded together with a single grouped count query.
+     *
+     * @param sectionIds the sections' ids
+     * @return a map of section id to occupied seats, with an entry for every requested section
+     */
+    public Map<Integer, Integer> occupied(Collection<Integer> sectionIds) {
+        loadAll(sectionIds);
+        Map<Integer, Integer> out = new HashMap<>();
+        for (Integer id : sectionIds) out.put(id, occupied(id));
+        return out;
+    }
+
+    /**
+     * Returns the number of seats of several sections that are held in carts or kept for their waitlists.
+     *
+     * @param sectionIds the sections' ids
+     * @return a map of section id to held and queued seats, with an entry for every requested section
+     */
+    public Map<Integer, Integer> heldOrQueued(Collection<Integer> sectionIds) {
+        loadAll(sectionIds);
+        Map<Integer, Integer> out = new HashMap<>();
+        for (Integer id : sectionIds) {
+            Seats s = seats.get(id);
+            synchronized (s) {
+                out.put(id, s.held + s.queued);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Atomically takes a seat of a section for an enrollment being written in the current transaction.
+     *
+     * The seat is only taken while enrolled, held and queued seats are below the capacity, so concurrent
+     * callers can never take more seats than the section has, nor a seat kept for its waitlist.
+     * If the transaction does not commit, the seat is given back.
+     *
+     * @param sectionId the section's id
+     * @param capacity the section's capacity, or null for unlimited
+     * @return true if a seat was taken, false if the section is full
+     */
+    public boolean tryReserve(Integer sectionId, Integer capacity) {
+        Seats s = loaded(sectionId);
+        synchronized (s) {
+            if (capacity != null && s.taken + s.held + s.queued >= capacity) return false;
+            s.taken++;
+            begin(s);
+        }
+        onCompletion(s, () -> {}, () -> {
+            s.taken--;
+            promoteIfQueued(s, sectionId);
+        });
+        return true;
+    }
+
+    /**
+     * Tells whether a section has a seat its waitlist can be promoted into: enrolled and held seats are
+     * below the capacity. Seats kept for the waitlist are free for this purpose.
+     *
+     * @param sectionId the section's id
+     * @param capacity the section's capacity, or null for unlimited
+     * @return true if the head of the waitlist can be promoted
+     */
+    public boolean hasSeatForWaitlist(Integer sectionId, Integer capacity) {
+        if (capacity == null) return true;
+        Seats s = loaded(sectionId);
+        synchronized (s) {
+            return s.taken + s.held < capacity;
+        }
+    }
+
+    /**
+     * Atomically takes a seat kept for the waitlist of a section, for the promotion of a waitlist entry
+     * deleted in the current transaction. If the transaction does not commit, the seat goes back to the queue.
+     *
+     * @param sectionId the section's id
+     * @param capacity the section's capacity, or null for unlimited
+     * @return true if a seat was taken, false if the section is full
+     */
+    public boolean tryReserveFromWaitlist(Integer sectionId, Integer capacity) {
+        Seats s = loaded(sectionId);
+        boolean dequeued;
+        synchronized (s) {
+            if (capacity != null && s.taken + s.held >= capacity) return false;
+            s.taken++;
+            dequeued = s.queued > 0;
+            if (dequeued) s.queued--;
+            begin(s);
+        }
+        onCompletion(s, () -> {}, () -> {
+            s.taken--;
+            if (dequeued) s.queued++;
+        });
+        return true;
+    }
+
+    /**
+     * Counts a waitlist entry of a section inserted in the current transaction, so one more freed seat
+     * is kept for the queue. If the transaction does not commit, the count is given back.
+     *
+     * @param sectionId the section's id
+     */
+    public void enqueue(Integer sectionId) {
+        Seats s = loaded(sectionId);
+        synchronized (s) {
+            s.queued++;
+            begin(s);
+        }
+        onCompletion(s, () -> {}, () -> s.queued--);
+    }
+
+    /**
+     * Uncounts a waitlist entry of a section deleted in the current transaction without being promoted.
+     * If the transaction does not commit, the entry is counted again.
+     *
+     * @param sectionId the section's id
+     */
+    public void dequeue(Integer sectionId) {
+        Seats s = loaded(sectionId);
+        boolean dequeued;
+        synchronized (s) {
+            dequeued = s.queued > 0;
+            if (dequeued) s.queued--;
+            begin(s);
+        }
+        onCompletion(s, () -> {}, () -> {
+            if (dequeued) s.queued++;
+        });
+    }
+
+    /**
+     * Places a temporary hold on a seat of a section.
+     *
+     * @param sectionId the section's id
+     * @param capacity the section's capacity, or null for unlimited
+     * @return true if the seat was held, false if the section is full
+     */
+    public boolean tryHold(Integer sectionId, Integer capacity) {
+        Seats s = loaded(sectionId);
+        synchronized (s) {
+            if (capacity != null && s.taken + s.held + s.queued >= capacity) return false;
+            s.held++;
+            return true;
+        }
+    }
+
+    /**
+     * Releases a hold placed with {@link #tryHold}.
+     *
+     * @param sectionId the section's id
+     */
+    public void releaseHold(Integer sectionId) {
+        Seats s = seats.get(sectionId);
+        if (s == null) return;
+        synchronized (s) {
+            if (s.held > 0) s.held--;
+            promoteIfQueued(s, sectionId);
+        }
+    }
+
+    /**
+     * Turns a hold into a taken seat for an enrollment being written in the current transaction.
+     * The capacity is not checked again since the held seat is already counted. If the transaction
+     * does not commit, the seat goes back to being held, or is released if the hold is not kept any more;
+     * the caller must not release it itself then.
+     *
+     * @param sectionId the section's id
+     * @param keepHold tells, on rollback, whether the hold is still in the cart
+     */
+    public void convertHold(Integer sectionId, BooleanSupplier keepHold) {
+        Seats s = loaded(sectionId);
+        synchronized (s) {
+            if (s.held > 0) s.held--;
+            s.taken++;
+            begin(s);
+        }
+        onCompletion(s, () -> {}, () -> {
+            s.taken--;
+            if (keepHold.getAsBoolean()) s.held++;
+            else promoteIfQueued(s, sectionId);
+        });
+    }
+
+    /**
+     * Gives back a seat of a section whose enrollment is deleted in the current transaction.
+     * The count is decremented once the transaction commits, and the section's waitlist is promoted
+     * right after, under the same monitor, so the promotion always sees the freed seat. If the count
+     * is not loaded there is nothing to adjust and the promotion loads it once the deletion is committed.
+     *
+     * @param sectionId the section's id
+     */
+    public void releaseAfterCommit(Integer sectionId) {
+        if (sectionId == null) return;
+        Seats s = seats.get(sectionId);
+        if (s == null) {
+            waitlistService.ifAvailable(w -> TransactionHooks.afterCommit(() -> w.schedulePromotion(sectionId)));
+            return;
+        }
+        Runnable release = () -> {
+            if (s.loaded && s.taken > 0) s.taken--;
+            promoteIfQueued(s, sectionId);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (s) {
+                release.run();
+            }
+            return;
+        }
+        synchronized (s) {
+            begin(s);
+        }
+        onCompletion(s, release, () -> {});
+    }
+
+    /**
+     * Marks the taken count of a section stale, so it is reloaded from the enrollments table on next use
+     * once no change of the section is in flight. Holds are kept.
+     *
+     * @param sectionId the section's id
+     */
+    public void evict(Integer sectionId) {
+        if (sectionId == null) return;
+        Seats s = seats.get(sectionId);
+        if (s == null) return;
+        synchronized (s) {
+            s.stale = true;
+            s.version++;
+        }
+    }
+
+    /**
+     * Returns the seats of a section, loading its taken count from the enrollments table if needed.
+     *
+     * @param sectionId the section's id
+     * @return the section's seats
+     */
+    private Seats loaded(Integer sectionId) {
+        Seats s = seats.computeIfAbsent(sectionId, k -> new Seats());
+        int version;
+        synchronized (s) {
+            if (!needsLoad(s)) return s;
+            version = s.version;
+        }
+        int taken = (int) studentEnrollmentRepository.countBySectionId(sectionId);
+        int queued = (int) sectionWaitlistRepository.countBySectionId(sectionId);
+        synchronized (s) {
+            store(s, taken, queued, version);
+        }
+        return s;
+    }
+
+    /**
+     * Tells whether the taken and queued counts of a section have to be read from the database: they were
+     * never loaded, or they are stale and no change is in flight. Must be called under the section's monitor.
+     *
+     * @param s the section's seats
+     * @return true if the count has to be read
+     */
+    private static boolean needsLoad(Seats s) {
+        return !s.loaded || (s.stale && s.inFlight == 0);
+    }
+
+    /**
+     * Stores the counts read from the database. A first load is always kept; a reload only if nothing
+     * changed while it was read, otherwise the section stays stale and is read again on next use.
+     * Must be called under the section's monitor.
+     *
+     * @param s the section's seats
+     * @param taken the enrollments read
+     * @param queued the waitlist entries read
+     * @param version the version of the seats when the read started
+     */
+    private static void store(Seats s, int taken, int queued, int version) {
+        if (s.version == version && s.inFlight == 0) {
+            s.stale = false;
+        } else if (s.loaded) {
+            return;
+        }
+        s.taken = taken;
+        s.queued = queued;
+        s.loaded = true;
+    }
+
+    /**
+     * Loads the counts of the sections not loaded yet with one grouped count query per table.
+     *
+     * @param sectionIds the sections' ids
+     */
+    private void loadAll(Collection<Integer> sectionIds) {
+        Map<Integer, Integer> missing = new HashMap<>();
+        for (Integer id : sectionIds) {
+            Seats s = seats.computeIfAbsent(id, k -> new Seats());
+            synchronized (s) {
+                if (needsLoad(s)) missing.put(id, s.version);
+            }
+        }
+        if (missing.isEmpty()) return;
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Object[] row : studentEnrollmentRepository.countBySectionIdIn(missing.keySet())) {
+            counts.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
+        Map<Integer, Integer> queues = new HashMap<>();
+        for (Object[] row : sectionWaitlistRepository.countBySectionIdIn(missing.keySet())) {
+            queues.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
+        for (Map.Entry<Integer, Integer> e : missing.entrySet()) {
+            Seats s = seats.get(e.getKey());
+            synchronized (s) {
+                store(s, counts.getOrDefault(e.getKey(), 0), queues.getOrDefault(e.getKey(), 0), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Schedules the promotion of a section's waitlist if a seat was freed while students are queued,
+     * or while the queue is not counted yet. Must be called under the section's monitor, after the seat was freed.
+     *
+     * @param s the section's seats
+     * @param sectionId the section's id
+     */
+    private void promoteIfQueued(Seats s, Integer sectionId) {
+        if (!s.loaded || s.queued > 0) waitlistService.ifAvailable(w -> w.schedulePromotion(sectionId));
+    }
+
+    /**
+     * Records a change of a section's counts, counting it as in flight if a transaction is active.
+     * Must be called under the section's monitor, together with the change.
+     *
+     * @param s the section's seats
+     */
+    private static void begin(Seats s) {
+        s.version++;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) s.inFlight++;
+    }
+
+    /**
+     * Once the current transaction completes, ends the in-flight change started with {@link #begin}
+     * and runs the action matching the outcome under the section's monitor. Without a transaction
+     * the change is already final and nothing runs.
+     *
+     * @param s the section's seats
+     * @param onCommit the action to run if the transaction commits
+     * @param onRollback the action to run if it does not
+     */
+    private static void onCompletion(Seats s, Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (s) {
+                    s.inFlight--;
+                    s.version++;
+                    if (status == STATUS_COMMITTED) onCommit.run();
+                    else onRollback.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-student locks that serialize the check-then-insert of a student's enrollments.
+ *
+ * A lock is taken inside a transaction and released only once that transaction has completed,
+ * so the next writer for the same student reads the committed state of the previous one.
+ */
+@Component
+public class StudentLocks {
+
+    private static final int STRIPES = 256;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public StudentLocks() {
+        for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+    }
+
+    /**
+     * Locks a student until the current transaction completes.
+     *
+     * @param studentId the student's id
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void lockUntilCompletion(Integer studentId) {
+        lockStripesUntilCompletion(new TreeSet<>(List.of(stripe(studentId))));
+    }
+
+    /**
+     * Locks several students until the current transaction completes.
+     * Stripes are taken in ascending order so concurrent callers cannot deadlock.
+     *
+     * @param studentIds the students' ids
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void lockAllUntilCompletion(Collection<Integer> studentIds) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Integer id : studentIds) stripes.add(stripe(id));
+        lockStripesUntilCompletion(stripes);
+    }
+
+    /**
+     * Takes the given stripes in order and registers their release after the transaction completes.
+     *
+     * @param stripes the stripe indexes, in ascending order
+     */
+    private void lockStripesUntilCompletion(TreeSet<Integer> stripes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Student locks can only be taken inside a transaction.");
+        }
+        for (Integer s : stripes) locks[s].lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (Integer s : stripes.descendingSet()) locks[s].unlock();
+            }
+        });
+    }
+
+    /**
+     * Maps a student to its lock stripe.
+     *
+     * @param studentId the student's id
+     * @return the stripe index
+     */
+    private int stripe(Integer studentId) {
+        return Math.floorMod(studentId == null ? 0 : studentId.hashCode(), STRIPES);
+    }
+}
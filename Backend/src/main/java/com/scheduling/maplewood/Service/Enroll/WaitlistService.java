@@ -0,0 +1,257 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.*;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Per-section waitlists with automatic promotion.
+ *
+ * A student joins the waitlist of a course when every section they could attend is full. They are
+ * placed on the non-conflicting section with the shortest queue; their position is the number of
+ * entries ahead of them plus one. Each entry keeps one seat of its section in the {@link SeatLedger},
+ * so a seat freed in a section with a queue cannot be claimed by a direct enrollment, swap, cart or bulk
+ * enrollment ahead of the queue. Whenever a seat of such a section is released (an enrollment is deleted,
+ * a hold is released or the capacity grows), the section's queue is worked off in order on a background
+ * thread: each head entry is re-validated (prerequisites, time conflicts, semester maximum) and either
+ * enrolled or dropped if the student is no longer eligible.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+
+    private final SectionWaitlistRepository sectionWaitlistRepository;
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseSectionRepository courseSectionRepository;
+    private final StudentEnrollmentRepository studentEnrollmentRepository;
+    private final EnrollmentContextLoader enrollmentContextLoader;
+    private final EnrollmentService enrollmentService;
+    private final BusyMaskService busyMaskService;
+    private final SeatLedger seatLedger;
+    private final StudentLocks studentLocks;
+    private final PlatformTransactionManager transactionManager;
+    private final LotteryGate lotteryGate;
+
+    private final ExecutorService promoter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "waitlist-promoter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Puts a student on the waitlist of a course.
+     *
+     * @param req the request with studentId, courseId, and semesterId
+     * @return a map with the waitlisted section and the student's position in its queue
+     * @throws EnrollmentException if the student could enroll right away or is not eligible for the course
+     */
+    @Transactional
+    public Map<String, Object> join(EnrollmentRequest req) {
+
+        Integer studentId = req.getStudentId();
+        Integer courseId = req.getCourseId();
+        Integer semesterId = req.getSemesterId();
+
+        if (studentId == null || courseId == null || semesterId == null) {
+            throw new EnrollmentException("studentId, courseId and semesterId are required.");
+        }
+        lotteryGate.requireDirectEnrollment(semesterId);
+
+        studentLocks.lockUntilCompletion(studentId);
+
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new EnrollmentException("Student not found: " + studentId));
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new EnrollmentException("Course not found: " + courseId));
+
+        List<CourseSection> sections = courseSectionRepository.findByCourseIdAndSemesterId(courseId, semesterId);
+        if (sections.isEmpty()) {
+            throw new EnrollmentException("No section available for this course in the selected semester.");
+        }
+        if (sectionWaitlistRepository.existsByStudentIdAndCourseIdAndSemesterId(studentId, courseId, semesterId)) {
+            throw new EnrollmentException("Student already on the waitlist for this course.");
+        }
+
+        EnrollmentContext ctx = enrollmentContextLoader.load(student, semesterId);
+        enrollmentService.validateEligible(ctx, course);
+
+        List<Integer> ids = sections.stream().map(CourseSection::getId).toList();
+        Map<Integer, WeeklyBusyMask> masks = busyMaskService.sectionMasks(ids);
+        Map<Integer, Integer> occupied = seatLedger.occupied(ids);
+        Map<Integer, Long> queued = new HashMap<>();
+        for (Object[] row : sectionWaitlistRepository.countBySectionIdIn(ids)) {
+            queued.put((Integer) row[0], ((Number) row[1]).longValue());
+        }
+
+        CourseSection best = null;
+        for (CourseSection cs : sections) {
+            if (masks.get(cs.getId()).intersects(ctx.getBusyMask())) continue;
+            if (cs.getCapacity() == null || occupied.get(cs.getId()) < cs.getCapacity()) {
+                throw new EnrollmentException("A seat is available in this course, enroll instead.");
+            }
+            if (best == null || queued.getOrDefault(cs.getId(), 0L) < queued.getOrDefault(best.getId(), 0L)) {
+                best = cs;
+            }
+        }
+        if (best == null) throw new EnrollmentException("Time conflict with existing schedule.");
+
+        SectionWaitlist entry = new SectionWaitlist();
+        entry.setStudentId(studentId);
+        entry.setCourseId(courseId);
+        entry.setSemesterId(semesterId);
+        entry.setSectionId(best.getId());
+        entry.setCreatedAt(LocalDateTime.now());
+        entry = sectionWaitlistRepository.saveAndFlush(entry);
+        seatLedger.enqueue(best.getId());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("message", "Added to the waitlist.");
+        response.put("sectionId", best.getId());
+        response.put("position", queued.getOrDefault(best.getId(), 0L) + 1);
+        return response;
+    }
+
+    /**
+     * Returns the waitlist entries of a student with their current positions.
+     *
+     * @param studentId the student's id
+     * @return a map with the student's id and a list of entries (section, course, semester, position)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> positions(Integer studentId) {
+        Map<Integer, Long> positions = new HashMap<>();
+        for (Object[] row : sectionWaitlistRepository.findPositionsByStudentId(studentId)) {
+            positions.put((Integer) row[0], ((Number) row[1]).longValue());
+        }
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (SectionWaitlist w : sectionWaitlistRepository.findByStudentId(studentId)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("sectionId", w.getSectionId());
+            item.put("courseId", w.getCourseId());
+            item.put("semesterId", w.getSemesterId());
+            item.put("position", positions.getOrDefault(w.getId(), 1L));
+            item.put("since", w.getCreatedAt());
+            entries.add(item);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("studentId", studentId);
+        response.put("waitlists", entries);
+        return response;
+    }
+
+    /**
+     * Schedules the promotion of a section's waitlist on the background promoter thread.
+     *
+     * @param sectionId the section whose seats were released
+     */
+    public void schedulePromotion(Integer sectionId) {
+        if (sectionId == null) return;
+        promoter.execute(() -> {
+            try {
+                promote(sectionId);
+            } catch (RuntimeException e) {
+                log.warn("Waitlist promotion of section {} failed: {}", sectionId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Promotes waitlisted students into a section while it has seats free of enrollments and holds.
+     * Every entry is handled in its own transaction; an entry whose student is no longer eligible is dropped.
+     *
+     * @param sectionId the section's id
+     * @return the number of students enrolled
+     */
+    public int promote(Integer sectionId) {
+        CourseSection section = courseSectionRepository.findById(sectionId).orElse(null);
+        if (section == null) return 0;
+        Course course = courseRepository.findById(section.getCourseId()).orElse(null);
+        if (course == null) return 0;
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int promoted = 0;
+        while (seatLedger.hasSeatForWaitlist(sectionId, section.getCapacity())) {
+            SectionWaitlist head = sectionWaitlistRepository.findFirstBySectionIdOrderByIdAsc(sectionId).orElse(null);
+            if (head == null) break;
+
+            Boolean outcome = tx.execute(status -> promoteOne(head, section, course));
+            if (outcome == null) break;
+            if (outcome) promoted++;
+        }
+        return promoted;
+    }
+
+    /**
+     * Enrolls the head of a section's queue if they are still eligible, dropping their entry either way.
+     *
+     * @param entry the head entry
+     * @param section the section
+     * @param course the section's course
+     * @return true if enrolled, false if the entry was dropped, null if the seat was taken meanwhile
+     */
+    private Boolean promoteOne(SectionWaitlist entry, CourseSection section, Course course) {
+        studentLocks.lockUntilCompletion(entry.getStudentId());
+
+        Student student = studentRepository.findById(entry.getStudentId()).orElse(null);
+        if (student == null) {
+            drop(entry);
+            return false;
+        }
+
+        EnrollmentContext ctx = enrollmentContextLoader.load(student, entry.getSemesterId());
+        try {
+            enrollmentService.validateEligible(ctx, course);
+            enrollmentService.validateNoTimeConflict(ctx, section.getId());
+        } catch (EnrollmentException e) {
+            log.info("Dropping waitlist entry of student {} for section {}: {}",
+                    entry.getStudentId(), section.getId(), e.getMessage());
+            drop(entry);
+            return false;
+        }
+        if (!seatLedger.tryReserveFromWaitlist(section.getId(), section.getCapacity())) return null;
+
+        StudentEnrollment enrollment = new StudentEnrollment();
+        enrollment.setStudentId(entry.getStudentId());
+        enrollment.setCourseId(entry.getCourseId());
+        enrollment.setSemesterId(entry.getSemesterId());
+        enrollment.setSectionId(section.getId());
+        studentEnrollmentRepository.save(enrollment);
+        sectionWaitlistRepository.delete(entry);
+        return true;
+    }
+
+    /**
+     * Deletes a waitlist entry that is not promoted, giving its kept seat back to the section.
+     *
+     * @param entry the entry
+     */
+    private void drop(SectionWaitlist entry) {
+        sectionWaitlistRepository.delete(entry);
+        seatLedger.dequeue(entry.getSectionId());
+    }
+
+    /**
+     * Stops the promoter thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        promoter.shutdownNow();
+    }
+}
@@ -0,0 +1,180 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Entity.SectionMeeting;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * The busy time of a week as a fixed-size bitmask.
+ *
+ * The week is cut into 1 minute slots (7 days x 1440 slots, 158 words), one bit per slot. A meeting sets
+ * the slots from its start up to, but not including, its end, so two masks intersect exactly when two
+ * meetings overlap on the same day; a meeting ending at 9:52 does not conflict with one starting at 9:52
+ * or later. Times are taken to the minute, seconds being dropped from the start and rounded up at the end.
+ * Masks are immutable; combining them returns a new mask.
+ */
+public final class WeeklyBusyMask {
+
+    public static final int SLOT_MINUTES = 1;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int WORDS = (7 * SLOTS_PER_DAY + 63) / 64;
+
+    public static final WeeklyBusyMask EMPTY = new WeeklyBusyMask(new long[WORDS]);
+
+    private final long[] words;
+
+    private WeeklyBusyMask(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Builds the mask covering a collection of meetings.
+     * Meetings with a missing or unknown day or time are ignored.
+     *
+     * @param meetings the meetings to cover
+     * @return the mask of the meetings
+     */
+    public static WeeklyBusyMask of(Collection<SectionMeeting> meetings) {
+        if (meetings == null || meetings.isEmpty()) return EMPTY;
+        long[] w = new long[WORDS];
+        for (SectionMeeting m : meetings) {
+            int day = dayIndex(m.getDayOfWeek());
+            if (day < 0 || m.getStartTime() == null || m.getEndTime() == null) continue;
+            int start = LocalTime.parse(m.getStartTime()).toSecondOfDay() / 60;
+            int end = (LocalTime.parse(m.getEndTime()).toSecondOfDay() + 59) / 60;
+            int from = day * SLOTS_PER_DAY + start / SLOT_MINUTES;
+            int to = day * SLOTS_PER_DAY + (end + SLOT_MINUTES - 1) / SLOT_MINUTES;
+            for (int bit = from; bit < to; bit++) {
+                w[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return new WeeklyBusyMask(w);
+    }
+
+    /**
+     * Returns true if the two masks share at least one busy slot.
+     *
+     * @param other the mask to test against
+     * @return true if there is a time conflict, false otherwise
+     */
+    public boolean intersects(WeeklyBusyMask other) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((words[i] & other.words[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the union of this mask and another one.
+     *
+     * @param other the mask to add
+     * @return a new mask busy wherever either mask is busy
+     */
+    public WeeklyBusyMask or(WeeklyBusyMask other) {
+        long[] w = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) w[i] = words[i] | other.words[i];
+        return new WeeklyBusyMask(w);
+    }
+
+    /**
+     * Returns this mask without the slots of another one.
+     *
+     * @param other the mask to remove
+     * @return a new mask busy where this mask is busy and the other is not
+     */
+    public WeeklyBusyMask andNot(WeeklyBusyMask other) {
+        long[] w = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) w[i] = words[i] & ~other.words[i];
+        return new WeeklyBusyMask(w);
+    }
+
+    /**
+     * Returns true if no slot is busy.
+     *
+     * @return true if the mask is empty
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of days with at least one busy slot.
+     *
+     * @return the number of busy days
+     */
+    public int daysUsed() {
+        BitSet bits = BitSet.valueOf(words);
+        int days = 0;
+        for (int d = 0; d < 7; d++) {
+            int next = bits.nextSetBit(d * SLOTS_PER_DAY);
+            if (next >= 0 && next < (d + 1) * SLOTS_PER_DAY) days++;
+        }
+        return days;
+    }
+
+    /**
+     * Returns the free time between the first and the last busy slot of each day, summed over the week.
+     *
+     * @return the total gap time in minutes
+     */
+    public int gapMinutes() {
+        BitSet bits = BitSet.valueOf(words);
+        int gaps = 0;
+        for (int d = 0; d < 7; d++) {
+            int from = d * SLOTS_PER_DAY;
+            int first = bits.nextSetBit(from);
+            if (first < 0 || first >= from + SLOTS_PER_DAY) continue;
+            int last = bits.previousSetBit(from + SLOTS_PER_DAY - 1);
+            gaps += (last - first + 1) - bits.get(first, last + 1).cardinality();
+        }
+        return gaps * SLOT_MINUTES;
+    }
+
+    /**
+     * Returns the latest time of day any day of the week ends at.
+     *
+     * @return the minute of the day the latest busy slot ends, or 0 if the mask is empty
+     */
+    public int latestEndMinute() {
+        BitSet bits = BitSet.valueOf(words);
+        int latest = 0;
+        for (int d = 0; d < 7; d++) {
+            int from = d * SLOTS_PER_DAY;
+            int last = bits.previousSetBit(from + SLOTS_PER_DAY - 1);
+            if (last >= from) latest = Math.max(latest, (last - from + 1) * SLOT_MINUTES);
+        }
+        return latest;
+    }
+
+    /**
+     * Maps a day name such as "MONDAY" to its index in the week, Monday being 0.
+     *
+     * @param day the day name
+     * @return the day index, or -1 if the day is unknown
+     */
+    private static int dayIndex(String day) {
+        if (day == null) return -1;
+        try {
+            return DayOfWeek.valueOf(day.trim().toUpperCase()).getValue() - 1;
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof WeeklyBusyMask other && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
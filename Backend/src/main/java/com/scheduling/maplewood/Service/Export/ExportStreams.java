@@ -0,0 +1,117 @@
+package com.scheduling.maplewood.Service.Export;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Helpers shared by the streaming exports: reading a query through a forward-only cursor while the rows
+ * are written out, and formatting CSV fields.
+ */
+public final class ExportStreams {
+
+    private static final int FETCH_SIZE = 500;
+
+    private ExportStreams() {
+    }
+
+    /**
+     * A consumer of rows that may fail writing.
+     *
+     * @param <T> the type of the rows
+     */
+    @FunctionalInterface
+    public interface RowWriter<T> {
+        void write(T row) throws IOException;
+    }
+
+    /**
+     * A consumer of the current row of a cursor that may fail reading or writing.
+     */
+    @FunctionalInterface
+    public interface CursorWriter {
+        void write(ResultSet rs) throws IOException, SQLException;
+    }
+
+    /**
+     * Creates the statement of a cursor: forward-only, read-only, fetching rows in batches.
+     * The caller binds its parameters.
+     *
+     * @param con the connection
+     * @param sql the query
+     * @return the statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public static PreparedStatement cursor(Connection con, String sql) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(FETCH_SIZE);
+        return ps;
+    }
+
+    /**
+     * Runs a query and hands the cursor to the writer at every row, as soon as it is read. An IOException of
+     * the writer stops the query and is rethrown as is.
+     *
+     * @param jdbcTemplate the template to run the query with
+     * @param statement creates the statement, see {@link #cursor(Connection, String)}
+     * @param writer the writer of one row
+     * @throws IOException if the writer fails
+     */
+    public static void forEachRow(JdbcTemplate jdbcTemplate, PreparedStatementCreator statement,
+                                  CursorWriter writer) throws IOException {
+        try {
+            jdbcTemplate.query(statement, (ResultSet rs) -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads a double column, null if it is NULL.
+     *
+     * @param rs the result set
+     * @param column the column's position
+     * @return the value, or null
+     * @throws SQLException if reading fails
+     */
+    public static Double doubleOrNull(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * Writes a value as a CSV field, empty if it is null. Only for values that never need quoting, such as numbers.
+     *
+     * @param value the value
+     * @return the field
+     */
+    public static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, a quote or a line break (\n or \r).
+     *
+     * @param value the field's value
+     * @return the field as written to the CSV, empty if the value is null
+     */
+    public static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
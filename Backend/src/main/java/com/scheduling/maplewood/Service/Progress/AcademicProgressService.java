@@ -1,5 +1,8 @@
 package com.scheduling.maplewood.Service.Progress;
 
+import com.scheduling.maplewood.Dto.AcademicProgress;
+import com.scheduling.maplewood.Dto.ProgressResponse;
+import com.scheduling.maplewood.Dto.StudentSummary;
 import com.scheduling.maplewood.Entity.*;
 import com.scheduling.maplewood.Repository.*;
 import lombok.RequiredArgsConstructor;
@@ -14,122 +17,99 @@ public class AcademicProgressService {
 
     private final StudentRepository studentRepository;
     private final CourseRepository courseRepository;
-    private final CoreRequiredCoursesRepository coreRequiredCoursesRepository;
-    private final StudentCourseHistoryRepository historyRepository;
+    private final StudentProgressAggregator progressAggregator;
+    private final GraduationPlannerService graduationPlanner;
 
-    private final int TOTAL_REQUIRED_CREDITS = 30;
+    static final int TOTAL_REQUIRED_CREDITS = 30;
     private final int TOTAL_CORE_REQUIRED = 20;
 
     /**
      * Returns the academic progress of the student with the given ID.
      * 
      * @param studentId The ID of the student
-     * @return A map containing the student's information and their academic progress
+     * @return The student's information, their academic progress and the core courses they still need
      */
-    public Map<String, Object> getProgress(Integer studentId) {
+    public ProgressResponse getProgress(Integer studentId) {
 
         Student student = studentRepository.findById(studentId).orElse(null);
 
-        Map<String, Object> progress = calculateProgress(studentId);
-        List<Map<String, Object>> remainingCore = findRemainingCoreWithLightDetails(studentId);
+        StudentSummary studentInfo = new StudentSummary(studentId,
+                student != null ? student.getFirstName() + " " + student.getLastName() : "Unknown",
+                student != null ? student.getEmail() : "Unknown",
+                student != null ? student.getGradeLevel() : "Unknown");
 
-        Map<String, Object> out = new LinkedHashMap<>();
-        out.put("success", true);
-
-        Map<String, Object> studentInfo = new LinkedHashMap<>();
-        studentInfo.put("id", studentId);
-        studentInfo.put("name", student != null ? student.getFirstName() + " " + student.getLastName() : "Unknown");
-        studentInfo.put("email", student != null ? student.getEmail() : "Unknown");
-        studentInfo.put("gradeLevel", student != null ? student.getGradeLevel() : "Unknown");
-
-        out.put("student", studentInfo);
-
-        out.put("progress", progress);
-        out.put("remainingCoreCourses", remainingCore);
+        return new ProgressResponse(true, studentInfo, calculateProgress(studentId),
+                findRemainingCoreWithLightDetails(studentId));
+    }
 
-        return out;
+    /**
+     * Returns the graduation plan of the student with the given ID.
+     * 
+     * @param studentId The ID of the student
+     * @return A map containing the student's semester-by-semester path to graduation
+     */
+    public Map<String, Object> getGraduationPlan(Integer studentId) {
+        StudentProgress totals = progressAggregator.get(studentId).orElseGet(StudentProgress::new);
+        return graduationPlanner.getPlan(studentId, valueOf(totals.getCreditsEarned()));
     }
 
     /**
      * Calculates the academic progress of the student with the given ID.
+     * The totals are read from the student's progress aggregate, one row, instead of being re-derived from history.
      * 
      * @param studentId The ID of the student
-     * @return A map containing the student's information and their academic progress
+     * @return The student's academic progress
      * 
-     * The map contains the following information:
+     * The progress contains the following information:
      * - creditsEarned: The total number of credits the student has earned.
      * - creditsRequired: The total number of credits required to graduate.
      * - creditsRemaining: The total number of credits the student still needs to earn.
      * - corePassed: The number of core courses the student has passed.
      * - coreRequired: The total number of core courses required to graduate.
      * - gpa: The student's GPA.
-     * - predictedSemestersToGraduate: The predicted number of semesters the student will take to graduate.
+     * - predictedSemestersToGraduate: The number of semesters of the student's graduation plan, null if
+     *   graduation cannot be planned. See {@link GraduationPlannerService}.
      */
-    private Map<String, Object> calculateProgress(Integer studentId) {
-
-        List<StudentCourseHistory> history = historyRepository.findByStudentId(studentId);
-
-        Set<Integer> passedIds = history.stream()
-                .filter(h -> "passed".equalsIgnoreCase(h.getStatus()))
-                .map(StudentCourseHistory::getCourseId)
-                .collect(Collectors.toSet());
-
-        double creditsEarned = passedIds.stream()
-                .map(id -> courseRepository.findById(id).orElse(null))
-                .filter(Objects::nonNull)
-                .mapToDouble(c -> c.getCredits().doubleValue())
-                .sum();
-
-        double totalQualityPoints = history.stream()
-                .mapToDouble(h -> {
-                    Course c = courseRepository.findById(h.getCourseId()).orElse(null);
-                    if (c == null) return 0;
-                    double grade = h.getStatus().equalsIgnoreCase("passed") ? 4.0 : 0.0;
-                    return c.getCredits().doubleValue() * grade;
-                }).sum();
-
-        double totalAttemptedCredits = history.stream()
-                .mapToDouble(h -> {
-                    Course c = courseRepository.findById(h.getCourseId()).orElse(null);
-                    return c != null ? c.getCredits().doubleValue() : 0.0;
-                }).sum();
+    private AcademicProgress calculateProgress(Integer studentId) {
+        StudentProgress totals = progressAggregator.get(studentId).orElseGet(StudentProgress::new);
+        return progressOf(totals, graduationPlanner.semestersToGraduate(studentId, valueOf(totals.getCreditsEarned())));
+    }
+
+    /**
+     * Derives the progress figures from a student's stored totals.
+     * 
+     * @param totals The student's progress aggregate
+     * @param predictedSemesters The number of semesters of the student's graduation plan
+     * @return The progress figures described in {@link #calculateProgress(Integer)}
+     */
+    AcademicProgress progressOf(StudentProgress totals, Integer predictedSemesters) {
+
+        double creditsEarned = valueOf(totals.getCreditsEarned());
+        double totalQualityPoints = valueOf(totals.getQualityPoints());
+        double totalAttemptedCredits = valueOf(totals.getCreditsAttempted());
 
         double gpa = totalAttemptedCredits > 0 ?
                 totalQualityPoints / totalAttemptedCredits : 0.0;
 
         double remainingCredits = Math.max(0, TOTAL_REQUIRED_CREDITS - creditsEarned);
 
-        double avgLoad = 4.0;
-        int predictedSemesters = (int) Math.ceil(remainingCredits / avgLoad);
-
-        Map<String, Object> out = new LinkedHashMap<>();
-        out.put("creditsEarned", creditsEarned);
-        out.put("creditsRequired", TOTAL_REQUIRED_CREDITS);
-        out.put("creditsRemaining", remainingCredits);
-
-        out.put("corePassed", passedCoreCount(passedIds));
-        out.put("coreRequired", TOTAL_CORE_REQUIRED);
-
-        out.put("gpa", Math.round(gpa * 100.0) / 100.0);
-        out.put("predictedSemestersToGraduate", predictedSemesters);
-
-        return out;
+        return new AcademicProgress(
+                creditsEarned,
+                TOTAL_REQUIRED_CREDITS,
+                remainingCredits,
+                totals.getCorePassed() == null ? 0 : totals.getCorePassed(),
+                TOTAL_CORE_REQUIRED,
+                Math.round(gpa * 100.0) / 100.0,
+                predictedSemesters);
     }
 
     /**
-     * Returns the number of core courses the student has passed.
-     * @param passedIds A set of course IDs that the student has passed.
-     * @return The number of core courses the student has passed.
+     * Returns the value of a stored total, 0 if it is missing.
+     * @param value The stored total
+     * @return The total as a double
      */
-    private long passedCoreCount(Set<Integer> passedIds) {
-        List<Integer> coreIds = coreRequiredCoursesRepository.findAll()
-                .stream()
-                .map(CoreRequiredCourse::getCourseId)
-                .toList();
-
-        return coreIds.stream()
-                .filter(passedIds::contains)
-                .count();
+    private double valueOf(Double value) {
+        return value == null ? 0.0 : value;
     }
 
 
@@ -137,33 +117,12 @@ public class AcademicProgressService {
      * Finds the remaining core courses for a given student ID.
      * 
      * @param studentId The ID of the student
-     * @return A list of maps containing the course's information and the student's progress
+     * @return The core courses the student has not passed yet
      */
-    private List<Map<String, Object>> findRemainingCoreWithLightDetails(Integer studentId) {
-
-        List<StudentCourseHistory> passedHistory =
-                historyRepository.findByStudentIdAndStatus(studentId, "passed");
-
-        Set<Integer> passedIds = passedHistory.stream()
-                .map(StudentCourseHistory::getCourseId)
-                .collect(Collectors.toSet());
-
-        List<Integer> coreCourseIds = coreRequiredCoursesRepository.findAll().stream()
-                .map(CoreRequiredCourse::getCourseId)
-                .toList();
-
-        return coreCourseIds.stream()
-                .filter(id -> !passedIds.contains(id))
-                .map(id -> courseRepository.findById(id).orElse(null))
-                .filter(Objects::nonNull)
-                .map(c -> {
-                    Map<String, Object> m = new LinkedHashMap<>();
-                    m.put("courseId", c.getId());
-                    m.put("code", c.getCode());
-                    m.put("name", c.getName());
-                    m.put("semesterOrder", c.getSemesterOrder());
-                    return m;
-                })
+    private List<ProgressResponse.CoreCourse> findRemainingCoreWithLightDetails(Integer studentId) {
+
+        return courseRepository.findRemainingCoreCourses(studentId).stream()
+                .map(c -> new ProgressResponse.CoreCourse(c.getId(), c.getCode(), c.getName(), c.getSemesterOrder()))
                 .collect(Collectors.toList());
     }
 }
@@ -1,5 +1,7 @@
 package com.scheduling.maplewood.Service.Progress;
 
+import com.scheduling.maplewood.Dto.StudentSummary;
+import com.scheduling.maplewood.Dto.TranscriptResponse;
 import com.scheduling.maplewood.Entity.*;
 import com.scheduling.maplewood.Repository.*;
 import lombok.RequiredArgsConstructor;
@@ -12,72 +14,53 @@ import java.util.*;
 public class AcademicTranscriptService {
 
     private final StudentRepository studentRepository;
-    private final StudentCourseHistoryRepository studentCourseHistoryRepository;
-    private final CourseRepository courseRepository;
-    private final SemesterRepository semesterRepository;
+    private final StudentGradeRepository studentGradeRepository;
 
     /**
      * Gets the academic transcript of the student with the given ID.
      * 
      * @param studentId The ID of the student
-     * @return A map containing the student's information and their academic transcript
+     * @return The student's information and their academic transcript
      */
-    public Map<String, Object> getTranscript(Integer studentId) {
+    public TranscriptResponse getTranscript(Integer studentId) {
 
         Student student = studentRepository.findById(studentId).orElse(null);
 
-        List<Map<String, Object>> transcript = buildTranscript(studentId);
+        StudentSummary studentInfo = new StudentSummary(studentId,
+                student != null ? student.getFirstName() + " " + student.getLastName() : "Unknown",
+                student != null ? student.getEmail() : "Unknown",
+                student != null ? student.getGradeLevel() : "Unknown");
 
-        Map<String, Object> out = new LinkedHashMap<>();
-        out.put("success", true);
-
-        Map<String, Object> studentInfo = new LinkedHashMap<>();
-        studentInfo.put("id", studentId);
-        studentInfo.put("name", student != null ? student.getFirstName() + " " + student.getLastName() : "Unknown");
-        studentInfo.put("email", student != null ? student.getEmail() : "Unknown");
-        studentInfo.put("gradeLevel", student != null ? student.getGradeLevel() : "Unknown");
-
-        out.put("student", studentInfo);
-
-        out.put("transcript", transcript);
-
-        return out;
+        return new TranscriptResponse(true, studentInfo, buildTranscript(studentId));
     }
 
     /**
      * Builds the academic transcript of the student with the given ID.
      * 
-     * The transcript is a list of maps, each containing information about a course the student has taken.
-     * The information includes the course ID, course code, course name, credits, semester, status, and recorded at date.
+     * Each entry contains information about a course the student has taken: the course ID, course code,
+     * course name, credits, semester, status, recorded at date, and the grade if one was recorded.
+     * The history, courses, semesters and grades are read with one join.
      * 
      * @param studentId The ID of the student
-     * @return A list of maps containing the student's academic transcript
+     * @return The student's academic transcript
      */
-    private List<Map<String, Object>> buildTranscript(Integer studentId) {
-
-        List<StudentCourseHistory> history =
-                studentCourseHistoryRepository.findByStudentId(studentId);
-
-        List<Map<String, Object>> out = new ArrayList<>();
-
-        for (StudentCourseHistory h : history) {
-
-            Course course = courseRepository.findById(h.getCourseId()).orElse(null);
-            Semester semester = semesterRepository.findById(h.getSemesterId()).orElse(null);
-
-            Map<String, Object> row = new LinkedHashMap<>();
-            row.put("courseId", h.getCourseId());
-            row.put("courseCode", course != null ? course.getCode() : "UNKNOWN");
-            row.put("courseName", course != null ? course.getName() : "Unknown");
-            row.put("credits", course != null ? course.getCredits() : null);
-
-            row.put("semester",
-                    semester != null ? semester.getName() + " " + semester.getYear() : "Unknown");
-
-            row.put("status", h.getStatus());
-            row.put("recordedAt", h.getCreatedAt());
-
-            out.add(row);
+    private List<TranscriptResponse.Entry> buildTranscript(Integer studentId) {
+
+        List<TranscriptResponse.Entry> out = new ArrayList<>();
+
+        for (StudentGradeRepository.TranscriptRow r : studentGradeRepository.findTranscript(studentId)) {
+            out.add(new TranscriptResponse.Entry(
+                    r.getCourseId(),
+                    r.getCourseCode() != null ? r.getCourseCode() : "UNKNOWN",
+                    r.getCourseName() != null ? r.getCourseName() : "Unknown",
+                    r.getCredits(),
+                    r.getSemesterName() != null ? r.getSemesterName() + " " + r.getSemesterYear() : "Unknown",
+                    r.getStatus(),
+                    r.getRecordedAt(),
+                    r.getGradeLetter(),
+                    r.getGradeNumeric(),
+                    GradeScale.pointsOf(r.getGradeLetter()),
+                    r.getCreditsAwarded()));
         }
 
         return out;
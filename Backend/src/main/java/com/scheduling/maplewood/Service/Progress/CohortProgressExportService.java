@@ -0,0 +1,178 @@
+package com.scheduling.maplewood.Service.Progress;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduling.maplewood.Dto.AcademicProgress;
+import com.scheduling.maplewood.Entity.StudentProgress;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import static com.scheduling.maplewood.Service.Export.ExportStreams.*;
+
+/**
+ * Exports the academic progress of every student, or of one grade level, for end-of-term audits.
+ *
+ * The figures are derived from the per-student aggregates kept by {@link StudentProgressAggregator}, so
+ * the whole cohort is one query over students joined with student_progress. Rows are read through a
+ * cursor and written out as they arrive. The graduation plans are computed against one planner snapshot,
+ * which holds the passed courses of the cohort as one small bitset per student.
+ */
+@Service
+@RequiredArgsConstructor
+public class CohortProgressExportService {
+
+    private static final String COHORT =
+            "SELECT s.id, s.first_name, s.last_name, s.grade_level, s.status, "
+            + "p.credits_earned, p.credits_attempted, p.quality_points, p.core_passed "
+            + "FROM students s LEFT JOIN student_progress p ON p.student_id = s.id ";
+
+    private static final String CSV_HEADER = "student_id,name,grade_level,status,credits_earned,credits_required,"
+            + "credits_remaining,core_passed,core_required,gpa,predicted_semesters_to_graduate\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AcademicProgressService progressService;
+    private final GraduationPlannerService graduationPlanner;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * One student of the cohort with their stored totals.
+     */
+    private record Row(int studentId, String name, Integer gradeLevel, String status, StudentProgress totals) {
+    }
+
+    /**
+     * Checks the export's filter and prepares the graduation planner of the cohort, so that everything that
+     * can fail before the first student is read fails before the response is started.
+     *
+     * @param gradeLevel the grade level to export, or null for every student
+     * @return the graduation planner of the cohort
+     * @throws IllegalArgumentException if the grade level is not positive
+     */
+    public GraduationPlannerService.Cohort prepare(Integer gradeLevel) {
+        if (gradeLevel != null && gradeLevel < 1) throw new IllegalArgumentException("gradeLevel must be positive.");
+        return graduationPlanner.cohort();
+    }
+
+    /**
+     * Writes the cohort's progress as JSON: the grade level filter, one entry per student and the count.
+     *
+     * @param gradeLevel the grade level to export, or null for every student
+     * @param cohort the graduation planner of the cohort, see {@link #prepare(Integer)}
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeJson(Integer gradeLevel, GraduationPlannerService.Cohort cohort, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            if (gradeLevel == null) gen.writeNullField("gradeLevel");
+            else gen.writeNumberField("gradeLevel", gradeLevel);
+            gen.writeArrayFieldStart("students");
+            int count = forEachStudent(gradeLevel, row -> {
+                gen.writeStartObject();
+                gen.writeNumberField("studentId", row.studentId());
+                gen.writeStringField("name", row.name());
+                gen.writeObjectField("gradeLevel", row.gradeLevel());
+                gen.writeStringField("status", row.status());
+                AcademicProgress p = progressOf(cohort, row);
+                gen.writeNumberField("creditsEarned", p.creditsEarned());
+                gen.writeNumberField("creditsRequired", p.creditsRequired());
+                gen.writeNumberField("creditsRemaining", p.creditsRemaining());
+                gen.writeNumberField("corePassed", p.corePassed());
+                gen.writeNumberField("coreRequired", p.coreRequired());
+                gen.writeNumberField("gpa", p.gpa());
+                gen.writeObjectField("predictedSemestersToGraduate", p.predictedSemestersToGraduate());
+                gen.writeEndObject();
+            });
+            gen.writeEndArray();
+            gen.writeNumberField("studentCount", count);
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the cohort's progress as CSV, one line per student.
+     *
+     * @param gradeLevel the grade level to export, or null for every student
+     * @param cohort the graduation planner of the cohort, see {@link #prepare(Integer)}
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeCsv(Integer gradeLevel, GraduationPlannerService.Cohort cohort, OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        w.write(CSV_HEADER);
+        forEachStudent(gradeLevel, row -> {
+            AcademicProgress p = progressOf(cohort, row);
+            w.write(row.studentId() + "," + csv(row.name()) + "," + text(row.gradeLevel())
+                    + "," + csv(row.status()) + "," + p.creditsEarned() + "," + p.creditsRequired()
+                    + "," + p.creditsRemaining() + "," + p.corePassed() + "," + p.coreRequired()
+                    + "," + p.gpa() + "," + Objects.toString(p.predictedSemestersToGraduate(), "") + "\n");
+        });
+        w.flush();
+    }
+
+    /**
+     * Derives the progress figures of one student, with the semesters of their graduation plan.
+     *
+     * @param cohort the graduation planner of the cohort
+     * @param row the student
+     * @return the progress figures
+     */
+    private AcademicProgress progressOf(GraduationPlannerService.Cohort cohort, Row row) {
+        Double earned = row.totals().getCreditsEarned();
+        return progressService.progressOf(row.totals(),
+                cohort.semestersToGraduate(row.studentId(), earned == null ? 0.0 : earned));
+    }
+
+    /**
+     * Streams the cohort through a cursor, handing each student to the writer as soon as it is read.
+     *
+     * @param gradeLevel the grade level to read, or null for every student
+     * @param writer the writer of one student
+     * @return the number of students written
+     * @throws IOException if the writer fails
+     */
+    private int forEachStudent(Integer gradeLevel, RowWriter<Row> writer) throws IOException {
+        int[] count = {0};
+        forEachRow(jdbcTemplate, con -> {
+            PreparedStatement ps = cursor(con, COHORT
+                    + (gradeLevel == null ? "" : "WHERE s.grade_level = ? ") + "ORDER BY s.id");
+            if (gradeLevel != null) ps.setInt(1, gradeLevel);
+            return ps;
+        }, rs -> {
+            writer.write(toRow(rs));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Reads the current result set row.
+     *
+     * @param rs the result set
+     * @return the student and their totals
+     * @throws SQLException if reading fails
+     */
+    private Row toRow(ResultSet rs) throws SQLException {
+        StudentProgress totals = new StudentProgress();
+        totals.setStudentId(rs.getInt(1));
+        totals.setCreditsEarned(doubleOrNull(rs, 6));
+        totals.setCreditsAttempted(doubleOrNull(rs, 7));
+        totals.setQualityPoints(doubleOrNull(rs, 8));
+        int core = rs.getInt(9);
+        totals.setCorePassed(rs.wasNull() ? null : core);
+
+        int grade = rs.getInt(4);
+        Integer gradeLevel = rs.wasNull() ? null : grade;
+        String name = rs.getString(2) + " " + rs.getString(3);
+        return new Row(totals.getStudentId(), name, gradeLevel, rs.getString(5), totals);
+    }
+}
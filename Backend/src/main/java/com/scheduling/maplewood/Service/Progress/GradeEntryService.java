@@ -0,0 +1,256 @@
+package com.scheduling.maplewood.Service.Progress;
+
+import com.scheduling.maplewood.Dto.GradeEntryRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.GradeEntryException;
+import com.scheduling.maplewood.Event.TransactionHooks;
+import com.scheduling.maplewood.Repository.*;
+import com.scheduling.maplewood.Service.Analytics.HistoryColumnStore;
+import com.scheduling.maplewood.Service.Enroll.EligibilityCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Records the final grades of a semester in bulk.
+ *
+ * A batch is validated as a whole before anything is written, then the grades and the course history are
+ * written with JDBC batches and the progress aggregates of the graded students are recomputed in the same
+ * transaction. A numeric grade is always on the 0-100 scale of {@link GradeScale} and, when a letter is also
+ * given, must fall within that letter's range.
+ */
+@Service
+@RequiredArgsConstructor
+public class GradeEntryService {
+
+    private static final String INSERT_GRADE =
+            "INSERT INTO student_grades (student_id, course_id, semester_id, section_id, grade_numeric, grade_letter, "
+            + "credits_awarded, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_GRADE_TYPES = {Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER,
+            Types.DOUBLE, Types.VARCHAR, Types.DOUBLE, Types.VARCHAR, Types.TIMESTAMP};
+
+    private static final String UPDATE_GRADE =
+            "UPDATE student_grades SET section_id = ?, grade_numeric = ?, grade_letter = ?, credits_awarded = ?, "
+            + "status = ? WHERE id = ?";
+    private static final int[] UPDATE_GRADE_TYPES = {Types.INTEGER, Types.DOUBLE, Types.VARCHAR, Types.DOUBLE,
+            Types.VARCHAR, Types.INTEGER};
+
+    private static final String INSERT_HISTORY =
+            "INSERT INTO student_course_history (student_id, course_id, semester_id, status, created_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final int[] INSERT_HISTORY_TYPES = {Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.VARCHAR,
+            Types.TIMESTAMP};
+
+    private static final String UPDATE_HISTORY = "UPDATE student_course_history SET status = ? WHERE id = ?";
+    private static final int[] UPDATE_HISTORY_TYPES = {Types.VARCHAR, Types.INTEGER};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SemesterRepository semesterRepository;
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final StudentGradeRepository studentGradeRepository;
+    private final StudentCourseHistoryRepository studentCourseHistoryRepository;
+    private final StudentProgressAggregator progressAggregator;
+    private final EligibilityCache eligibilityCache;
+    private final HistoryColumnStore historyColumnStore;
+
+    /**
+     * The grade row of a (student, course) pair as it will be written; id is null for a new row.
+     */
+    private record GradeRow(Integer id, Integer studentId, Integer courseId, Integer sectionId, Double gradeNumeric,
+                            String gradeLetter, double creditsAwarded, String status) {
+    }
+
+    /**
+     * The history row of a (student, course) pair as it will be written; id is null for a new row.
+     */
+    private record HistoryRow(Integer id, Integer studentId, Integer courseId, String status) {
+    }
+
+    /**
+     * Records the final grades of one semester.
+     *
+     * Every item is validated before anything is written; a single invalid item rejects the whole batch.
+     * Each grade is written to student_grades and to the course history (passed unless the letter is F),
+     * replacing the grade and history row the student already has for that course and semester. Both tables
+     * are written with JDBC batches (one for the updated rows, one for the new ones), since Hibernate cannot
+     * batch inserts of IDENTITY rows. The progress aggregates of the graded students are recomputed in the
+     * same transaction, so the grades, the history and the GPA commit together. The batches bypass the entity
+     * listeners, so the caches those listeners keep fresh are invalidated here.
+     *
+     * A grade may be given as a letter, as a numeric grade out of 100, or both; a missing letter is derived
+     * from the numeric grade, and a numeric grade given with a letter must map to that letter.
+     *
+     * @param req the semester and its grades
+     * @return the number of grades recorded and the students they belong to
+     * @throws GradeEntryException if the semester, a student, a course or a grade is missing or invalid
+     */
+    @Transactional
+    public Map<String, Object> recordGrades(GradeEntryRequest req) {
+
+        Integer semesterId = req.getSemesterId();
+        List<GradeEntryRequest.Item> items = req.getGrades() == null ? List.of() : req.getGrades();
+        if (semesterId == null || items.isEmpty()) {
+            throw new GradeEntryException("semesterId and at least one grade are required.");
+        }
+        if (!semesterRepository.existsById(semesterId)) {
+            throw new GradeEntryException("Semester not found.");
+        }
+
+        Set<Integer> studentIds = items.stream().map(GradeEntryRequest.Item::getStudentId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Integer> courseIds = items.stream().map(GradeEntryRequest.Item::getCourseId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Integer> knownStudents = studentRepository.findAllById(studentIds).stream()
+                .map(Student::getId).collect(Collectors.toSet());
+        Map<Integer, Course> courses = courseRepository.findAllById(courseIds).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+        Map<String, StudentGrade> grades = studentGradeRepository
+                .findBySemesterIdAndStudentIdIn(semesterId, studentIds).stream()
+                .collect(Collectors.toMap(g -> key(g.getStudentId(), g.getCourseId()), Function.identity(), (a, b) -> a));
+        Map<String, StudentCourseHistory> history = studentCourseHistoryRepository
+                .findBySemesterIdAndStudentIdIn(semesterId, studentIds).stream()
+                .collect(Collectors.toMap(h -> key(h.getStudentId(), h.getCourseId()), Function.identity(), (a, b) -> a));
+
+        Map<String, GradeRow> toSaveGrades = new LinkedHashMap<>();
+        Map<String, HistoryRow> toSaveHistory = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (GradeEntryRequest.Item item : items) {
+            if (!knownStudents.contains(item.getStudentId())) {
+                throw new GradeEntryException("Student not found: " + item.getStudentId());
+            }
+            Course course = courses.get(item.getCourseId());
+            if (course == null) {
+                throw new GradeEntryException("Course not found: " + item.getCourseId());
+            }
+            String letter = letterOf(item);
+            boolean passed = GradeScale.isPassing(letter);
+            String key = key(item.getStudentId(), item.getCourseId());
+
+            String status = passed ? "passed" : "failed";
+
+            // a later item for the same pair replaces an earlier one, keeping its section if it names none
+            StudentGrade stored = grades.get(key);
+            GradeRow earlier = toSaveGrades.get(key);
+            Integer sectionId = item.getSectionId() != null ? item.getSectionId()
+                    : earlier != null ? earlier.sectionId()
+                    : stored != null ? stored.getSectionId() : null;
+            toSaveGrades.put(key, new GradeRow(stored == null ? null : stored.getId(), item.getStudentId(),
+                    item.getCourseId(), sectionId, item.getGradeNumeric(), letter,
+                    passed && course.getCredits() != null ? course.getCredits().doubleValue() : 0.0, status));
+
+            StudentCourseHistory h = history.get(key);
+            toSaveHistory.put(key, new HistoryRow(h == null ? null : h.getId(), item.getStudentId(), item.getCourseId(), status));
+        }
+
+        writeGrades(semesterId, toSaveGrades.values(), now);
+        writeHistory(semesterId, toSaveHistory.values(), now);
+        progressAggregator.refreshInTransaction(studentIds);
+        for (Integer studentId : studentIds) {
+            TransactionHooks.invalidateNowAndAfterCommit(() -> eligibilityCache.evictStudent(studentId));
+        }
+        TransactionHooks.invalidateNowAndAfterCommit(historyColumnStore::invalidate);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("semesterId", semesterId);
+        out.put("recorded", toSaveGrades.size());
+        out.put("students", new TreeSet<>(studentIds));
+        return out;
+    }
+
+    /**
+     * Writes grade rows in two JDBC batches: updates of the stored rows and inserts of the new ones.
+     *
+     * @param semesterId the semester's id
+     * @param rows the rows to write
+     * @param now the creation time of the new rows
+     */
+    private void writeGrades(Integer semesterId, Collection<GradeRow> rows, LocalDateTime now) {
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (GradeRow r : rows) {
+            if (r.id() != null) {
+                updates.add(new Object[]{r.sectionId(), r.gradeNumeric(), r.gradeLetter(), r.creditsAwarded(), r.status(), r.id()});
+            } else {
+                inserts.add(new Object[]{r.studentId(), r.courseId(), semesterId, r.sectionId(), r.gradeNumeric(),
+                        r.gradeLetter(), r.creditsAwarded(), r.status(), Timestamp.valueOf(now)});
+            }
+        }
+        if (!updates.isEmpty()) jdbcTemplate.batchUpdate(UPDATE_GRADE, updates, UPDATE_GRADE_TYPES);
+        if (!inserts.isEmpty()) jdbcTemplate.batchUpdate(INSERT_GRADE, inserts, INSERT_GRADE_TYPES);
+    }
+
+    /**
+     * Writes history rows in two JDBC batches: updates of the stored rows and inserts of the new ones.
+     *
+     * @param semesterId the semester's id
+     * @param rows the rows to write
+     * @param now the creation time of the new rows
+     */
+    private void writeHistory(Integer semesterId, Collection<HistoryRow> rows, LocalDateTime now) {
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (HistoryRow r : rows) {
+            if (r.id() != null) {
+                updates.add(new Object[]{r.status(), r.id()});
+            } else {
+                inserts.add(new Object[]{r.studentId(), r.courseId(), semesterId, r.status(), Timestamp.valueOf(now)});
+            }
+        }
+        if (!updates.isEmpty()) jdbcTemplate.batchUpdate(UPDATE_HISTORY, updates, UPDATE_HISTORY_TYPES);
+        if (!inserts.isEmpty()) jdbcTemplate.batchUpdate(INSERT_HISTORY, inserts, INSERT_HISTORY_TYPES);
+    }
+
+    /**
+     * Returns the letter grade of an item, derived from its numeric grade if no letter is given.
+     *
+     * @param item the grade item
+     * @return the normalized letter grade
+     * @throws GradeEntryException if neither a valid letter nor a numeric grade is given, if the numeric grade
+     *                             is not between 0 and 100, or if it does not map to the given letter
+     */
+    private String letterOf(GradeEntryRequest.Item item) {
+        Double numeric = item.getGradeNumeric();
+        if (numeric != null && !(numeric >= 0 && numeric <= 100)) {
+            throw new GradeEntryException("The numeric grade must be between 0 and 100 for student "
+                    + item.getStudentId() + ", course " + item.getCourseId() + ".");
+        }
+        if (item.getGradeLetter() == null) {
+            if (numeric == null) {
+                throw new GradeEntryException("A grade letter or a numeric grade between 0 and 100 is required for student "
+                        + item.getStudentId() + ", course " + item.getCourseId() + ".");
+            }
+            return GradeScale.letterOf(numeric);
+        }
+        String letter = GradeScale.normalize(item.getGradeLetter());
+        if (letter == null) {
+            throw new GradeEntryException("Invalid grade letter: " + item.getGradeLetter());
+        }
+        if (numeric != null && !letter.equals(GradeScale.letterOf(numeric))) {
+            throw new GradeEntryException("The numeric grade " + numeric + " does not match the letter " + letter
+                    + " for student " + item.getStudentId() + ", course " + item.getCourseId() + ".");
+        }
+        return letter;
+    }
+
+    /**
+     * Returns the key of a (student, course) pair within the semester.
+     *
+     * @param studentId the student's id
+     * @param courseId the course's id
+     * @return the key
+     */
+    private static String key(Integer studentId, Integer courseId) {
+        return studentId + ":" + courseId;
+    }
+}
@@ -0,0 +1,100 @@
+package com.scheduling.maplewood.Service.Progress;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The letter grade scale: the grade points of each letter and the letter of a numeric (percentage) grade.
+ */
+public final class GradeScale {
+
+    private static final Map<String, Double> POINTS = new LinkedHashMap<>();
+
+    static {
+        POINTS.put("A+", 4.0);
+        POINTS.put("A", 4.0);
+        POINTS.put("A-", 3.7);
+        POINTS.put("B+", 3.3);
+        POINTS.put("B", 3.0);
+        POINTS.put("B-", 2.7);
+        POINTS.put("C+", 2.3);
+        POINTS.put("C", 2.0);
+        POINTS.put("C-", 1.7);
+        POINTS.put("D+", 1.3);
+        POINTS.put("D", 1.0);
+        POINTS.put("D-", 0.7);
+        POINTS.put("F", 0.0);
+    }
+
+    private GradeScale() {
+    }
+
+    /**
+     * Normalizes a letter grade.
+     *
+     * @param letter the letter as entered
+     * @return the letter in upper case, or null if it is not on the scale
+     */
+    public static String normalize(String letter) {
+        if (letter == null) return null;
+        String l = letter.trim().toUpperCase(Locale.ROOT);
+        return POINTS.containsKey(l) ? l : null;
+    }
+
+    /**
+     * Returns the grade points of a letter grade.
+     *
+     * @param letter the letter grade
+     * @return the points, or null if the letter is not on the scale
+     */
+    public static Double pointsOf(String letter) {
+        String l = normalize(letter);
+        return l == null ? null : POINTS.get(l);
+    }
+
+    /**
+     * Returns the letter of a numeric grade out of 100.
+     *
+     * @param numeric the numeric grade
+     * @return the letter grade
+     */
+    public static String letterOf(double numeric) {
+        if (numeric >= 97) return "A+";
+        if (numeric >= 93) return "A";
+        if (numeric >= 90) return "A-";
+        if (numeric >= 87) return "B+";
+        if (numeric >= 83) return "B";
+        if (numeric >= 80) return "B-";
+        if (numeric >= 77) return "C+";
+        if (numeric >= 73) return "C";
+        if (numeric >= 70) return "C-";
+        if (numeric >= 67) return "D+";
+        if (numeric >= 63) return "D";
+        if (numeric >= 60) return "D-";
+        return "F";
+    }
+
+    /**
+     * Returns whether a letter grade passes the course.
+     *
+     * @param letter the letter grade
+     * @return true unless the letter is F
+     */
+    public static boolean isPassing(String letter) {
+        return !"F".equals(normalize(letter));
+    }
+
+    /**
+     * Builds a SQL expression giving the grade points of a letter grade column, NULL for letters not on the scale.
+     *
+     * @param column the letter grade column
+     * @return the CASE expression
+     */
+    static String sqlPoints(String column) {
+        StringBuilder sql = new StringBuilder("CASE UPPER(TRIM(").append(column).append("))");
+        POINTS.forEach((letter, points) ->
+                sql.append(" WHEN '").append(letter).append("' THEN ").append(points));
+        return sql.append(" END").toString();
+    }
+}
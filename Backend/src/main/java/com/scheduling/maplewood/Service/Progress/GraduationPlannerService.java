@@ -0,0 +1,410 @@
+package com.scheduling.maplewood.Service.Progress;
+
+import com.scheduling.maplewood.Entity.CoreRequiredCourse;
+import com.scheduling.maplewood.Entity.Course;
+import com.scheduling.maplewood.Entity.Semester;
+import com.scheduling.maplewood.Repository.CoreRequiredCoursesRepository;
+import com.scheduling.maplewood.Repository.CourseRepository;
+import com.scheduling.maplewood.Repository.SemesterRepository;
+import com.scheduling.maplewood.Repository.StudentCourseHistoryRepository;
+import com.scheduling.maplewood.Service.Enroll.EnrollmentService;
+import com.scheduling.maplewood.Service.Enroll.PrerequisiteGraphService;
+import com.scheduling.maplewood.Service.Enroll.PrerequisiteGraphService.PrerequisiteGraph;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Plans the shortest semester-by-semester path to graduation of a student.
+ *
+ * A student graduates once every core required course is passed and the required credits are earned.
+ * Terms alternate Fall and Spring starting with the one after the active semester; a course can be taken
+ * in a term matching its semesterOrder (any term if it has none), once its prerequisite was passed in an
+ * earlier term, and at most {@link EnrollmentService#MAX_COURSES_PER_SEMESTER} courses fit in a term.
+ *
+ * Each term takes the available unmet core courses and their missing prerequisites first, longest chain of
+ * dependent core courses first, so the deepest prerequisite chains start as early as possible. Free places
+ * are then filled with the available courses worth the most credits until the credit total is reached.
+ *
+ * The chain heights and offering terms depend only on the catalog, so they are computed once and shared
+ * by every plan until a course or the core list changes; the active semester is kept until a semester
+ * changes. Both are dropped by the entity listeners, so planning a student reads only their passed courses.
+ */
+@Service
+@RequiredArgsConstructor
+public class GraduationPlannerService {
+
+    /**
+     * Plans needing more terms than this are reported as infeasible.
+     */
+    static final int MAX_TERMS = 16;
+
+    private static final String PASSED =
+            "SELECT student_id, course_id FROM student_course_history WHERE LOWER(status) = 'passed'";
+
+    private final PrerequisiteGraphService prerequisiteGraphService;
+    private final CourseRepository courseRepository;
+    private final CoreRequiredCoursesRepository coreRequiredCoursesRepository;
+    private final SemesterRepository semesterRepository;
+    private final StudentCourseHistoryRepository historyRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Catalog catalog;
+    private volatile Optional<Semester> active;
+
+    /**
+     * The catalog as seen by the planner: per course index, its course, credits and offering term, the core
+     * courses, and the height of each course, the longest chain of core courses (and their prerequisites)
+     * that depend on it.
+     */
+    private static final class Catalog {
+        private final PrerequisiteGraph graph;
+        private final Course[] courses;
+        private final double[] credits;
+        private final int[] offeredIn;
+        private final BitSet core;
+        private final int[] height;
+
+        private Catalog(PrerequisiteGraph graph, Set<Integer> coreIds, List<Course> all) {
+            int n = graph.size();
+            this.graph = graph;
+            this.courses = new Course[n];
+            this.credits = new double[n];
+            this.offeredIn = new int[n];
+            this.core = graph.toBitSet(coreIds);
+            this.height = new int[n];
+
+            for (Course c : all) {
+                int i = graph.indexOf(c.getId());
+                if (i < 0) continue;
+                courses[i] = c;
+                credits[i] = c.getCredits() == null ? 0.0 : c.getCredits().doubleValue();
+                offeredIn[i] = c.getSemesterOrder() == null ? 0 : c.getSemesterOrder();
+            }
+
+            BitSet required = (BitSet) core.clone();
+            for (int i = core.nextSetBit(0); i >= 0; i = core.nextSetBit(i + 1)) {
+                required.or(graph.ancestorsOf(i));
+            }
+            // Deepest courses first, so a course's height is final before it is passed up to its prerequisite.
+            Integer[] byDepth = required.stream().boxed().toArray(Integer[]::new);
+            Arrays.sort(byDepth, Comparator.comparingInt((Integer i) -> graph.ancestorsOf(i).cardinality()).reversed());
+            for (int i : byDepth) {
+                int p = graph.parentOf(i);
+                if (p >= 0 && !graph.isCyclic(i)) height[p] = Math.max(height[p], height[i] + 1);
+            }
+        }
+
+        /**
+         * Returns whether the course at the given index can be taken in a term of the given order.
+         *
+         * @param i the course's index
+         * @param order the term's order in the year, 1 for Fall and 2 for Spring
+         * @return true if the course is offered in that term
+         */
+        private boolean offered(int i, int order) {
+            return offeredIn[i] == 0 || offeredIn[i] == order;
+        }
+    }
+
+    /**
+     * A planned path: the course indexes taken in each term, and whether it reaches graduation.
+     */
+    private record Plan(boolean feasible, List<int[]> terms) {
+    }
+
+    /**
+     * Plans for many students against one catalog snapshot, with the passed courses of every student loaded
+     * in one query.
+     */
+    public final class Cohort {
+        private final Catalog cat;
+        private final int firstOrder;
+        private final Map<Integer, BitSet> passed;
+
+        private Cohort(Catalog cat, int firstOrder, Map<Integer, BitSet> passed) {
+            this.cat = cat;
+            this.firstOrder = firstOrder;
+            this.passed = passed;
+        }
+
+        /**
+         * Returns the number of semesters a student needs to graduate.
+         *
+         * @param studentId the student's id
+         * @param creditsEarned the credits the student has earned
+         * @return the number of semesters, or null if graduation cannot be planned
+         */
+        public Integer semestersToGraduate(int studentId, double creditsEarned) {
+            BitSet done = passed.getOrDefault(studentId, new BitSet());
+            return semestersOf(plan(cat, done, creditsEarned, firstOrder));
+        }
+    }
+
+    /**
+     * Returns the graduation plan of the student with the given ID.
+     *
+     * @param studentId The ID of the student
+     * @param creditsEarned The credits the student has earned
+     * @return A map with whether graduation can be planned, the number of semesters, and the courses of each semester
+     */
+    public Map<String, Object> getPlan(Integer studentId, double creditsEarned) {
+        Catalog cat = catalog();
+        Semester active = activeSemester();
+        int firstOrder = nextOrder(active);
+        Plan plan = plan(cat, passedCourses(cat, studentId), creditsEarned, firstOrder);
+
+        String name = firstOrder == 1 ? "Fall" : "Spring";
+        int year = active == null || active.getYear() == null ? 0 : active.getYear() + (firstOrder == 1 ? 1 : 0);
+
+        List<Map<String, Object>> semesters = new ArrayList<>();
+        for (int[] term : plan.terms()) {
+            List<Map<String, Object>> courses = new ArrayList<>();
+            double credits = 0;
+            for (int i : term) {
+                Course c = cat.courses[i];
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("courseId", c.getId());
+                m.put("code", c.getCode());
+                m.put("name", c.getName());
+                m.put("credits", c.getCredits());
+                m.put("core", cat.core.get(i));
+                courses.add(m);
+                credits += cat.credits[i];
+            }
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("semester", year > 0 ? name + " " + year : name);
+            s.put("semesterOrder", "Fall".equals(name) ? 1 : 2);
+            s.put("credits", credits);
+            s.put("courses", courses);
+            semesters.add(s);
+
+            if ("Fall".equals(name)) {
+                name = "Spring";
+            } else {
+                name = "Fall";
+                if (year > 0) year++;
+            }
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("studentId", studentId);
+        out.put("feasible", plan.feasible());
+        out.put("semestersToGraduate", semestersOf(plan));
+        out.put("semesters", semesters);
+        return out;
+    }
+
+    /**
+     * Returns the number of semesters a student needs to graduate.
+     *
+     * @param studentId the student's id
+     * @param creditsEarned the credits the student has earned
+     * @return the number of semesters, or null if graduation cannot be planned
+     */
+    public Integer semestersToGraduate(Integer studentId, double creditsEarned) {
+        Catalog cat = catalog();
+        return semestersOf(plan(cat, passedCourses(cat, studentId), creditsEarned, nextOrder(activeSemester())));
+    }
+
+    /**
+     * Prepares planning for every student: the catalog, the first term and the passed courses of all students.
+     *
+     * @return the cohort planner
+     */
+    public Cohort cohort() {
+        Catalog cat = catalog();
+        Map<Integer, BitSet> passed = new HashMap<>();
+        jdbcTemplate.query(PASSED, rs -> {
+            int i = cat.graph.indexOf(rs.getInt(2));
+            if (i >= 0) passed.computeIfAbsent(rs.getInt(1), k -> new BitSet(cat.graph.size())).set(i);
+        });
+        return new Cohort(cat, nextOrder(activeSemester()), passed);
+    }
+
+    /**
+     * Plans the terms of a student until the core courses are passed and the credits are earned.
+     *
+     * @param cat the catalog
+     * @param passed the indexes of the courses the student has passed
+     * @param creditsEarned the credits the student has earned
+     * @param firstOrder the order in the year of the first planned term
+     * @return the plan; infeasible if it needs more than {@link #MAX_TERMS} terms or stops making progress
+     */
+    private Plan plan(Catalog cat, BitSet passed, double creditsEarned, int firstOrder) {
+        PrerequisiteGraph graph = cat.graph;
+        BitSet done = (BitSet) passed.clone();
+
+        BitSet needed = new BitSet(graph.size());
+        for (int i = cat.core.nextSetBit(0); i >= 0; i = cat.core.nextSetBit(i + 1)) {
+            if (done.get(i)) continue;
+            needed.set(i);
+            needed.or(graph.ancestorsOf(i));
+        }
+        needed.andNot(done);
+
+        Comparator<Integer> byHeight = Comparator.comparingInt((Integer i) -> cat.height[i]).reversed()
+                .thenComparingInt(graph::courseIdAt);
+        Comparator<Integer> byCredits = Comparator.comparingDouble((Integer i) -> cat.credits[i]).reversed()
+                .thenComparingInt(graph::courseIdAt);
+
+        double credits = creditsEarned;
+        double target = AcademicProgressService.TOTAL_REQUIRED_CREDITS;
+        List<int[]> terms = new ArrayList<>();
+        int order = firstOrder;
+        int idle = 0;
+
+        while (!needed.isEmpty() || credits < target - 1e-9) {
+            if (terms.size() >= MAX_TERMS || idle >= 2) return new Plan(false, terms);
+
+            List<Integer> neededNow = new ArrayList<>();
+            List<Integer> otherNow = new ArrayList<>();
+            for (int i = 0; i < graph.size(); i++) {
+                if (done.get(i) || cat.courses[i] == null || graph.isCyclic(i) || !cat.offered(i, order)) continue;
+                int p = graph.parentOf(i);
+                if (p >= 0 && !done.get(p)) continue;
+                (needed.get(i) ? neededNow : otherNow).add(i);
+            }
+            neededNow.sort(byHeight);
+            otherNow.sort(byCredits);
+
+            List<Integer> take = new ArrayList<>();
+            double termCredits = 0;
+            for (int i : neededNow) {
+                if (take.size() == EnrollmentService.MAX_COURSES_PER_SEMESTER) break;
+                take.add(i);
+                termCredits += cat.credits[i];
+            }
+            double stillNeeded = target - credits - termCredits - remainingCredits(cat, needed, take);
+            for (int i : otherNow) {
+                if (take.size() == EnrollmentService.MAX_COURSES_PER_SEMESTER || stillNeeded <= 1e-9) break;
+                take.add(i);
+                termCredits += cat.credits[i];
+                stillNeeded -= cat.credits[i];
+            }
+
+            for (int i : take) {
+                done.set(i);
+                needed.clear(i);
+            }
+            credits += termCredits;
+            terms.add(take.stream().mapToInt(Integer::intValue).toArray());
+            idle = take.isEmpty() ? idle + 1 : 0;
+            order = order == 1 ? 2 : 1;
+        }
+        return new Plan(true, terms);
+    }
+
+    /**
+     * Returns the credits of the needed courses not taken this term, which will be earned in later terms anyway.
+     *
+     * @param cat the catalog
+     * @param needed the needed course indexes
+     * @param take the courses taken this term
+     * @return the credits still to come from needed courses
+     */
+    private static double remainingCredits(Catalog cat, BitSet needed, List<Integer> take) {
+        double sum = 0;
+        for (int i = needed.nextSetBit(0); i >= 0; i = needed.nextSetBit(i + 1)) {
+            if (!take.contains(i)) sum += cat.credits[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of semesters of a plan.
+     *
+     * @param plan the plan
+     * @return the number of terms, or null if the plan is infeasible
+     */
+    private static Integer semestersOf(Plan plan) {
+        return plan.feasible() ? plan.terms().size() : null;
+    }
+
+    /**
+     * Returns the passed courses of a student as course indexes.
+     *
+     * @param cat the catalog
+     * @param studentId the student's id
+     * @return the passed course indexes
+     */
+    private BitSet passedCourses(Catalog cat, Integer studentId) {
+        return cat.graph.toBitSet(historyRepository.findPassedCourseIdsByStudentId(studentId));
+    }
+
+    /**
+     * Drops the catalog, so the next plan rebuilds it. Called when a course or the core list changes.
+     */
+    public synchronized void invalidateCatalog() {
+        catalog = null;
+    }
+
+    /**
+     * Drops the active semester, so the next plan reads it again. Called when a semester changes.
+     */
+    public synchronized void invalidateActiveSemester() {
+        active = null;
+    }
+
+    /**
+     * Returns the planner's catalog, building it if it was dropped or the prerequisite graph was rebuilt.
+     * It is built under the monitor, so an invalidation never races a build.
+     *
+     * @return the current catalog
+     */
+    private Catalog catalog() {
+        PrerequisiteGraph graph = prerequisiteGraphService.getGraph();
+        Catalog c = catalog;
+        if (c != null && c.graph == graph) return c;
+        synchronized (this) {
+            c = catalog;
+            if (c == null || c.graph != graph) {
+                Set<Integer> coreIds = coreRequiredCoursesRepository.findAll().stream()
+                        .map(CoreRequiredCourse::getCourseId).filter(Objects::nonNull).collect(Collectors.toSet());
+                c = new Catalog(graph, coreIds, courseRepository.findAll());
+                catalog = c;
+            }
+            return c;
+        }
+    }
+
+    /**
+     * Returns the active semester, or the latest one if none is active, reading it once until it is dropped.
+     *
+     * @return the semester, or null if there are none
+     */
+    private Semester activeSemester() {
+        Optional<Semester> a = active;
+        if (a != null) return a.orElse(null);
+        synchronized (this) {
+            if (active == null) active = Optional.ofNullable(findActiveSemester());
+            return active.orElse(null);
+        }
+    }
+
+    /**
+     * Reads the active semester, or the latest one if none is active.
+     *
+     * @return the semester, or null if there are none
+     */
+    private Semester findActiveSemester() {
+        List<Semester> all = semesterRepository.findAll();
+        return all.stream().filter(s -> Boolean.TRUE.equals(s.getIsActive())).findFirst()
+                .orElseGet(() -> all.stream().max(Comparator
+                        .comparing((Semester s) -> s.getYear() == null ? 0 : s.getYear())
+                        .thenComparing(s -> s.getOrderInYear() == null ? 0 : s.getOrderInYear())).orElse(null));
+    }
+
+    /**
+     * Returns the order in the year of the term after a semester.
+     *
+     * @param semester the semester
+     * @return 2 (Spring) after a Fall semester, 1 (Fall) otherwise
+     */
+    private static int nextOrder(Semester semester) {
+        return semester != null && Integer.valueOf(1).equals(semester.getOrderInYear()) ? 2 : 1;
+    }
+}
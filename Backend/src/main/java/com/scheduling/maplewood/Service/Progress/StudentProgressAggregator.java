@@ -0,0 +1,203 @@
+package com.scheduling.maplewood.Service.Progress;
+
+import com.scheduling.maplewood.Entity.StudentProgress;
+import com.scheduling.maplewood.Repository.StudentProgressRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Keeps the student_progress table in step with the course history.
+ *
+ * Each row holds a student's earned and attempted credits, quality points and passed core courses,
+ * computed in the database by one grouped INSERT ... SELECT over history, grades, courses and the core list.
+ * Quality points come from the letter grade recorded for the attempt; an attempt without a grade counts
+ * 4 points per credit if passed and none if failed.
+ * Writes to a student's history or grades mark the student through ProgressChangeListener; the marked
+ * students of a transaction are recomputed together once it commits. The whole table is rebuilt at
+ * startup, when a course changes, and on demand.
+ */
+@Slf4j
+@Service
+public class StudentProgressAggregator {
+
+    private static final int CHUNK = 500;
+    private static final Object PENDING = new Object();
+    private static final Object REBUILD_PENDING = new Object();
+
+    private static final String PASSED =
+            "SELECT DISTINCT student_id, course_id FROM student_course_history WHERE LOWER(status) = 'passed'";
+
+    private static final String AGGREGATE =
+            "INSERT INTO student_progress (student_id, credits_earned, credits_attempted, quality_points, core_passed, updated_at) "
+            + "SELECT s.id, COALESCE(e.earned, 0), COALESCE(a.attempted, 0), COALESCE(a.quality, 0), COALESCE(k.core, 0), CURRENT_TIMESTAMP "
+            + "FROM students s "
+            + "LEFT JOIN (SELECT p.student_id, SUM(c.credits) AS earned FROM (" + PASSED + "%1$s) p "
+            + "    JOIN courses c ON c.id = p.course_id GROUP BY p.student_id) e ON e.student_id = s.id "
+            + "LEFT JOIN (SELECT p.student_id, COUNT(*) AS core FROM (" + PASSED + "%1$s) p "
+            + "    JOIN core_required_courses cr ON cr.course_id = p.course_id GROUP BY p.student_id) k ON k.student_id = s.id "
+            + "LEFT JOIN (SELECT h.student_id, SUM(c.credits) AS attempted, "
+            + "    SUM(c.credits * COALESCE(" + GradeScale.sqlPoints("g.grade_letter") + ", "
+            + "        CASE WHEN LOWER(h.status) = 'passed' THEN 4 ELSE 0 END)) AS quality "
+            + "    FROM student_course_history h JOIN courses c ON c.id = h.course_id "
+            + "    LEFT JOIN student_grades g ON g.student_id = h.student_id AND g.course_id = h.course_id "
+            + "        AND g.semester_id = h.semester_id "
+            + "    WHERE 1 = 1%2$s GROUP BY h.student_id) a ON a.student_id = s.id "
+            + "WHERE 1 = 1%3$s";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final StudentProgressRepository progressRepository;
+    private final TransactionTemplate requiresNew;
+
+    public StudentProgressAggregator(NamedParameterJdbcTemplate jdbc,
+                                     StudentProgressRepository progressRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.progressRepository = progressRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns a student's aggregate, computing it first if the student has none yet.
+     *
+     * @param studentId the student's id
+     * @return the aggregate, or empty if the student does not exist
+     */
+    public Optional<StudentProgress> get(Integer studentId) {
+        Optional<StudentProgress> progress = progressRepository.findById(studentId);
+        if (progress.isPresent()) return progress;
+        refresh(List.of(studentId));
+        return progressRepository.findById(studentId);
+    }
+
+    /**
+     * Recomputes the aggregates of some students in a transaction of its own.
+     *
+     * @param studentIds the students' ids
+     */
+    public void refresh(Collection<Integer> studentIds) {
+        requiresNew.executeWithoutResult(status -> recompute(studentIds));
+    }
+
+    /**
+     * Recomputes the aggregates of some students inside the current transaction, so they commit or roll back
+     * with the writes that changed them. Pending JPA changes must have been flushed first. The students are no
+     * longer recomputed again after commit.
+     *
+     * @param studentIds the students' ids
+     */
+    public void refreshInTransaction(Collection<Integer> studentIds) {
+        recompute(studentIds);
+        @SuppressWarnings("unchecked")
+        Set<Integer> pending = (Set<Integer>) TransactionSynchronizationManager.getResource(PENDING);
+        if (pending != null) pending.removeAll(studentIds);
+    }
+
+    /**
+     * Deletes and re-inserts the aggregates of some students, in chunks.
+     *
+     * @param studentIds the students' ids
+     */
+    private void recompute(Collection<Integer> studentIds) {
+        List<Integer> ids = new ArrayList<>(new TreeSet<>(studentIds));
+        for (int from = 0; from < ids.size(); from += CHUNK) {
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids.subList(from, Math.min(ids.size(), from + CHUNK)));
+            jdbc.update("DELETE FROM student_progress WHERE student_id IN (:ids)", params);
+            jdbc.update(String.format(AGGREGATE,
+                    " AND student_id IN (:ids)", " AND h.student_id IN (:ids)", " AND s.id IN (:ids)"), params);
+        }
+    }
+
+    /**
+     * Recomputes the aggregate of a student once the current transaction commits, or right away without one.
+     * All students marked during one transaction are recomputed together.
+     *
+     * @param studentId the student's id
+     */
+    public void refreshAfterCommit(Integer studentId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(List.of(studentId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Integer> pending = (Set<Integer>) TransactionSynchronizationManager.getResource(PENDING);
+        if (pending == null) {
+            Set<Integer> marked = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(PENDING, marked);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(marked);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING);
+                }
+            });
+            pending = marked;
+        }
+        pending.add(studentId);
+    }
+
+    /**
+     * Rebuilds the aggregates of every student.
+     *
+     * @return the number of students rebuilt
+     */
+    public int rebuildAll() {
+        long started = System.nanoTime();
+        Integer rows = requiresNew.execute(status -> {
+            jdbc.getJdbcTemplate().update("DELETE FROM student_progress");
+            return jdbc.getJdbcTemplate().update(String.format(AGGREGATE, "", "", ""));
+        });
+        log.info("Rebuilt progress of {} students in {} ms", rows, (System.nanoTime() - started) / 1_000_000);
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Rebuilds every aggregate once the current transaction commits, or right away without one.
+     * However many times it is called during one transaction, the aggregates are rebuilt once.
+     */
+    public void rebuildAllAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildAll();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(REBUILD_PENDING)) return;
+        TransactionSynchronizationManager.bindResource(REBUILD_PENDING, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuildAll();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REBUILD_PENDING);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds every aggregate once the application has started, after the core courses are initialized.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void rebuildOnStartup() {
+        rebuildAll();
+    }
+}
@@ -0,0 +1,207 @@
+package com.scheduling.maplewood.Service.Progress;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduling.maplewood.Dto.TranscriptResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.*;
+
+import static com.scheduling.maplewood.Service.Export.ExportStreams.*;
+
+/**
+ * Exports the transcripts of every student, of one grade level, or of a list of students.
+ *
+ * The history is read through one forward-only cursor over students joined with history, courses,
+ * semesters and grades, ordered by student, and written out as it arrives without creating entities.
+ * Only the current row is held in memory, so the export runs in constant heap for any number of students.
+ */
+@Service
+@RequiredArgsConstructor
+public class TranscriptExportService {
+
+    private static final int MAX_STUDENT_IDS = 500;
+
+    private static final String TRANSCRIPTS =
+            "SELECT s.id, s.first_name, s.last_name, s.grade_level, h.id, h.course_id, c.code, c.name, c.credits, "
+            + "se.name, se.year, h.status, h.created_at, g.grade_letter, g.grade_numeric, g.credits_awarded "
+            + "FROM students s "
+            + "LEFT JOIN student_course_history h ON h.student_id = s.id "
+            + "LEFT JOIN courses c ON c.id = h.course_id "
+            + "LEFT JOIN semesters se ON se.id = h.semester_id "
+            + "LEFT JOIN student_grades g ON g.student_id = h.student_id AND g.course_id = h.course_id "
+            + "    AND g.semester_id = h.semester_id "
+            + "WHERE 1 = 1";
+
+    private static final String CSV_HEADER = "student_id,name,grade_level,course_id,course_code,course_name,credits,"
+            + "semester,status,recorded_at,grade_letter,grade_numeric,grade_points,credits_awarded\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Which students to export: all of them, one grade level, and/or a list of ids.
+     *
+     * @param gradeLevel the grade level, or null for any
+     * @param studentIds the students' ids, or null or empty for any
+     */
+    public record Filter(Integer gradeLevel, List<Integer> studentIds) {
+    }
+
+    /**
+     * One history row of a student, or a student without history when entry is null.
+     */
+    private record Row(int studentId, String name, Integer gradeLevel, TranscriptResponse.Entry entry) {
+    }
+
+    /**
+     * Checks the parameters of an export before anything is written: the grade level must be positive and
+     * every listed student must exist.
+     *
+     * @param gradeLevel the grade level, or null for any
+     * @param studentIds the students' ids, or null or empty for any
+     * @return the filter of the export
+     * @throws IllegalArgumentException if a parameter is invalid or a listed student does not exist
+     */
+    public Filter filter(Integer gradeLevel, List<Integer> studentIds) {
+        if (gradeLevel != null && gradeLevel < 1) throw new IllegalArgumentException("gradeLevel must be positive.");
+        if (studentIds == null || studentIds.isEmpty()) return new Filter(gradeLevel, null);
+        if (studentIds.contains(null)) throw new IllegalArgumentException("studentIds must not contain blanks.");
+
+        List<Integer> ids = new ArrayList<>(new TreeSet<>(studentIds));
+        if (ids.size() > MAX_STUDENT_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_STUDENT_IDS + " studentIds can be exported at once.");
+        }
+        Set<Integer> found = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM students WHERE id IN ("
+                + String.join(",", Collections.nCopies(ids.size(), "?")) + ")", Integer.class, ids.toArray()));
+        for (Integer id : ids) {
+            if (!found.contains(id)) throw new IllegalArgumentException("Student not found: " + id);
+        }
+        return new Filter(gradeLevel, ids);
+    }
+
+    /**
+     * Writes the transcripts as NDJSON: one line per student with their information and transcript,
+     * in the shape of the per-student transcript endpoint.
+     *
+     * @param filter the students to export
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeNdjson(Filter filter, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(null);
+            int[] current = {-1};
+            forEachTranscriptRow(filter, row -> {
+                if (row.studentId() != current[0]) {
+                    if (current[0] >= 0) endStudent(gen);
+                    current[0] = row.studentId();
+                    gen.writeStartObject();
+                    gen.writeObjectFieldStart("student");
+                    gen.writeNumberField("id", row.studentId());
+                    gen.writeStringField("name", row.name());
+                    gen.writeObjectField("gradeLevel", row.gradeLevel());
+                    gen.writeEndObject();
+                    gen.writeArrayFieldStart("transcript");
+                }
+                if (row.entry() != null) gen.writeObject(row.entry());
+            });
+            if (current[0] >= 0) endStudent(gen);
+        }
+    }
+
+    /**
+     * Writes the transcripts as CSV, one line per course taken. Students without history are left out.
+     *
+     * @param filter the students to export
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeCsv(Filter filter, OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        w.write(CSV_HEADER);
+        forEachTranscriptRow(filter, row -> {
+            TranscriptResponse.Entry e = row.entry();
+            if (e == null) return;
+            w.write(row.studentId() + "," + csv(row.name()) + "," + text(row.gradeLevel()) + "," + e.courseId()
+                    + "," + csv(e.courseCode()) + "," + csv(e.courseName()) + "," + text(e.credits())
+                    + "," + csv(e.semester()) + "," + csv(e.status()) + "," + text(e.recordedAt())
+                    + "," + csv(e.gradeLetter()) + "," + text(e.gradeNumeric()) + "," + text(e.gradePoints())
+                    + "," + text(e.creditsAwarded()) + "\n");
+        });
+        w.flush();
+    }
+
+    /**
+     * Closes the transcript array and object of a student and ends the line.
+     *
+     * @param gen the generator
+     * @throws IOException if writing fails
+     */
+    private static void endStudent(JsonGenerator gen) throws IOException {
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.flush();
+        gen.writeRaw('\n');
+    }
+
+    /**
+     * Streams the filtered transcripts through a forward-only cursor, ordered by student and history id.
+     *
+     * @param filter the students to export
+     * @param writer the writer of one row
+     * @throws IOException if the writer fails
+     */
+    private void forEachTranscriptRow(Filter filter, RowWriter<Row> writer) throws IOException {
+        List<Integer> ids = filter.studentIds() == null ? List.of() : filter.studentIds();
+        StringBuilder sql = new StringBuilder(TRANSCRIPTS);
+        if (filter.gradeLevel() != null) sql.append(" AND s.grade_level = ?");
+        if (!ids.isEmpty()) sql.append(" AND s.id IN (").append(String.join(",", Collections.nCopies(ids.size(), "?"))).append(")");
+        sql.append(" ORDER BY s.id, h.id");
+
+        forEachRow(jdbcTemplate, con -> {
+            PreparedStatement ps = cursor(con, sql.toString());
+            int p = 1;
+            if (filter.gradeLevel() != null) ps.setInt(p++, filter.gradeLevel());
+            for (Integer id : ids) ps.setInt(p++, id);
+            return ps;
+        }, rs -> writer.write(toRow(rs)));
+    }
+
+    /**
+     * Reads the current result set row.
+     *
+     * @param rs the result set
+     * @return the transcript row
+     * @throws SQLException if reading fails
+     */
+    private Row toRow(ResultSet rs) throws SQLException {
+        int grade = rs.getInt(4);
+        Integer gradeLevel = rs.wasNull() ? null : grade;
+        String name = rs.getString(2) + " " + rs.getString(3);
+        rs.getInt(5);
+        if (rs.wasNull()) {
+            return new Row(rs.getInt(1), name, gradeLevel, null);
+        }
+        String code = rs.getString(7);
+        String courseName = rs.getString(8);
+        String semesterName = rs.getString(10);
+        String semester = semesterName != null ? semesterName + " " + rs.getInt(11) : "Unknown";
+        Timestamp recordedAt = rs.getTimestamp(13);
+        String gradeLetter = rs.getString(14);
+        return new Row(rs.getInt(1), name, gradeLevel, new TranscriptResponse.Entry(
+                rs.getInt(6), code != null ? code : "UNKNOWN", courseName != null ? courseName : "Unknown",
+                rs.getBigDecimal(9), semester, rs.getString(12),
+                recordedAt == null ? null : recordedAt.toLocalDateTime(),
+                gradeLetter, doubleOrNull(rs, 15), GradeScale.pointsOf(gradeLetter), doubleOrNull(rs, 16)));
+    }
+}
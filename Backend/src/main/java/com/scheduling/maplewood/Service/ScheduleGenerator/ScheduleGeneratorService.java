@@ -1,5 +1,6 @@
 package com.scheduling.maplewood.Service.ScheduleGenerator;
 
+import com.scheduling.maplewood.Dto.TeacherScheduleResponse;
 import com.scheduling.maplewood.Entity.*;
 import com.scheduling.maplewood.Repository.*;
 import lombok.RequiredArgsConstructor;
@@ -24,7 +25,6 @@ public class ScheduleGeneratorService {
     private final ClassroomRepository classroomRepository;
     private final SectionMeetingRepository sectionMeetingRepository;
     private final StudentEnrollmentRepository studentEnrollmentRepository;
-    private final SemesterRepository semesterRepository;
 
     /**
      * Generates a master schedule for a given semester.
@@ -72,98 +72,13 @@ public class ScheduleGeneratorService {
         return createdSections;
     }
 
-    /**
-     * Returns the master schedule for a given semester.
-     * 
-     * @param semesterId the semester's id
-     * @return a map containing the semester's name and year, and a list of sections
-     * @throws RuntimeException if the semester is not found
-     */
-    public Map<String, Object> getMasterScheduleResponse(Integer semesterId) {
-        Semester semester = semesterRepository.findById(semesterId)
-                .orElseThrow(() -> new RuntimeException("Semester not found: " + semesterId));
-
-        String semesterNameYear = (semester.getName() == null ? "" : semester.getName())
-                + " " + (semester.getYear() == null ? "" : semester.getYear().toString());
-        semesterNameYear = semesterNameYear.trim();
-
-        List<CourseSection> sections = courseSectionRepository.findBySemesterId(semesterId);
-
-        List<Map<String, Object>> sectionList = sections.stream()
-                .map(this::mapSectionToMasterScheduleItem)
-                .collect(Collectors.toList());
-
-        Map<String, Object> out = new LinkedHashMap<>();
-        out.put("semester", semesterNameYear);
-        out.put("sections", sectionList);
-
-        return out;
-    }
-
-    /**
-     * Maps a CourseSection to a detailed item containing its course ID, section ID, course name, teacher name, email, room name, schedule, and student count.
-     *
-     * @param s the CourseSection to map
-     * @return a map containing the detailed item
-     */
-    private Map<String, Object> mapSectionToMasterScheduleItem(CourseSection s) {
-        Course course = courseRepository.findById(s.getCourseId()).orElse(null);
-        Teacher teacher = teacherRepository.findById(s.getTeacherId()).orElse(null);
-        Classroom room = classroomRepository.findById(s.getRoomId()).orElse(null);
-
-        List<SectionMeeting> meetings = sectionMeetingRepository.findBySectionId(s.getId());
-
-        Map<String, Integer> dayOrder = Map.of(
-                "MONDAY", 1,
-                "TUESDAY", 2,
-                "WEDNESDAY", 3,
-                "THURSDAY", 4,
-                "FRIDAY", 5
-        );
-
-        meetings.sort(Comparator.comparingInt(
-                m -> dayOrder.getOrDefault(m.getDayOfWeek().toUpperCase(), 99))
-        );
-
-        List<String> schedule = meetings.stream()
-                .map(this::formatMeeting)
-                .collect(Collectors.toList());
-
-        int enrolled = studentEnrollmentRepository.findBySectionId(s.getId()).size();
-        int available = (s.getCapacity() == null ? 0 : s.getCapacity()) - enrolled;
-
-        String studentsText;
-        if (s.getCapacity() == null) {
-            studentsText = enrolled + " (capacity unknown)";
-        } else if (available <= 0) {
-            studentsText = enrolled + " (capacity full)";
-        } else {
-            studentsText = enrolled + " (" + available + " spots available)";
-        }
-
-        Map<String, Object> item = new LinkedHashMap<>();
-
-        item.put("courseId", course != null ? course.getId() : null);
-        item.put("sectionId", s.getId());
-
-        item.put("course", (course != null ? course.getCode() : "UNKNOWN")
-                + " - " + (course != null ? course.getName() : "Unknown Course"));
-        item.put("teacher", teacher != null ? (teacher.getFirstName() + " " + teacher.getLastName()) : "TBD");
-        item.put("email", teacher != null ? teacher.getEmail() : "TBD");
-        item.put("room", room != null ? room.getName() : "TBD");
-        item.put("schedule", schedule);
-        item.put("students", studentsText);
-
-        return item;
-    }
-
     /**
      * Maps a CourseSection to a detailed item containing its course name, room name, schedule, and student count.
      *
      * @param s the CourseSection to map
-     * @return a map containing the detailed item
+     * @return the detailed item
      */
-    private Map<String, Object> mapSectionToTeacherScheduleItem(CourseSection s) {
+    private TeacherScheduleResponse.Item mapSectionToTeacherScheduleItem(CourseSection s) {
         Course course = courseRepository.findById(s.getCourseId()).orElse(null);
         Teacher teacher = teacherRepository.findById(s.getTeacherId()).orElse(null);
         Classroom room = classroomRepository.findById(s.getRoomId()).orElse(null);
@@ -196,13 +111,11 @@ public class ScheduleGeneratorService {
             studentsText = enrolled + " (" + available + " spots available)";
         }
 
-        Map<String, Object> item = new LinkedHashMap<>();
-        item.put("course", (course != null ? course.getCode() : "UNKNOWN") + " - " + (course != null ? course.getName() : "Unknown Course"));
-        item.put("room", room != null ? room.getName() : "TBD");
-        item.put("schedule", schedule);
-        item.put("students", studentsText);
-
-        return item;
+        return new TeacherScheduleResponse.Item(
+                (course != null ? course.getCode() : "UNKNOWN") + " - " + (course != null ? course.getName() : "Unknown Course"),
+                room != null ? room.getName() : "TBD",
+                schedule,
+                studentsText);
     }
 
     /**
@@ -237,17 +150,13 @@ public class ScheduleGeneratorService {
     }
 
     /**
-     * Returns a map containing the teacher's information and their schedule.
+     * Returns the teacher's information and their schedule.
      * 
      * @param teacherId the teacher's ID
-     * @return a map containing the teacher's information and their schedule
-     * 
-     * The map contains the following keys:
-     * 
-     * - "teacher": a map containing the teacher's ID, name, and email
-     * - "schedule": a list of maps, each containing the course name, room name, and schedule
+     * @return the teacher's ID, name and email, and one item per section with the course name, room name,
+     *         schedule and student count
      */
-    public Map<String, Object> getTeacherScheduleResponse(Integer teacherId) {
+    public TeacherScheduleResponse getTeacherScheduleResponse(Integer teacherId) {
 
         Teacher teacher = teacherRepository.findById(teacherId).orElse(null);
 
@@ -257,53 +166,14 @@ public class ScheduleGeneratorService {
                 .filter(s -> Objects.equals(s.getTeacherId(), teacherId))
                 .collect(Collectors.toList());
 
-        List<Map<String, Object>> formatted =
+        List<TeacherScheduleResponse.Item> formatted =
                 sections.stream().map(this::mapSectionToTeacherScheduleItem).toList();
 
-        Map<String, Object> out = new LinkedHashMap<>();
-        Map<String, Object> teacherInfo = new LinkedHashMap<>();
-        teacherInfo.put("id", teacher != null ? teacher.getId() : null);
-        teacherInfo.put("name", teacher != null ? teacher.getFirstName() + " " + teacher.getLastName() : "Unknown");
-        teacherInfo.put("email", teacher != null ? teacher.getEmail() : "Unknown");
-
-        out.put("teacher", teacherInfo);
-        out.put("schedule", formatted);
-
-        return out;
-    }
-
-    /**
-     * Returns a map containing the course schedule for a given semester.
-     * 
-     * The map contains the following keys:
-     * 
-     * - "semesterId": the semester's ID
-     * - "courses": a map containing the course codes as keys and lists of maps as values.
-     *   Each map contains the course section's information and schedule.
-     *   The map contains the following keys:
-     *   - "course": the course name
-     *   - "room": the room name
-     *   - "schedule": a list of strings, each representing a meeting time in the format "DAY START-END"
-     *   - "students": a string representing the enrolled and available students
-     */
-    public Map<String, Object> getCourseScheduleResponse(Integer semesterId) {
-
-        List<CourseSection> sections =
-                courseSectionRepository.findBySemesterId(semesterId);
-
-        Map<String, List<Map<String, Object>>> grouped =
-                sections.stream()
-                        .collect(Collectors.groupingBy(
-                                s -> courseRepository.findById(s.getCourseId())
-                                        .map(Course::getCode)
-                                        .orElse("UNKNOWN"),
-                                Collectors.mapping(this::mapSectionToMasterScheduleItem, Collectors.toList())
-                        ));
-
-        Map<String, Object> out = new LinkedHashMap<>();
-        out.put("semesterId", semesterId);
-        out.put("courses", grouped);
+        TeacherScheduleResponse.Teacher teacherInfo = new TeacherScheduleResponse.Teacher(
+                teacher != null ? teacher.getId() : null,
+                teacher != null ? teacher.getFirstName() + " " + teacher.getLastName() : "Unknown",
+                teacher != null ? teacher.getEmail() : "Unknown");
 
-        return out;
+        return new TeacherScheduleResponse(teacherInfo, formatted);
     }
 }
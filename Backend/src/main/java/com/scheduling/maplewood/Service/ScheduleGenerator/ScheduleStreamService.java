@@ -0,0 +1,235 @@
+package com.scheduling.maplewood.Service.ScheduleGenerator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduling.maplewood.Dto.ScheduledSection;
+import com.scheduling.maplewood.Entity.Semester;
+import com.scheduling.maplewood.Repository.SemesterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.scheduling.maplewood.Service.Export.ExportStreams.*;
+
+/**
+ * Streams the master schedule and the course schedules of a semester.
+ *
+ * Every section of the semester is read with its course, teacher, room, meetings and enrollment count
+ * through one cursor, one row per meeting. Consecutive rows of a section are folded into one
+ * {@link ScheduledSection}, which is written out before the next section is read, so a large schedule
+ * is never held in memory as a whole.
+ */
+@Service
+@RequiredArgsConstructor
+public class ScheduleStreamService {
+
+    private static final String SECTIONS =
+            "SELECT cs.id, cs.course_id, c.id, c.code, c.name, t.id, t.first_name, t.last_name, t.email, r.name, "
+            + "cs.capacity, m.day_of_week, m.start_time, m.end_time, COALESCE(e.enrolled, 0), m.id "
+            + "FROM course_sections cs "
+            + "LEFT JOIN courses c ON c.id = cs.course_id "
+            + "LEFT JOIN teachers t ON t.id = cs.teacher_id "
+            + "LEFT JOIN classrooms r ON r.id = cs.room_id "
+            + "LEFT JOIN section_meetings m ON m.section_id = cs.id "
+            + "LEFT JOIN (SELECT section_id, COUNT(*) AS enrolled FROM student_enrollments GROUP BY section_id) e "
+            + "    ON e.section_id = cs.id "
+            + "WHERE cs.semester_id = ? ";
+
+    private static final String DAY_ORDER =
+            "CASE UPPER(m.day_of_week) WHEN 'MONDAY' THEN 1 WHEN 'TUESDAY' THEN 2 WHEN 'WEDNESDAY' THEN 3 "
+            + "WHEN 'THURSDAY' THEN 4 WHEN 'FRIDAY' THEN 5 ELSE 99 END";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SemesterRepository semesterRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * A section of the schedule under its course code.
+     */
+    private record Grouped(String code, ScheduledSection section) {
+    }
+
+    /**
+     * Returns the name and year of a semester, as shown on its master schedule.
+     *
+     * @param semesterId the semester's id
+     * @return the semester's name and year
+     * @throws RuntimeException if the semester is not found
+     */
+    public String semesterLabel(Integer semesterId) {
+        Semester semester = semesterRepository.findById(semesterId)
+                .orElseThrow(() -> new RuntimeException("Semester not found: " + semesterId));
+
+        String semesterNameYear = (semester.getName() == null ? "" : semester.getName())
+                + " " + (semester.getYear() == null ? "" : semester.getYear().toString());
+        return semesterNameYear.trim();
+    }
+
+    /**
+     * Writes the master schedule of a semester in the success envelope: the semester's name and year,
+     * and every section ordered by id.
+     *
+     * @param semesterId the semester's id
+     * @param semesterLabel the semester's name and year, see {@link #semesterLabel(Integer)}
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeMasterSchedule(Integer semesterId, String semesterLabel, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            gen.writeBooleanField("success", true);
+            gen.writeObjectFieldStart("result");
+            gen.writeStringField("semester", semesterLabel);
+            gen.writeArrayFieldStart("sections");
+            forEachSection(semesterId, "cs.id", s -> gen.writeObject(s.section()));
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the course schedules of a semester in the success envelope: the sections grouped under their
+     * course code, "UNKNOWN" for sections whose course no longer exists.
+     *
+     * @param semesterId the semester's id
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeCourseSchedules(Integer semesterId, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            gen.writeBooleanField("success", true);
+            gen.writeObjectFieldStart("result");
+            gen.writeNumberField("semesterId", semesterId);
+            gen.writeObjectFieldStart("courses");
+            String[] current = {null};
+            forEachSection(semesterId, "COALESCE(c.code, 'UNKNOWN'), cs.id", s -> {
+                if (!s.code().equals(current[0])) {
+                    if (current[0] != null) gen.writeEndArray();
+                    current[0] = s.code();
+                    gen.writeArrayFieldStart(s.code());
+                }
+                gen.writeObject(s.section());
+            });
+            if (current[0] != null) gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Streams the sections of a semester through a cursor, folding the meeting rows of each section
+     * and handing the section to the writer once its last row is read.
+     *
+     * @param semesterId the semester's id
+     * @param orderBy the order of the sections; must keep the rows of a section together
+     * @param writer the writer of one section
+     * @throws IOException if the writer fails
+     */
+    private void forEachSection(Integer semesterId, String orderBy, RowWriter<Grouped> writer) throws IOException {
+        SectionBuilder[] current = {null};
+        forEachRow(jdbcTemplate, con -> {
+            PreparedStatement ps = cursor(con, SECTIONS + "ORDER BY " + orderBy + ", " + DAY_ORDER + ", m.id");
+            ps.setInt(1, semesterId);
+            return ps;
+        }, rs -> {
+            int sectionId = rs.getInt(1);
+            if (current[0] == null || current[0].sectionId != sectionId) {
+                if (current[0] != null) writer.write(current[0].build());
+                current[0] = new SectionBuilder(rs);
+            }
+            current[0].addMeeting(rs);
+        });
+        if (current[0] != null) writer.write(current[0].build());
+    }
+
+    /**
+     * The section being read from the cursor, with the meetings read so far.
+     */
+    private static final class SectionBuilder {
+
+        private final int sectionId;
+        private final Integer courseId;
+        private final String code;
+        private final String course;
+        private final String teacher;
+        private final String email;
+        private final String room;
+        private final String students;
+        private final List<String> schedule = new ArrayList<>();
+
+        SectionBuilder(ResultSet rs) throws SQLException {
+            this.sectionId = rs.getInt(1);
+            int course = rs.getInt(3);
+            boolean courseFound = !rs.wasNull();
+            this.courseId = courseFound ? course : null;
+            this.code = courseFound ? rs.getString(4) : "UNKNOWN";
+            this.course = code + " - " + (courseFound ? rs.getString(5) : "Unknown Course");
+            rs.getInt(6);
+            boolean teacherFound = !rs.wasNull();
+            this.teacher = teacherFound ? rs.getString(7) + " " + rs.getString(8) : "TBD";
+            this.email = teacherFound ? rs.getString(9) : "TBD";
+            String room = rs.getString(10);
+            this.room = room != null ? room : "TBD";
+
+            int capacity = rs.getInt(11);
+            boolean capacityKnown = !rs.wasNull();
+            int enrolled = rs.getInt(15);
+            int available = (capacityKnown ? capacity : 0) - enrolled;
+            if (!capacityKnown) {
+                this.students = enrolled + " (capacity unknown)";
+            } else if (available <= 0) {
+                this.students = enrolled + " (capacity full)";
+            } else {
+                this.students = enrolled + " (" + available + " spots available)";
+            }
+        }
+
+        /**
+         * Adds the meeting of the current row, if the section has one, in the format "DAY START-END".
+         *
+         * @param rs the result set
+         * @throws SQLException if reading fails
+         */
+        void addMeeting(ResultSet rs) throws SQLException {
+            rs.getInt(16);
+            if (rs.wasNull()) return;
+            String day = rs.getString(12);
+            schedule.add((day == null ? "" : day.toUpperCase()) + " " + formatTime(rs.getString(13)) + "-" + formatTime(rs.getString(14)));
+        }
+
+        Grouped build() {
+            return new Grouped(Objects.toString(code, "UNKNOWN"),
+                    new ScheduledSection(courseId, sectionId, course, teacher, email, room, schedule, students));
+        }
+    }
+
+    /**
+     * Returns a string representation of a given time string in the format "HH AM/PM".
+     *
+     * @param time the time string to format
+     * @return a string representation of the given time string, or an empty string if it is null or blank
+     */
+    private static String formatTime(String time) {
+        if (time == null || time.isBlank()) return "";
+        java.time.LocalTime t = java.time.LocalTime.parse(time);
+        int hour = t.getHour();
+        String ampm = hour >= 12 ? "PM" : "AM";
+        int displayHour = hour % 12;
+        if (displayHour == 0) displayHour = 12;
+        return displayHour + ampm;
+    }
+}
@@ -0,0 +1,305 @@
+package com.scheduling.maplewood.LoadTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Repository.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Simulates registration opening against a running instance on a scratch SQLite file.
+ *
+ * Seeds a synthetic school (one semester, courses with several sections each, two weekly meetings per
+ * section, students), then fires concurrent enroll and eligible-sections requests over HTTP and reports
+ * throughput, p50/p99 latency per endpoint and the error messages seen. Afterwards the database is checked
+ * for oversubscribed sections and duplicate enrollments, which fail the test.
+ *
+ * Tagged "load" so it only runs with the loadtest profile:
+ * mvn -Ploadtest test -Dloadtest.students=2000 -Dloadtest.requests=10000 -Dloadtest.concurrency=64
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RegistrationLoadTests {
+
+    private static final int STUDENTS = Integer.getInteger("loadtest.students", 2000);
+    private static final int COURSES = Integer.getInteger("loadtest.courses", 40);
+    private static final int SECTIONS_PER_COURSE = Integer.getInteger("loadtest.sections-per-course", 3);
+    private static final int CAPACITY = Integer.getInteger("loadtest.capacity", 25);
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 10000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 64);
+    private static final int ELIGIBLE_PERCENT = Integer.getInteger("loadtest.eligible-percent", 20);
+    private static final long SEED = Long.getLong("loadtest.seed", 42L);
+
+    private static final String[][] DAY_PAIRS = {{"MONDAY", "WEDNESDAY"}, {"TUESDAY", "THURSDAY"}, {"WEDNESDAY", "FRIDAY"}};
+
+    private static final Path DATABASE = scratchDatabase();
+
+    @DynamicPropertySource
+    static void scratchDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + DATABASE);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @AfterAll
+    static void deleteDatabase() throws IOException {
+        Files.deleteIfExists(DATABASE);
+    }
+
+    @LocalServerPort private int port;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private SemesterRepository semesterRepository;
+    @Autowired private CourseSectionRepository courseSectionRepository;
+    @Autowired private SectionMeetingRepository sectionMeetingRepository;
+    @Autowired private TeacherRepository teacherRepository;
+    @Autowired private ClassroomRepository classroomRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper objectMapper;
+
+    /**
+     * The outcome of one request.
+     */
+    private record Sample(String endpoint, long nanos, String outcome) {
+    }
+
+    @Test
+    void registrationOpen() throws Exception {
+        Random random = new Random(SEED);
+        School school = new TransactionTemplate(transactionManager).execute(status -> seed(random));
+
+        ExecutorService httpPool = Executors.newFixedThreadPool(CONCURRENCY);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(httpPool)
+                .build();
+        String base = "http://localhost:" + port + "/api/v1/enrollment";
+
+        List<Callable<Sample>> calls = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            int studentId = school.studentIds().get(random.nextInt(school.studentIds().size()));
+            if (random.nextInt(100) < ELIGIBLE_PERCENT) {
+                URI uri = URI.create(base + "/student/" + studentId + "/eligible?semesterId=" + school.semesterId());
+                calls.add(() -> send(client, "eligible", HttpRequest.newBuilder(uri).GET().build()));
+            } else {
+                int courseId = school.courseIds().get(random.nextInt(school.courseIds().size()));
+                String body = "{\"studentId\":" + studentId + ",\"courseId\":" + courseId
+                        + ",\"semesterId\":" + school.semesterId() + "}";
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                calls.add(() -> send(client, "enroll", request));
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        long started = System.nanoTime();
+        List<Sample> samples = new ArrayList<>();
+        try {
+            for (Future<Sample> f : pool.invokeAll(calls)) samples.add(f.get());
+        } finally {
+            pool.shutdownNow();
+            httpPool.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        int oversubscribed = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM course_sections cs WHERE cs.capacity < "
+                        + "(SELECT COUNT(*) FROM student_enrollments e WHERE e.section_id = cs.id)", Integer.class);
+        int duplicates = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM student_enrollments "
+                        + "GROUP BY student_id, course_id, semester_id HAVING COUNT(*) > 1)", Integer.class);
+        int enrolled = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student_enrollments", Integer.class);
+
+        report(samples, elapsed, enrolled, oversubscribed, duplicates);
+
+        assertEquals(0, oversubscribed, "oversubscribed sections");
+        assertEquals(0, duplicates, "duplicate enrollments");
+    }
+
+    /**
+     * The ids of the seeded rows the traffic refers to.
+     */
+    private record School(Integer semesterId, List<Integer> courseIds, List<Integer> studentIds) {
+    }
+
+    /**
+     * Seeds the semester, the courses with a teacher and their sections with rooms and meetings, and the students.
+     *
+     * @param random the seeded random
+     * @return the seeded ids
+     */
+    private School seed(Random random) {
+        Semester semester = new Semester();
+        semester.setName("Fall");
+        semester.setYear(2030);
+        semester.setOrderInYear(1);
+        semester.setIsActive(true);
+        semesterRepository.save(semester);
+
+        List<Classroom> rooms = new ArrayList<>();
+        for (int r = 0; r < SECTIONS_PER_COURSE; r++) {
+            Classroom room = new Classroom();
+            room.setName("Load room " + r);
+            room.setCapacity(CAPACITY);
+            rooms.add(classroomRepository.save(room));
+        }
+
+        List<Integer> courseIds = new ArrayList<>();
+        for (int c = 0; c < COURSES; c++) {
+            Teacher teacher = new Teacher();
+            teacher.setFirstName("Load");
+            teacher.setLastName("Teacher" + c);
+            teacher.setEmail("teacher" + c + "@maplewood.test");
+            teacherRepository.save(teacher);
+
+            Course course = new Course();
+            course.setCode("LOAD" + (100 + c));
+            course.setName("Load course " + c);
+            course.setCredits(BigDecimal.valueOf(3));
+            course.setHoursPerWeek(2);
+            course.setCourseType(c % 2 == 0 ? "core" : "elective");
+            course.setGradeLevelMin(9);
+            course.setGradeLevelMax(12);
+            course.setSemesterOrder(1);
+            courseIds.add(courseRepository.save(course).getId());
+
+            for (int k = 0; k < SECTIONS_PER_COURSE; k++) {
+                CourseSection section = new CourseSection();
+                section.setCourseId(course.getId());
+                section.setSemesterId(semester.getId());
+                section.setCapacity(CAPACITY);
+                section.setTeacherId(teacher.getId());
+                section.setRoomId(rooms.get(k).getId());
+                courseSectionRepository.save(section);
+
+                String[] days = DAY_PAIRS[random.nextInt(DAY_PAIRS.length)];
+                int hour = 8 + random.nextInt(8);
+                for (String day : days) {
+                    SectionMeeting meeting = new SectionMeeting();
+                    meeting.setSectionId(section.getId());
+                    meeting.setDayOfWeek(day);
+                    meeting.setStartTime(String.format("%02d:00", hour));
+                    meeting.setEndTime(String.format("%02d:00", hour + 1));
+                    sectionMeetingRepository.save(meeting);
+                }
+            }
+        }
+
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student s = new Student();
+            s.setFirstName("Load");
+            s.setLastName("Student" + i);
+            s.setEmail("load" + i + "@maplewood.test");
+            s.setGradeLevel(9 + random.nextInt(4));
+            s.setStatus("active");
+            students.add(s);
+        }
+        List<Integer> studentIds = studentRepository.saveAll(students).stream().map(Student::getId).toList();
+        return new School(semester.getId(), courseIds, studentIds);
+    }
+
+    /**
+     * Sends one request and classifies its outcome: "ok", the error message of a rejected request, or the HTTP
+     * or I/O failure.
+     *
+     * @param client the HTTP client
+     * @param endpoint the endpoint's name in the report
+     * @param request the request
+     * @return the sample
+     */
+    private Sample send(HttpClient client, String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        String outcome;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            JsonNode json = objectMapper.readTree(response.body());
+            if (json.path("success").asBoolean(false)) {
+                outcome = "ok";
+            } else if (json.hasNonNull("error")) {
+                outcome = json.get("error").asText();
+            } else {
+                outcome = "HTTP " + response.statusCode();
+            }
+        } catch (IOException e) {
+            outcome = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "interrupted";
+        }
+        return new Sample(endpoint, System.nanoTime() - start, outcome);
+    }
+
+    /**
+     * Prints the throughput, the latency percentiles per endpoint, the outcome counts and the integrity checks.
+     *
+     * @param samples the samples of every request
+     * @param elapsedNanos the wall time of the run
+     * @param enrolled the enrollments written
+     * @param oversubscribed the sections with more enrollments than seats
+     * @param duplicates the (student, course, semester) keys enrolled more than once
+     */
+    private void report(List<Sample> samples, long elapsedNanos, int enrolled, int oversubscribed, int duplicates) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n=== Registration load test: %d students, %d courses x %d sections of %d seats, concurrency %d ===%n",
+                STUDENTS, COURSES, SECTIONS_PER_COURSE, CAPACITY, CONCURRENCY));
+        out.append(String.format("requests %d in %.2f s, %.1f req/s%n", samples.size(), seconds, samples.size() / seconds));
+
+        Map<String, List<Sample>> byEndpoint = new TreeMap<>();
+        for (Sample s : samples) byEndpoint.computeIfAbsent(s.endpoint(), k -> new ArrayList<>()).add(s);
+        for (Map.Entry<String, List<Sample>> e : byEndpoint.entrySet()) {
+            long[] nanos = e.getValue().stream().mapToLong(Sample::nanos).sorted().toArray();
+            out.append(String.format("%-9s n=%-6d p50=%7.1f ms  p99=%7.1f ms  max=%7.1f ms%n", e.getKey(), nanos.length,
+                    percentile(nanos, 50) / 1e6, percentile(nanos, 99) / 1e6, nanos[nanos.length - 1] / 1e6));
+
+            Map<String, Long> outcomes = new TreeMap<>();
+            for (Sample s : e.getValue()) outcomes.merge(s.outcome(), 1L, Long::sum);
+            outcomes.forEach((outcome, count) -> out.append(String.format("    %6d  %s%n", count, outcome)));
+        }
+        out.append(String.format("enrollments written %d, oversubscribed sections %d, duplicate enrollments %d%n",
+                enrolled, oversubscribed, duplicates));
+        System.out.print(out);
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static Path scratchDatabase() {
+        try {
+            return Files.createTempFile("maplewood-load-", ".sqlite");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
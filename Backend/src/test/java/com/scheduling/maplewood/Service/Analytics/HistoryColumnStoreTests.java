@@ -0,0 +1,80 @@
+package com.scheduling.maplewood.Service.Analytics;
+
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Repository.StudentCourseHistoryRepository;
+import com.scheduling.maplewood.Repository.StudentRepository;
+import com.scheduling.maplewood.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HistoryColumnStoreTests {
+
+    @Autowired private HistoryColumnStore store;
+    @Autowired private HistoryAnalyticsService analyticsService;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private StudentCourseHistoryRepository historyRepository;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void appendsNewRowsAndReloadsAfterUpdates() {
+        Student student = fixtures.student();
+        Course course = fixtures.course("COL101");
+        store.invalidate();
+
+        HistoryColumnStore.Snapshot before = store.read();
+        StudentCourseHistory failed = fixtures.history(student, course, 1, "failed");
+        fixtures.history(student, course, 2, "passed");
+
+        HistoryColumnStore.Snapshot after = store.read();
+        assertEquals(before.size() + 2, after.size());
+        assertSame(after, store.read());
+
+        Map<String, Object> rollup = analyticsService.courseRollup(null);
+        Map<String, Object> row = courseRow(rollup, course);
+        assertEquals(2, row.get("attempts"));
+        assertEquals(50.0, row.get("passRate"));
+        assertEquals(1, row.get("repeatAttempts"));
+
+        failed.setStatus("passed");
+        historyRepository.save(failed);
+        assertEquals(100.0, courseRow(analyticsService.courseRollup(null), course).get("passRate"));
+    }
+
+    @Test
+    void reloadsAfterAStudentChangesGradeLevel() {
+        Student student = fixtures.student();
+        Course course = fixtures.course("COL201");
+        fixtures.history(student, course, 1, "passed");
+
+        HistoryColumnStore.Snapshot before = store.read();
+        assertEquals(9, before.gradeLevel[before.size() - 1]);
+
+        student.setGradeLevel(12);
+        studentRepository.save(student);
+
+        HistoryColumnStore.Snapshot after = store.read();
+        assertEquals(12, after.gradeLevel[after.size() - 1]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> courseRow(Map<String, Object> rollup, Course course) {
+        return ((List<Map<String, Object>>) rollup.get("courses")).stream()
+                .filter(m -> course.getId().equals(m.get("courseId"))).findFirst().orElseThrow();
+    }
+}
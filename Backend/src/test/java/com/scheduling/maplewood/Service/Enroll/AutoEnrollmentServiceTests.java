@@ -0,0 +1,110 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Repository.SectionMeetingRepository;
+import com.scheduling.maplewood.Repository.StudentEnrollmentRepository;
+import com.scheduling.maplewood.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AutoEnrollmentServiceTests {
+
+    @Autowired private AutoEnrollmentService autoEnrollmentService;
+    @Autowired private SectionMeetingRepository sectionMeetingRepository;
+    @Autowired private StudentEnrollmentRepository studentEnrollmentRepository;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void repairedAssignmentNeverOversubscribesOrClashes() {
+        Semester semester = fixtures.semester();
+        Course math = course("AUTO-MATH");
+        Course english = course("AUTO-ENG");
+        Course science = course("AUTO-SCI");
+
+        // every section of english and science clashes with one of math's, so the flow, which only sees
+        // each request on its own, hands out clashing pairs that the repair has to move or leave open
+        List<CourseSection> sections = List.of(
+                fixtures.section(math, semester, 5, "MONDAY", "09:00", "10:00"),
+                fixtures.section(math, semester, 5, "TUESDAY", "09:00", "10:00"),
+                fixtures.section(english, semester, 4, "MONDAY", "09:30", "10:30"),
+                fixtures.section(english, semester, 4, "TUESDAY", "09:00", "11:00"),
+                fixtures.section(science, semester, 3, "MONDAY", "09:00", "10:00"),
+                fixtures.section(science, semester, 6, "WEDNESDAY", "09:00", "10:00"));
+        List<Student> students = fixtures.students(12);
+
+        Map<String, Object> result = autoEnrollmentService.autoEnroll(semester.getId(), false);
+
+        List<StudentEnrollment> enrollments = studentEnrollmentRepository.findAll();
+        assertEquals(36L, ((Number) result.get("requests")).longValue());
+        assertEquals(((Number) result.get("enrolled")).longValue(), enrollments.size());
+        assertTrue(enrollments.size() > 12);
+
+        Map<Integer, Long> taken = enrollments.stream()
+                .collect(Collectors.groupingBy(StudentEnrollment::getSectionId, Collectors.counting()));
+        for (CourseSection cs : sections) {
+            assertTrue(taken.getOrDefault(cs.getId(), 0L) <= cs.getCapacity(), "section " + cs.getId() + " oversubscribed");
+        }
+
+        Map<Integer, List<SectionMeeting>> meetings = sectionMeetingRepository.findAll().stream()
+                .collect(Collectors.groupingBy(SectionMeeting::getSectionId));
+        Map<Integer, List<StudentEnrollment>> byStudent = enrollments.stream()
+                .collect(Collectors.groupingBy(StudentEnrollment::getStudentId));
+        for (Student student : students) {
+            List<StudentEnrollment> own = byStudent.getOrDefault(student.getId(), List.of());
+            assertEquals(own.size(), own.stream().map(StudentEnrollment::getCourseId).distinct().count());
+            for (int i = 0; i < own.size(); i++) {
+                for (int j = i + 1; j < own.size(); j++) {
+                    assertFalse(clash(meetings.get(own.get(i).getSectionId()), meetings.get(own.get(j).getSectionId())),
+                            "student " + student.getId() + " has a clashing schedule");
+                }
+            }
+        }
+    }
+
+    @Test
+    void dryRunWritesNothing() {
+        Semester semester = fixtures.semester();
+        Course math = course("AUTO-DRY");
+        fixtures.section(math, semester, 2, "MONDAY", "09:00", "10:00");
+        fixtures.students(3);
+
+        Map<String, Object> result = autoEnrollmentService.autoEnroll(semester.getId(), true);
+
+        assertEquals(2L, ((Number) result.get("enrolled")).longValue());
+        assertTrue(studentEnrollmentRepository.findAll().isEmpty());
+    }
+
+    private boolean clash(List<SectionMeeting> a, List<SectionMeeting> b) {
+        for (SectionMeeting x : a) {
+            for (SectionMeeting y : b) {
+                if (x.getDayOfWeek().equals(y.getDayOfWeek())
+                        && x.getStartTime().compareTo(y.getEndTime()) < 0
+                        && y.getStartTime().compareTo(x.getEndTime()) < 0) return true;
+            }
+        }
+        return false;
+    }
+
+    private Course course(String code) {
+        return fixtures.course(code, c -> {
+            c.setCourseType("core");
+            c.setGradeLevelMin(9);
+            c.setGradeLevelMax(12);
+        });
+    }
+}
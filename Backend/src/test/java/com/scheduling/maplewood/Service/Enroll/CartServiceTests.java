@@ -0,0 +1,90 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.StudentEnrollmentRepository;
+import com.scheduling.maplewood.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "maplewood.cart.hold-ttl=2s")
+@ActiveProfiles("test")
+class CartServiceTests {
+
+    @Autowired private CartService cartService;
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private SeatLedger seatLedger;
+    @Autowired private StudentEnrollmentRepository studentEnrollmentRepository;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void expiredHoldFreesItsSeat() throws InterruptedException {
+        Semester semester = fixtures.semester();
+        CourseSection section = fixtures.section(fixtures.course("CART101"), semester, 1);
+        List<Student> students = fixtures.students(2);
+
+        cartService.add(students.get(0).getId(), section.getId());
+        assertThrows(EnrollmentException.class, () -> cartService.add(students.get(1).getId(), section.getId()));
+
+        // the sweeper releases the hold once its delay has run out
+        for (int i = 0; i < 100 && seatLedger.occupied(section.getId()) > 0; i++) Thread.sleep(50);
+
+        assertEquals(0, seatLedger.occupied(section.getId()));
+        assertTrue(sections(cartService.cart(students.get(0).getId())).isEmpty());
+        assertEquals(1, sections(cartService.add(students.get(1).getId(), section.getId())).size());
+    }
+
+    @Test
+    void failedCheckoutKeepsEveryHoldAndWritesNothing() {
+        Semester semester = fixtures.semester();
+        Course first = fixtures.course("CART201");
+        Course second = fixtures.course("CART202");
+        CourseSection firstSection = fixtures.section(first, semester, 1);
+        CourseSection secondSection = fixtures.section(second, semester, 1);
+        fixtures.section(second, semester, 5);
+        Student student = fixtures.student();
+
+        cartService.add(student.getId(), firstSection.getId());
+        cartService.add(student.getId(), secondSection.getId());
+
+        // enrolled in the second course meanwhile, so its hold fails after the first one was converted
+        EnrollmentRequest req = new EnrollmentRequest();
+        req.setStudentId(student.getId());
+        req.setCourseId(second.getId());
+        req.setSemesterId(semester.getId());
+        assertTrue(enrollmentService.enroll(req).isSuccess());
+
+        assertThrows(EnrollmentException.class, () -> cartService.checkout(student.getId()));
+
+        assertEquals(2, sections(cartService.cart(student.getId())).size());
+        assertEquals(0, seatLedger.taken(firstSection.getId()));
+        assertEquals(1, seatLedger.occupied(firstSection.getId()));
+        assertEquals(1, seatLedger.occupied(secondSection.getId()));
+        assertEquals(1, studentEnrollmentRepository.findByStudentId(student.getId()).size());
+
+        // each seat is released exactly once
+        cartService.remove(student.getId(), firstSection.getId());
+        cartService.remove(student.getId(), secondSection.getId());
+        assertEquals(0, seatLedger.occupied(firstSection.getId()));
+        assertEquals(0, seatLedger.occupied(secondSection.getId()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> sections(Map<String, Object> cart) {
+        return (List<Map<String, Object>>) cart.get("sections");
+    }
+}
@@ -0,0 +1,63 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EligibilityCacheTests {
+
+    @Test
+    void missOutlivesInvalidationsOfOtherStudentsAndSemesters() {
+        EligibilityCache cache = new EligibilityCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, 10, () -> {
+            loads.incrementAndGet();
+            cache.evictStudent(2);
+            cache.evictSemester(11);
+            return new ArrayList<>();
+        });
+        cache.get(1, 10, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void missRacingItsOwnInvalidationIsNotStored() {
+        EligibilityCache cache = new EligibilityCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, 10, () -> {
+            loads.incrementAndGet();
+            cache.evictStudent(1);
+            return List.of();
+        });
+        cache.get(1, 10, () -> {
+            loads.incrementAndGet();
+            cache.evictSemester(10);
+            return List.of();
+        });
+        cache.get(1, 10, () -> {
+            loads.incrementAndGet();
+            cache.evictAll();
+            return List.of();
+        });
+        cache.get(1, 10, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        cache.get(1, 10, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertEquals(4, loads.get());
+    }
+}
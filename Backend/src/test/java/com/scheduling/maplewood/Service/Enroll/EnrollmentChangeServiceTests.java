@@ -0,0 +1,102 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Dto.SwapRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.StudentEnrollmentRepository;
+import com.scheduling.maplewood.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EnrollmentChangeServiceTests {
+
+    @Autowired private EnrollmentChangeService enrollmentChangeService;
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private SeatLedger seatLedger;
+    @Autowired private StudentEnrollmentRepository studentEnrollmentRepository;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void dropFreesTheSeat() {
+        Semester semester = fixtures.semester();
+        Course course = fixtures.course("CHG101");
+        CourseSection section = fixtures.section(course, semester, 1);
+        List<Student> students = fixtures.students(2);
+
+        assertTrue(enrollmentService.enroll(request(students.get(0), course, semester)).isSuccess());
+        assertThrows(EnrollmentException.class, () -> enrollmentService.enroll(request(students.get(1), course, semester)));
+
+        enrollmentChangeService.drop(students.get(0).getId(), section.getId());
+
+        assertEquals(0, seatLedger.taken(section.getId()));
+        assertTrue(enrollmentService.enroll(request(students.get(1), course, semester)).isSuccess());
+        assertEquals(1, seatLedger.taken(section.getId()));
+    }
+
+    @Test
+    void swapIntoAFullSectionKeepsTheOldEnrollment() {
+        Semester semester = fixtures.semester();
+        Course course = fixtures.course("CHG201");
+        CourseSection from = fixtures.section(course, semester, 5);
+        CourseSection full = fixtures.section(course, semester, 1);
+        List<Student> students = fixtures.students(2);
+        Student mover = students.get(0);
+        fixtures.enrollment(students.get(1), full);
+        assertTrue(enrollmentService.enroll(request(mover, course, semester)).isSuccess());
+
+        SwapRequest swap = new SwapRequest();
+        swap.setStudentId(mover.getId());
+        swap.setFromSectionId(from.getId());
+        swap.setToSectionId(full.getId());
+        assertThrows(EnrollmentException.class, () -> enrollmentChangeService.swap(swap));
+
+        List<StudentEnrollment> kept = studentEnrollmentRepository.findByStudentId(mover.getId());
+        assertEquals(1, kept.size());
+        assertEquals(from.getId(), kept.get(0).getSectionId());
+        assertEquals(1, seatLedger.taken(from.getId()));
+        assertEquals(1, seatLedger.taken(full.getId()));
+    }
+
+    @Test
+    void swapMovesTheSeat() {
+        Semester semester = fixtures.semester();
+        Course course = fixtures.course("CHG301");
+        CourseSection from = fixtures.section(course, semester, 1);
+        CourseSection to = fixtures.section(course, semester, 1);
+        Student student = fixtures.student();
+        assertTrue(enrollmentService.enroll(request(student, course, semester)).isSuccess());
+
+        SwapRequest swap = new SwapRequest();
+        swap.setStudentId(student.getId());
+        swap.setFromSectionId(from.getId());
+        swap.setToSectionId(to.getId());
+        enrollmentChangeService.swap(swap);
+
+        assertEquals(to.getId(), studentEnrollmentRepository.findByStudentId(student.getId()).get(0).getSectionId());
+        assertEquals(0, seatLedger.taken(from.getId()));
+        assertEquals(1, seatLedger.taken(to.getId()));
+    }
+
+    private EnrollmentRequest request(Student s, Course c, Semester sem) {
+        EnrollmentRequest req = new EnrollmentRequest();
+        req.setStudentId(s.getId());
+        req.setCourseId(c.getId());
+        req.setSemesterId(sem.getId());
+        return req;
+    }
+}
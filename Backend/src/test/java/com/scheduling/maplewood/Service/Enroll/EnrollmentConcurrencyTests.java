@@ -0,0 +1,106 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Repository.StudentEnrollmentRepository;
+import com.scheduling.maplewood.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EnrollmentConcurrencyTests {
+
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private StudentEnrollmentRepository studentEnrollmentRepository;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void concurrentEnrollsNeverOversubscribeASection() throws Exception {
+        Semester semester = fixtures.semester();
+        Course course = fixtures.course("CON101");
+        CourseSection section = fixtures.section(course, semester, 10);
+        List<Student> students = fixtures.students(1000);
+
+        // every student asks twice, so same-student duplicates race as well
+        List<Callable<Boolean>> calls = new ArrayList<>();
+        for (Student s : students) {
+            calls.add(() -> enroll(s, course, semester));
+            calls.add(() -> enroll(s, course, semester));
+        }
+        Collections.shuffle(calls, new Random(42));
+
+        int succeeded = runConcurrently(calls);
+
+        List<StudentEnrollment> enrollments = studentEnrollmentRepository.findBySectionId(section.getId());
+        assertEquals(10, succeeded);
+        assertEquals(10, enrollments.size());
+        assertEquals(10, enrollments.stream().map(StudentEnrollment::getStudentId).distinct().count());
+    }
+
+    @Test
+    void concurrentEnrollsOfOneStudentCreateOneEnrollment() throws Exception {
+        Semester semester = fixtures.semester();
+        Course course = fixtures.course("CON201");
+        fixtures.section(course, semester, 100);
+        Student student = fixtures.student();
+
+        List<Callable<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < 200; i++) calls.add(() -> enroll(student, course, semester));
+
+        int succeeded = runConcurrently(calls);
+
+        assertEquals(1, succeeded);
+        assertEquals(1, studentEnrollmentRepository.findByStudentId(student.getId()).size());
+    }
+
+    private boolean enroll(Student s, Course c, Semester sem) {
+        EnrollmentRequest req = new EnrollmentRequest();
+        req.setStudentId(s.getId());
+        req.setCourseId(c.getId());
+        req.setSemesterId(sem.getId());
+        try {
+            return enrollmentService.enroll(req).isSuccess();
+        } catch (EnrollmentException e) {
+            return false;
+        }
+    }
+
+    private int runConcurrently(List<Callable<Boolean>> calls) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        try {
+            List<Future<?>> futures = calls.stream()
+                    .map(call -> pool.submit(() -> {
+                        start.await();
+                        if (call.call()) succeeded.incrementAndGet();
+                        return null;
+                    }))
+                    .collect(Collectors.toList());
+            start.countDown();
+            for (Future<?> f : futures) f.get(2, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+        return succeeded.get();
+    }
+}
@@ -0,0 +1,90 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Repository.StudentEnrollmentRepository;
+import com.scheduling.maplewood.TestFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EnrollmentQueryCountTests {
+
+    private static final int MAX_QUERIES_PER_ENROLL = 6;
+
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private StudentEnrollmentRepository studentEnrollmentRepository;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void enrollRunsAFixedNumberOfQueriesWhateverTheHistoryLength() {
+        Semester past = fixtures.semester();
+        Semester semester = fixtures.semester();
+
+        List<Course> passedCourses = new ArrayList<>();
+        for (int i = 0; i < 40; i++) passedCourses.add(fixtures.course("HIS" + i));
+        Course target = fixtures.course("TGT101", c -> c.setPrerequisiteId(passedCourses.get(0).getId()));
+        CourseSection targetSection = fixtures.section(target, semester, 50, "TUESDAY", "10:00", "11:00");
+
+        List<CourseSection> current = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Course c = fixtures.course("CUR" + i);
+            current.add(fixtures.section(c, semester, 50, "MONDAY",
+                    String.format("%02d:00", 8 + i), String.format("%02d:00", 9 + i)));
+        }
+
+        Student warmUp = student(passedCourses.subList(0, 1), past, current, semester);
+        Student shortHistory = student(passedCourses.subList(0, 1), past, current, semester);
+        Student longHistory = student(passedCourses, past, current, semester);
+
+        // first call loads the prerequisite graph, the section masks and the seat counter
+        enroll(warmUp, target, semester);
+
+        long shortCount = countQueries(() -> enroll(shortHistory, target, semester));
+        long longCount = countQueries(() -> enroll(longHistory, target, semester));
+
+        assertEquals(shortCount, longCount);
+        assertTrue(longCount <= MAX_QUERIES_PER_ENROLL, "enroll ran " + longCount + " queries");
+        assertEquals(3, studentEnrollmentRepository.findBySectionId(targetSection.getId()).size());
+    }
+
+    private long countQueries(Runnable action) {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        action.run();
+        return stats.getPrepareStatementCount();
+    }
+
+    private void enroll(Student s, Course c, Semester sem) {
+        EnrollmentRequest req = new EnrollmentRequest();
+        req.setStudentId(s.getId());
+        req.setCourseId(c.getId());
+        req.setSemesterId(sem.getId());
+        assertTrue(enrollmentService.enroll(req).isSuccess());
+    }
+
+    private Student student(List<Course> passed, Semester past, List<CourseSection> current, Semester semester) {
+        Student student = fixtures.student();
+        for (Course c : passed) fixtures.history(student, c, past.getId(), "passed");
+        for (CourseSection cs : current) fixtures.enrollment(student, cs);
+        return student;
+    }
+}
@@ -0,0 +1,67 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Dto.EnrollmentResponse;
+import com.scheduling.maplewood.Exception.EnrollmentException;
+import com.scheduling.maplewood.Exception.TransientEnrollmentException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyStoreTests {
+
+    @Autowired private IdempotencyStore idempotencyStore;
+
+    @Test
+    void retryAfterTimeoutGetsTheQueuedRequestsOutcome() throws Exception {
+        EnrollmentRequest req = request("timeout-key");
+        CompletableFuture<EnrollmentResponse> queued = new CompletableFuture<>();
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(TransientEnrollmentException.class, () -> idempotencyStore.execute(req, () -> {
+            runs.incrementAndGet();
+            throw new TransientEnrollmentException("Enrollment timed out.", queued);
+        }));
+
+        // the retry arrives before the queued request is processed and waits for it instead of running again
+        Future<EnrollmentResponse> retry = CompletableFuture.supplyAsync(() -> idempotencyStore.execute(req, () -> {
+            runs.incrementAndGet();
+            throw new EnrollmentException("Student already enrolled in this course.");
+        }));
+        queued.complete(new EnrollmentResponse(true, "Enrolled successfully."));
+
+        assertTrue(retry.get(5, TimeUnit.SECONDS).isSuccess());
+        assertTrue(idempotencyStore.execute(req, () -> fail("ran again")).isSuccess());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void transientFailureWithoutQueuedRequestIsNotRemembered() {
+        EnrollmentRequest req = request("queue-full-key");
+
+        assertThrows(TransientEnrollmentException.class, () -> idempotencyStore.execute(req, () -> {
+            throw new TransientEnrollmentException("Too many enrollment requests, please try again.");
+        }));
+
+        assertTrue(idempotencyStore.execute(req, () -> new EnrollmentResponse(true, "Enrolled successfully.")).isSuccess());
+    }
+
+    private EnrollmentRequest request(String key) {
+        EnrollmentRequest req = new EnrollmentRequest();
+        req.setStudentId(1);
+        req.setCourseId(2);
+        req.setSemesterId(3);
+        req.setIdempotencyKey(key);
+        return req;
+    }
+}
@@ -0,0 +1,101 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.BulkEnrollmentRequest;
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Dto.LotteryRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.TransientEnrollmentException;
+import com.scheduling.maplewood.Repository.StudentEnrollmentRepository;
+import com.scheduling.maplewood.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LotteryServiceTests {
+
+    @Autowired private LotteryService lotteryService;
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private CartService cartService;
+    @Autowired private WaitlistService waitlistService;
+    @MockitoSpyBean private BulkEnrollmentService bulkEnrollmentService;
+    @Autowired private StudentEnrollmentRepository studentEnrollmentRepository;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void openWindowClosesEveryDirectEnrollmentPath() {
+        Semester semester = fixtures.semester();
+        Course course = fixtures.course("LOT101");
+        CourseSection section = fixtures.section(course, semester, 10);
+        Student student = fixtures.student();
+        lotteryService.open(semester.getId(), 7L);
+
+        EnrollmentRequest req = request(student, course, semester);
+        BulkEnrollmentRequest bulk = new BulkEnrollmentRequest();
+        bulk.setSemesterId(semester.getId());
+        BulkEnrollmentRequest.Item item = new BulkEnrollmentRequest.Item();
+        item.setStudentId(student.getId());
+        item.setCourseId(course.getId());
+        bulk.setItems(List.of(item));
+
+        assertThrows(TransientEnrollmentException.class, () -> enrollmentService.enroll(req));
+        assertThrows(TransientEnrollmentException.class, () -> bulkEnrollmentService.enrollAll(bulk));
+        assertThrows(TransientEnrollmentException.class, () -> cartService.add(student.getId(), section.getId()));
+        assertThrows(TransientEnrollmentException.class, () -> waitlistService.join(req));
+        assertTrue(studentEnrollmentRepository.findByStudentId(student.getId()).isEmpty());
+    }
+
+    @Test
+    void failedRunReopensTheWindowAndCanBeRetried() {
+        Semester semester = fixtures.semester();
+        Course course = fixtures.course("LOT201");
+        fixtures.section(course, semester, 10);
+        Student student = fixtures.student();
+        lotteryService.open(semester.getId(), 7L);
+        LotteryRequest wanted = new LotteryRequest();
+        wanted.setStudentId(student.getId());
+        wanted.setCourseIds(List.of(course.getId()));
+        lotteryService.submit(semester.getId(), wanted);
+
+        doThrow(new IllegalStateException("database is locked")).when(bulkEnrollmentService).enrollDraft(any());
+        assertThrows(IllegalStateException.class, () -> lotteryService.run(semester.getId()));
+
+        // the window is open again: it still takes requests, direct enrollment stays closed, and it can be run
+        lotteryService.submit(semester.getId(), wanted);
+        assertThrows(TransientEnrollmentException.class,
+                () -> enrollmentService.enroll(request(student, course, semester)));
+
+        doCallRealMethod().when(bulkEnrollmentService).enrollDraft(any());
+        Map<String, Object> run = lotteryService.run(semester.getId());
+
+        assertEquals("PUBLISHED", run.get("status"));
+        assertEquals(1, run.get("enrolled"));
+        assertEquals(1, studentEnrollmentRepository.findByStudentId(student.getId()).size());
+        assertDoesNotThrow(() -> lotteryService.open(semester.getId(), null));
+    }
+
+    private EnrollmentRequest request(Student s, Course c, Semester sem) {
+        EnrollmentRequest req = new EnrollmentRequest();
+        req.setStudentId(s.getId());
+        req.setCourseId(c.getId());
+        req.setSemesterId(sem.getId());
+        return req;
+    }
+}
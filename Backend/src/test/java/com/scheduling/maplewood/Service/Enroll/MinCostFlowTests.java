@@ -0,0 +1,69 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MinCostFlowTests {
+
+    @Test
+    void solvesSmallNetworkWithUnreachableNodes() {
+        // 0 = source, 3 = sink; 4 never gets flow from the source and 5 is a dead end, so both stay
+        // unreachable from the sink side while the potentials are updated
+        MinCostFlow flow = new MinCostFlow(6);
+        int s1 = flow.addArc(0, 1, 2, 1);
+        int s2 = flow.addArc(0, 2, 1, 2);
+        int a12 = flow.addArc(1, 2, 1, 1);
+        int a13 = flow.addArc(1, 3, 1, 3);
+        int a23 = flow.addArc(2, 3, 2, 1);
+        int a43 = flow.addArc(4, 3, 5, 0);
+        int a05 = flow.addArc(0, 5, 1, 0);
+
+        // the only maximum flow: 0-1-2-3 and 0-2-3 at cost 3 each, then 0-1-3 at cost 4
+        assertArrayEquals(new long[]{3, 10}, flow.solve(0, 3));
+        assertEquals(2, flow.flow(s1));
+        assertEquals(1, flow.flow(s2));
+        assertEquals(1, flow.flow(a12));
+        assertEquals(1, flow.flow(a13));
+        assertEquals(2, flow.flow(a23));
+        assertEquals(0, flow.flow(a43));
+        assertEquals(0, flow.flow(a05));
+    }
+
+    @Test
+    void reroutesEarlierFlowToReachTheOptimum() {
+        // two students, two sections, one seat each: taking the cheapest pair first (0 -> 2, cost 1) leaves
+        // 1 -> 3 at cost 6; the optimum 0 -> 3 and 1 -> 2 costs 4 + 2
+        MinCostFlow flow = new MinCostFlow(6);
+        int source = 4;
+        int sink = 5;
+        flow.addArc(source, 0, 1, 0);
+        flow.addArc(source, 1, 1, 0);
+        int a02 = flow.addArc(0, 2, 1, 1);
+        int a03 = flow.addArc(0, 3, 1, 4);
+        int a12 = flow.addArc(1, 2, 1, 2);
+        int a13 = flow.addArc(1, 3, 1, 6);
+        flow.addArc(2, sink, 1, 0);
+        flow.addArc(3, sink, 1, 0);
+
+        assertArrayEquals(new long[]{2, 6}, flow.solve(source, sink));
+        assertEquals(0, flow.flow(a02));
+        assertEquals(1, flow.flow(a03));
+        assertEquals(1, flow.flow(a12));
+        assertEquals(0, flow.flow(a13));
+    }
+
+    @Test
+    void growsPastTheInitialArcArrays() {
+        // 600 parallel unit paths need 2400 arc slots, past the initial 1024
+        int paths = 600;
+        MinCostFlow flow = new MinCostFlow(paths + 2);
+        for (int i = 0; i < paths; i++) {
+            flow.addArc(0, i + 2, 1, i % 3);
+            flow.addArc(i + 2, 1, 1, 0);
+        }
+
+        assertArrayEquals(new long[]{paths, paths / 3 * (0 + 1 + 2)}, flow.solve(0, 1));
+    }
+}
@@ -0,0 +1,84 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Dto.EnrollmentRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Repository.SectionWaitlistRepository;
+import com.scheduling.maplewood.Repository.StudentEnrollmentRepository;
+import com.scheduling.maplewood.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WaitlistServiceTests {
+
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private EnrollmentChangeService enrollmentChangeService;
+    @Autowired private WaitlistService waitlistService;
+    @Autowired private StudentEnrollmentRepository studentEnrollmentRepository;
+    @Autowired private SectionWaitlistRepository sectionWaitlistRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void droppedSeatGoesToTheHeadOfTheWaitlist() throws InterruptedException {
+        Semester semester = fixtures.semester();
+        Course course = fixtures.course("WL101");
+        CourseSection section = fixtures.section(course, semester, 1);
+        List<Student> students = fixtures.students(2);
+        Student enrolled = students.get(0);
+        Student waiting = students.get(1);
+
+        assertTrue(enrollmentService.enroll(request(enrolled, course, semester)).isSuccess());
+        assertEquals(1L, waitlistService.join(request(waiting, course, semester)).get("position"));
+
+        // stall between the commit and its completion, where a promotion scheduled on commit would find no seat yet
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            enrollmentChangeService.drop(enrolled.getId(), section.getId());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        });
+
+        // the promotion runs on the waitlist's background thread
+        for (int i = 0; i < 100 && studentEnrollmentRepository.findByStudentId(waiting.getId()).isEmpty(); i++) {
+            Thread.sleep(50);
+        }
+        List<StudentEnrollment> promoted = studentEnrollmentRepository.findBySectionId(section.getId());
+        assertEquals(1, promoted.size());
+        assertEquals(waiting.getId(), promoted.get(0).getStudentId());
+        assertTrue(sectionWaitlistRepository.findByStudentId(waiting.getId()).isEmpty());
+    }
+
+    private EnrollmentRequest request(Student s, Course c, Semester sem) {
+        EnrollmentRequest req = new EnrollmentRequest();
+        req.setStudentId(s.getId());
+        req.setCourseId(c.getId());
+        req.setSemesterId(sem.getId());
+        return req;
+    }
+}
@@ -0,0 +1,38 @@
+package com.scheduling.maplewood.Service.Enroll;
+
+import com.scheduling.maplewood.Entity.SectionMeeting;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeeklyBusyMaskTests {
+
+    @Test
+    void meetingsConflictOnlyWhenTheyOverlap() {
+        WeeklyBusyMask first = mask("MONDAY", "09:00", "09:52");
+
+        assertFalse(first.intersects(mask("MONDAY", "09:53", "10:40")));
+        assertFalse(first.intersects(mask("MONDAY", "09:52", "10:40")));
+        assertTrue(first.intersects(mask("MONDAY", "09:51", "10:40")));
+        assertFalse(first.intersects(mask("TUESDAY", "09:00", "09:52")));
+    }
+
+    @Test
+    void plannerFiguresAreExactToTheMinute() {
+        WeeklyBusyMask busy = mask("MONDAY", "09:00", "09:52").or(mask("MONDAY", "09:53", "10:40"));
+
+        assertEquals(1, busy.gapMinutes());
+        assertEquals(10 * 60 + 40, busy.latestEndMinute());
+        assertEquals(1, busy.daysUsed());
+    }
+
+    private WeeklyBusyMask mask(String day, String start, String end) {
+        SectionMeeting m = new SectionMeeting();
+        m.setDayOfWeek(day);
+        m.setStartTime(start);
+        m.setEndTime(end);
+        return WeeklyBusyMask.of(List.of(m));
+    }
+}
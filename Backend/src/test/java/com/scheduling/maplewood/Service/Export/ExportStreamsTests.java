@@ -0,0 +1,18 @@
+package com.scheduling.maplewood.Service.Export;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExportStreamsTests {
+
+    @Test
+    void csvQuotesSeparatorsQuotesAndLineBreaks() {
+        assertEquals("", ExportStreams.csv(null));
+        assertEquals("Algebra I", ExportStreams.csv("Algebra I"));
+        assertEquals("\"Smith, Ann\"", ExportStreams.csv("Smith, Ann"));
+        assertEquals("\"the \"\"A\"\" team\"", ExportStreams.csv("the \"A\" team"));
+        assertEquals("\"line\nbreak\"", ExportStreams.csv("line\nbreak"));
+        assertEquals("\"line\rbreak\"", ExportStreams.csv("line\rbreak"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.scheduling.maplewood.Service.Progress;
+
+import com.scheduling.maplewood.Entity.Course;
+import com.scheduling.maplewood.Entity.Student;
+import com.scheduling.maplewood.Service.Enroll.PrerequisiteGraphService;
+import com.scheduling.maplewood.TestFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GraduationPlannerServiceTests {
+
+    @Autowired private GraduationPlannerService planner;
+    @Autowired private PrerequisiteGraphService prerequisiteGraphService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void plansPrerequisiteChainsAroundOfferingTerms() {
+        Course fall = course("PLN101", 1, null);
+        Course spring = course("PLN102", 2, fall);
+        Course fallAgain = course("PLN201", 1, spring);
+        Course elective = course("PLN900", null, null);
+        fixtures.core(fall);
+        fixtures.core(spring);
+        fixtures.core(fallAgain);
+        prerequisiteGraphService.invalidate();
+
+        Student fresh = fixtures.student();
+        assertEquals(3, planner.semestersToGraduate(fresh.getId(), 27.0));
+
+        // PLN102 is not offered in the first (Fall) term, which takes the elective for the missing credit instead.
+        Student started = fixtures.student();
+        fixtures.history(started, fall, 1, "passed");
+        Map<String, Object> plan = planner.getPlan(started.getId(), 27.0);
+        assertEquals(3, plan.get("semestersToGraduate"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> semesters = (List<Map<String, Object>>) plan.get("semesters");
+        assertEquals(List.of(elective.getId()), courseIds(semesters.get(0)));
+        assertEquals(List.of(spring.getId()), courseIds(semesters.get(1)));
+        assertEquals(List.of(fallAgain.getId()), courseIds(semesters.get(2)));
+
+        assertNull(planner.semestersToGraduate(fresh.getId(), 0.0));
+    }
+
+    @Test
+    void planningReadsOnlyPassedCoursesUntilTheCatalogOrSemestersChange() {
+        Course passed = course("PLN301", null, null);
+        fixtures.core(passed);
+        Student student = fixtures.student();
+        fixtures.history(student, passed, 1, "passed");
+        planner.semestersToGraduate(student.getId(), 30.0);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        assertEquals(0, planner.semestersToGraduate(student.getId(), 30.0));
+        assertEquals(1, stats.getPrepareStatementCount());
+
+        // a Spring-only core course: with no semester the plan starts in Fall and waits a term for it
+        fixtures.core(course("PLN302", 2, null));
+        assertEquals(2, planner.semestersToGraduate(student.getId(), 30.0));
+
+        // once a Fall semester exists the plan starts in Spring
+        fixtures.semester();
+        assertEquals(1, planner.semestersToGraduate(student.getId(), 30.0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> courseIds(Map<String, Object> semester) {
+        return ((List<Map<String, Object>>) semester.get("courses")).stream()
+                .map(c -> (Integer) c.get("courseId")).toList();
+    }
+
+    private Course course(String code, Integer semesterOrder, Course prerequisite) {
+        return fixtures.course(code, c -> {
+            c.setSemesterOrder(semesterOrder);
+            c.setPrerequisiteId(prerequisite == null ? null : prerequisite.getId());
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package com.scheduling.maplewood.Service.Progress;
+
+import com.scheduling.maplewood.Dto.GradeEntryRequest;
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Exception.GradeEntryException;
+import com.scheduling.maplewood.Repository.*;
+import com.scheduling.maplewood.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentProgressAggregatorTests {
+
+    @Autowired private StudentProgressAggregator aggregator;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private StudentCourseHistoryRepository historyRepository;
+    @Autowired private StudentProgressRepository progressRepository;
+    @Autowired private StudentGradeRepository gradeRepository;
+    @Autowired private GradeEntryService gradeEntryService;
+    @Autowired private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void historyWritesRefreshTheAggregateOnlyWhenTheyCommit() {
+        Student student = fixtures.student();
+        Course core = course("AGG101", 3);
+        Course elective = course("AGG201", 2);
+        fixtures.core(core);
+        aggregator.rebuildAll();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            history(student, core, "passed");
+            history(student, elective, "failed");
+        });
+
+        StudentProgress progress = progressRepository.findById(student.getId()).orElseThrow();
+        assertEquals(3.0, progress.getCreditsEarned());
+        assertEquals(5.0, progress.getCreditsAttempted());
+        assertEquals(12.0, progress.getQualityPoints());
+        assertEquals(1, progress.getCorePassed());
+
+        tx.executeWithoutResult(status -> {
+            history(student, elective, "passed");
+            status.setRollbackOnly();
+        });
+        assertEquals(3.0, progressRepository.findById(student.getId()).orElseThrow().getCreditsEarned());
+
+        history(student, elective, "passed");
+        progress = progressRepository.findById(student.getId()).orElseThrow();
+        assertEquals(5.0, progress.getCreditsEarned());
+        assertEquals(7.0, progress.getCreditsAttempted());
+        assertEquals(20.0, progress.getQualityPoints());
+    }
+
+    @Test
+    void courseUpdatesRebuildTheAggregatesOnlyWhenCreditsChange() {
+        Student student = fixtures.student();
+        Course math = course("AGG401", 3);
+        Course art = course("AGG402", 1);
+        history(student, math, "passed");
+        history(student, art, "passed");
+        assertEquals(4.0, progressRepository.findById(student.getId()).orElseThrow().getCreditsEarned());
+
+        // a rename leaves the aggregates alone: the row deleted behind the aggregator's back stays deleted
+        progressRepository.deleteAll();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> courseRepository.findAllById(List.of(math.getId(), art.getId()))
+                .forEach(c -> c.setName(c.getName() + " (renamed)")));
+        assertTrue(progressRepository.findById(student.getId()).isEmpty());
+
+        tx.executeWithoutResult(status -> courseRepository.findAllById(List.of(math.getId(), art.getId()))
+                .forEach(c -> c.setCredits(c.getCredits().add(BigDecimal.ONE))));
+        assertEquals(6.0, progressRepository.findById(student.getId()).orElseThrow().getCreditsEarned());
+    }
+
+    @Test
+    void recordedGradesWriteHistoryAndGpaInOneTransaction() {
+        Student student = fixtures.student();
+        Course math = course("AGG301", 3);
+        Course art = course("AGG302", 1);
+        Semester semester = fixtures.semester();
+
+        gradeEntryService.recordGrades(grades(semester.getId(),
+                grade(student, math, null, 85.0), grade(student, art, "f", null)));
+
+        StudentProgress progress = progressRepository.findById(student.getId()).orElseThrow();
+        assertEquals(3.0, progress.getCreditsEarned());
+        assertEquals(4.0, progress.getCreditsAttempted());
+        assertEquals(9.0, progress.getQualityPoints());
+        assertEquals(2, historyRepository.findByStudentId(student.getId()).size());
+
+        gradeEntryService.recordGrades(grades(semester.getId(), grade(student, art, "A-", null)));
+
+        progress = progressRepository.findById(student.getId()).orElseThrow();
+        assertEquals(4.0, progress.getCreditsEarned());
+        assertEquals(12.7, progress.getQualityPoints(), 1e-9);
+        assertEquals(2, gradeRepository.count());
+        assertEquals(2, historyRepository.findByStudentIdAndStatus(student.getId(), "passed").size());
+    }
+
+    @Test
+    void numericGradesOutOfRangeOrContradictingTheLetterAreRejected() {
+        Student student = fixtures.student();
+        Course math = course("AGG401", 3);
+        Semester semester = fixtures.semester();
+
+        assertThrows(GradeEntryException.class, () -> gradeEntryService.recordGrades(grades(semester.getId(),
+                grade(student, math, "B", 150.0))));
+        assertThrows(GradeEntryException.class, () -> gradeEntryService.recordGrades(grades(semester.getId(),
+                grade(student, math, "A", -1.0))));
+        assertThrows(GradeEntryException.class, () -> gradeEntryService.recordGrades(grades(semester.getId(),
+                grade(student, math, "A", 50.0))));
+        assertEquals(0, gradeRepository.count());
+
+        gradeEntryService.recordGrades(grades(semester.getId(), grade(student, math, "b", 85.0)));
+        assertEquals("B", gradeRepository.findAll().get(0).getGradeLetter());
+    }
+
+    private GradeEntryRequest grades(Integer semesterId, GradeEntryRequest.Item... items) {
+        GradeEntryRequest req = new GradeEntryRequest();
+        req.setSemesterId(semesterId);
+        req.setGrades(List.of(items));
+        return req;
+    }
+
+    private GradeEntryRequest.Item grade(Student student, Course course, String letter, Double numeric) {
+        GradeEntryRequest.Item item = new GradeEntryRequest.Item();
+        item.setStudentId(student.getId());
+        item.setCourseId(course.getId());
+        item.setGradeLetter(letter);
+        item.setGradeNumeric(numeric);
+        return item;
+    }
+
+    private Course course(String code, int credits) {
+        return fixtures.course(code, c -> c.setCredits(BigDecimal.valueOf(credits)));
+    }
+
+    private void history(Student student, Course course, String status) {
+        fixtures.history(student, course, 1, status);
+    }
+}
@@ -0,0 +1,208 @@
+package com.scheduling.maplewood;
+
+import com.scheduling.maplewood.Entity.*;
+import com.scheduling.maplewood.Repository.*;
+import com.scheduling.maplewood.Service.Enroll.PrerequisiteGraphService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Saves the rows the service tests build on and deletes them again.
+ *
+ * Every test starts from an empty school: its rows are created here and {@link #deleteAll} runs after it,
+ * so tests sharing the application context never see each other's semesters, courses or students.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestFixtures {
+
+    private final SemesterRepository semesterRepository;
+    private final CourseRepository courseRepository;
+    private final CourseSectionRepository courseSectionRepository;
+    private final SectionMeetingRepository sectionMeetingRepository;
+    private final SectionWaitlistRepository sectionWaitlistRepository;
+    private final CoreRequiredCoursesRepository coreRequiredCoursesRepository;
+    private final StudentRepository studentRepository;
+    private final StudentEnrollmentRepository studentEnrollmentRepository;
+    private final StudentCourseHistoryRepository studentCourseHistoryRepository;
+    private final StudentGradeRepository studentGradeRepository;
+    private final StudentProgressRepository studentProgressRepository;
+    private final PrerequisiteGraphService prerequisiteGraphService;
+
+    /**
+     * Saves a Fall semester.
+     *
+     * @return the saved semester
+     */
+    public Semester semester() {
+        Semester s = new Semester();
+        s.setName("Fall");
+        s.setYear(2030);
+        s.setOrderInYear(1);
+        return semesterRepository.save(s);
+    }
+
+    /**
+     * Saves a one-credit Fall course of three hours a week.
+     *
+     * @param code the course's code, also used as its name
+     * @return the saved course
+     */
+    public Course course(String code) {
+        return course(code, c -> {
+        });
+    }
+
+    /**
+     * Saves a one-credit Fall course of three hours a week, changed by the caller before it is saved.
+     *
+     * @param code the course's code, also used as its name
+     * @param setup changes to the defaults
+     * @return the saved course
+     */
+    public Course course(String code, Consumer<Course> setup) {
+        Course c = new Course();
+        c.setCode(code);
+        c.setName(code);
+        c.setCredits(BigDecimal.ONE);
+        c.setHoursPerWeek(3);
+        c.setSemesterOrder(1);
+        setup.accept(c);
+        return courseRepository.save(c);
+    }
+
+    /**
+     * Marks a course as required for graduation.
+     *
+     * @param course the course
+     */
+    public void core(Course course) {
+        CoreRequiredCourse required = new CoreRequiredCourse();
+        required.setCourseId(course.getId());
+        coreRequiredCoursesRepository.save(required);
+    }
+
+    /**
+     * Saves a section without meetings.
+     *
+     * @param course the section's course
+     * @param semester the section's semester
+     * @param capacity the number of seats
+     * @return the saved section
+     */
+    public CourseSection section(Course course, Semester semester, int capacity) {
+        CourseSection cs = new CourseSection();
+        cs.setCourseId(course.getId());
+        cs.setSemesterId(semester.getId());
+        cs.setCapacity(capacity);
+        return courseSectionRepository.save(cs);
+    }
+
+    /**
+     * Saves a section meeting once a week.
+     *
+     * @param course the section's course
+     * @param semester the section's semester
+     * @param capacity the number of seats
+     * @param day the day of the meeting, e.g. MONDAY
+     * @param start the start time, HH:mm
+     * @param end the end time, HH:mm
+     * @return the saved section
+     */
+    public CourseSection section(Course course, Semester semester, int capacity, String day, String start, String end) {
+        CourseSection cs = section(course, semester, capacity);
+        SectionMeeting m = new SectionMeeting();
+        m.setSectionId(cs.getId());
+        m.setDayOfWeek(day);
+        m.setStartTime(start);
+        m.setEndTime(end);
+        sectionMeetingRepository.save(m);
+        return cs;
+    }
+
+    /**
+     * Saves an active ninth grader.
+     *
+     * @return the saved student
+     */
+    public Student student() {
+        return students(1).get(0);
+    }
+
+    /**
+     * Saves active students spread over grades 9 to 12.
+     *
+     * @param n the number of students
+     * @return the saved students
+     */
+    public List<Student> students(int n) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Student s = new Student();
+            s.setFirstName("Student");
+            s.setLastName(String.valueOf(i));
+            s.setGradeLevel(9 + i % 4);
+            s.setStatus("active");
+            students.add(s);
+        }
+        return studentRepository.saveAll(students);
+    }
+
+    /**
+     * Enrolls a student in a section, bypassing the enroll rules.
+     *
+     * @param student the student
+     * @param section the section
+     * @return the saved enrollment
+     */
+    public StudentEnrollment enrollment(Student student, CourseSection section) {
+        StudentEnrollment e = new StudentEnrollment();
+        e.setStudentId(student.getId());
+        e.setCourseId(section.getCourseId());
+        e.setSemesterId(section.getSemesterId());
+        e.setSectionId(section.getId());
+        return studentEnrollmentRepository.save(e);
+    }
+
+    /**
+     * Records a course attempt in a student's history.
+     *
+     * @param student the student
+     * @param course the course
+     * @param semesterId the semester of the attempt
+     * @param status passed or failed
+     * @return the saved history row
+     */
+    public StudentCourseHistory history(Student student, Course course, Integer semesterId, String status) {
+        StudentCourseHistory h = new StudentCourseHistory();
+        h.setStudentId(student.getId());
+        h.setCourseId(course.getId());
+        h.setSemesterId(semesterId);
+        h.setStatus(status);
+        return studentCourseHistoryRepository.save(h);
+    }
+
+    /**
+     * Deletes every row the fixtures and the services under test write, through the repositories so the
+     * entity listeners keep the caches in step.
+     */
+    public void deleteAll() {
+        sectionWaitlistRepository.deleteAll();
+        studentEnrollmentRepository.deleteAll();
+        studentGradeRepository.deleteAll();
+        studentCourseHistoryRepository.deleteAll();
+        sectionMeetingRepository.deleteAll();
+        courseSectionRepository.deleteAll();
+        coreRequiredCoursesRepository.deleteAll();
+        courseRepository.deleteAll();
+        semesterRepository.deleteAll();
+        studentProgressRepository.deleteAll();
+        studentRepository.deleteAll();
+        prerequisiteGraphService.invalidate();
+    }
+}